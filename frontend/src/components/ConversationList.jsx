@@ -30,7 +30,7 @@ function ConversationList() {
         try {
             const response = await userAPI.searchUsers(searchQuery);
             // Filter out current user from results
-            const filtered = response.data.filter(u => u.id !== user.id);
+            const filtered = response.data.content.filter(u => u.id !== user.id);
             setSearchResults(filtered);
         } catch (error) {
             console.error('Search failed:', error);
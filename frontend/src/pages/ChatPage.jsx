@@ -19,7 +19,10 @@ function ChatPage() {
         activeConversation,
         addMessage,
         updateMessageStatus,
+        updateMessageStatusUpTo,
+        removeMessages,
         setTyping,
+        updateConversation,
         wsConnected,
         setWsConnected,
         resetChat,
@@ -61,7 +64,9 @@ function ChatPage() {
                 handleMessageReceived,
                 handleStatusUpdate,
                 handleTyping,
-                handleConnectionChange
+                handleConnectionChange,
+                handlePresence,
+                handleTombstone
             );
             setWsConnected(true);
         } catch (error) {
@@ -77,7 +82,8 @@ function ChatPage() {
         setWsConnected(connected);
     };
 
-    const handleMessageReceived = (message) => {
+    // fromSync: part of the reconnect catch-up, which the sync ack marks delivered in bulk
+    const handleMessageReceived = (message, fromSync = false) => {
         console.log('Message received:', message);
 
         // Determine which user this message is for/from
@@ -86,14 +92,18 @@ function ChatPage() {
         addMessage(otherUserId, message);
 
         // Mark as delivered if we're the receiver
-        if (message.receiverId === user.id && message.status === 'SENT') {
+        if (!fromSync && message.receiverId === user.id && message.status === 'SENT') {
             websocketService.markAsDelivered(message.id, message.senderId);
         }
     };
 
     const handleStatusUpdate = (notification) => {
         console.log('Status update:', notification);
-        updateMessageStatus(notification.messageId, notification.status);
+        if (notification.upToMessageId) {
+            updateMessageStatusUpTo(notification.receiverId, notification.upToMessageId, notification.status);
+        } else {
+            updateMessageStatus(notification.messageId, notification.status);
+        }
     };
 
     const handleTyping = (notification) => {
@@ -101,6 +111,17 @@ function ChatPage() {
         setTyping(notification.senderId, notification.isTyping);
     };
 
+    const handlePresence = (update) => {
+        update.changes.forEach((change) => {
+            updateConversation(change.userId, { otherUserStatus: change.status });
+        });
+    };
+
+    const handleTombstone = (tombstone) => {
+        const otherUserId = tombstone.deletedBy === user.id ? tombstone.partnerId : tombstone.deletedBy;
+        removeMessages(otherUserId, tombstone.messageId, tombstone.upToMessageId);
+    };
+
     const handleLogout = () => {
         websocketService.disconnect();
         logout();
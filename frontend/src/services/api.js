@@ -49,4 +49,25 @@ export const messageAPI = {
         }),
 };
 
+// Room (group conversation) API
+export const roomAPI = {
+    createRoom: (name, createdBy, memberIds) =>
+        api.post('/rooms', { name, createdBy, memberIds }),
+
+    getRooms: (userId) =>
+        api.get('/rooms', { params: { userId } }),
+
+    getMembers: (roomId, userId) =>
+        api.get(`/rooms/${roomId}/members`, { params: { userId } }),
+
+    addMembers: (roomId, userId, memberIds) =>
+        api.post(`/rooms/${roomId}/members`, memberIds, { params: { userId } }),
+
+    removeMember: (roomId, userId, memberId) =>
+        api.delete(`/rooms/${roomId}/members/${memberId}`, { params: { userId } }),
+
+    getHistory: (roomId, userId, before = null, size = 50) =>
+        api.get(`/rooms/${roomId}/messages`, { params: { userId, before, size } }),
+};
+
 export default api;
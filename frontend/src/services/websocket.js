@@ -14,11 +14,11 @@ class WebSocketService {
         this.messageHandlers = null;
     }
 
-    connect(userId, onMessageReceived, onStatusUpdate, onTyping, onConnectionChange = null) {
+    connect(userId, onMessageReceived, onStatusUpdate, onTyping, onConnectionChange = null, onPresence = null, onTombstone = null, onRoomMessage = null) {
         return new Promise((resolve, reject) => {
             this.userId = userId;
             this.onConnectionChange = onConnectionChange;
-            this.messageHandlers = { onMessageReceived, onStatusUpdate, onTyping };
+            this.messageHandlers = { onMessageReceived, onStatusUpdate, onTyping, onPresence, onTombstone, onRoomMessage };
 
             this._attemptConnection(resolve, reject);
         });
@@ -26,18 +26,23 @@ class WebSocketService {
 
     _attemptConnection(resolve, reject) {
         try {
-            // Create SockJS instance
-            const socket = new SockJS(`http://localhost:8080/ws?userId=${this.userId}`);
+            // SockJS by default; VITE_WS_TRANSPORT=native skips its framing and fallbacks
+            const socket = import.meta.env.VITE_WS_TRANSPORT === 'native'
+                ? new WebSocket(`ws://localhost:8080/ws-native?userId=${this.userId}`)
+                : new SockJS(`http://localhost:8080/ws?userId=${this.userId}`);
 
-            // Create STOMP client
+            // Create STOMP client; last-message-id lets the server stream what we missed
+            const lastMessageId = this._getLastMessageId();
             this.client = new Client({
                 webSocketFactory: () => socket,
+                connectHeaders: lastMessageId ? { 'last-message-id': String(lastMessageId) } : {},
                 debug: (str) => {
                     console.log('STOMP: ' + str);
                 },
                 reconnectDelay: 0, // We'll handle reconnection manually
-                heartbeatIncoming: 4000,
-                heartbeatOutgoing: 4000,
+                // The server's chat.websocket.heartbeat.* wins when larger
+                heartbeatIncoming: 10000,
+                heartbeatOutgoing: 10000,
             });
 
             this.client.onConnect = () => {
@@ -56,10 +61,31 @@ class WebSocketService {
                     `/user/${this.userId}/queue/messages`,
                     (message) => {
                         const data = JSON.parse(message.body);
+                        if (data.receiverId === this.userId) {
+                            this._setLastMessageId(data.id);
+                        }
                         this.messageHandlers.onMessageReceived(data);
                     }
                 );
 
+                // Catch-up after (re)connect: pages of missed messages, each acked to get the next
+                this.subscriptions.sync = this.client.subscribe(
+                    `/user/${this.userId}/queue/sync`,
+                    (message) => {
+                        const batch = JSON.parse(message.body);
+                        batch.messages.forEach((m) => this.messageHandlers.onMessageReceived(m, true));
+                        if (batch.messages.length > 0) {
+                            this._setLastMessageId(batch.lastMessageId);
+                            this.client.publish({
+                                destination: '/app/sync.ack',
+                                body: JSON.stringify({ upToMessageId: batch.lastMessageId }),
+                            });
+                        }
+                    }
+                );
+                // Only after subscribing, so the first page has somewhere to go
+                this.client.publish({ destination: '/app/sync.start', body: '' });
+
                 // Subscribe to notifications (delivery/read receipts)
                 this.subscriptions.notifications = this.client.subscribe(
                     `/user/${this.userId}/queue/notifications`,
@@ -78,6 +104,39 @@ class WebSocketService {
                     }
                 );
 
+                // Subscribe to presence changes of conversation partners / watched users
+                this.subscriptions.presence = this.client.subscribe(
+                    `/user/${this.userId}/queue/presence`,
+                    (message) => {
+                        const data = JSON.parse(message.body);
+                        if (this.messageHandlers.onPresence) {
+                            this.messageHandlers.onPresence(data);
+                        }
+                    }
+                );
+
+                // Unsent messages and cleared conversations, from either side
+                this.subscriptions.tombstones = this.client.subscribe(
+                    `/user/${this.userId}/queue/tombstones`,
+                    (message) => {
+                        const data = JSON.parse(message.body);
+                        if (this.messageHandlers.onTombstone) {
+                            this.messageHandlers.onTombstone(data);
+                        }
+                    }
+                );
+
+                // Messages from every room we belong to
+                this.subscriptions.rooms = this.client.subscribe(
+                    `/user/${this.userId}/queue/rooms`,
+                    (message) => {
+                        const data = JSON.parse(message.body);
+                        if (this.messageHandlers.onRoomMessage) {
+                            this.messageHandlers.onRoomMessage(data);
+                        }
+                    }
+                );
+
                 resolve();
             };
 
@@ -176,10 +235,11 @@ class WebSocketService {
         }
     }
 
-    sendMessage(senderId, receiverId, content) {
+    // Pass the returned clientMsgId back in to retry: the server answers with the original message
+    sendMessage(senderId, receiverId, content, clientMsgId = crypto.randomUUID()) {
         if (!this.connected || !this.client) {
             console.error('WebSocket not connected');
-            return;
+            return null;
         }
 
         this.client.publish({
@@ -188,8 +248,10 @@ class WebSocketService {
                 senderId,
                 receiverId,
                 content,
+                clientMsgId,
             }),
         });
+        return clientMsgId;
     }
 
     sendTypingIndicator(senderId, receiverId, isTyping) {
@@ -235,6 +297,95 @@ class WebSocketService {
         });
     }
 
+    // Acknowledge every message from senderId up to and including upToMessageId in one frame
+    markReadUpTo(upToMessageId, senderId) {
+        if (!this.connected || !this.client) {
+            return;
+        }
+
+        this.client.publish({
+            destination: '/app/chat.read',
+            body: JSON.stringify({
+                upToMessageId,
+                senderId,
+            }),
+        });
+    }
+
+    unsendMessage(messageId) {
+        if (!this.connected || !this.client) {
+            return;
+        }
+
+        this.client.publish({
+            destination: '/app/chat.delete',
+            body: JSON.stringify({ messageId }),
+        });
+    }
+
+    // Clears the conversation for both sides; upToMessageId limits it to what is on screen
+    deleteConversation(partnerId, upToMessageId = null) {
+        if (!this.connected || !this.client) {
+            return;
+        }
+
+        this.client.publish({
+            destination: '/app/chat.delete',
+            body: JSON.stringify({ partnerId, upToMessageId }),
+        });
+    }
+
+    sendRoomMessage(roomId, content) {
+        if (!this.connected || !this.client) {
+            console.error('WebSocket not connected');
+            return;
+        }
+
+        this.client.publish({
+            destination: '/app/room.send',
+            body: JSON.stringify({ roomId, content }),
+        });
+    }
+
+    // Moves our read cursor in the room; covers every message up to upToMessageId
+    markRoomRead(roomId, upToMessageId) {
+        if (!this.connected || !this.client) {
+            return;
+        }
+
+        this.client.publish({
+            destination: '/app/room.read',
+            body: JSON.stringify({ roomId, upToMessageId }),
+        });
+    }
+
+    watchPresence(userIds) {
+        if (!this.connected || !this.client) {
+            return;
+        }
+
+        this.client.publish({
+            destination: '/app/presence.watch',
+            body: JSON.stringify({ userIds }),
+        });
+    }
+
+    _lastMessageIdKey() {
+        return `chat.lastMessageId.${this.userId}`;
+    }
+
+    _getLastMessageId() {
+        const value = localStorage.getItem(this._lastMessageIdKey());
+        return value ? Number(value) : null;
+    }
+
+    _setLastMessageId(messageId) {
+        const current = this._getLastMessageId();
+        if (!current || messageId > current) {
+            localStorage.setItem(this._lastMessageIdKey(), String(messageId));
+        }
+    }
+
     isConnected() {
         return this.connected;
     }
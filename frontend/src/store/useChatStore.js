@@ -29,14 +29,17 @@ const useChatStore = create((set, get) => ({
 
     addMessage: (userId, message) => set((state) => {
         const userMessages = state.messages[userId] || [];
-        const messageExists = userMessages.some(m => m.id === message.id);
+        // Same id, or a re-send of the same clientMsgId that got a different id
+        const isSame = (m) => m.id === message.id
+            || (message.clientMsgId && m.senderId === message.senderId && m.clientMsgId === message.clientMsgId);
+        const messageExists = userMessages.some(isSame);
 
         if (messageExists) {
             // Update existing message
             return {
                 messages: {
                     ...state.messages,
-                    [userId]: userMessages.map(m => m.id === message.id ? message : m)
+                    [userId]: userMessages.map(m => isSame(m) ? message : m)
                 }
             };
         }
@@ -62,6 +65,36 @@ const useChatStore = create((set, get) => ({
         return { messages: newMessages };
     }),
 
+    // Range receipt: every message we sent to otherUserId with id <= upToMessageId
+    updateMessageStatusUpTo: (otherUserId, upToMessageId, status) => set((state) => {
+        const userMessages = state.messages[otherUserId];
+        if (!userMessages) return state;
+
+        return {
+            messages: {
+                ...state.messages,
+                [otherUserId]: userMessages.map(msg =>
+                    msg.receiverId === otherUserId && msg.id <= upToMessageId ? { ...msg, status } : msg
+                )
+            }
+        };
+    }),
+
+    // Tombstone: drop one message, or everything up to upToMessageId (null = all)
+    removeMessages: (otherUserId, messageId, upToMessageId) => set((state) => {
+        const userMessages = state.messages[otherUserId];
+        if (!userMessages) return state;
+
+        return {
+            messages: {
+                ...state.messages,
+                [otherUserId]: userMessages.filter(msg => messageId
+                    ? msg.id !== messageId
+                    : upToMessageId && msg.id > upToMessageId)
+            }
+        };
+    }),
+
     setTyping: (userId, isTyping) => set((state) => ({
         typingUsers: { ...state.typingUsers, [userId]: isTyping }
     })),
@@ -0,0 +1,51 @@
+package com.hemanth.chat_application.bench;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.Map;
+
+// One seeded EmbeddedChatServer per trial. Dataset size is controlled with JMH params,
+// e.g. -p users=10000 -p messagesPerConversation=500
+@State(Scope.Benchmark)
+public class ChatBenchmarkState {
+
+    @Param({"1000"})
+    public int users;
+
+    @Param({"5"})
+    public int partnersPerUser;
+
+    @Param({"100"})
+    public int messagesPerConversation;
+
+    private EmbeddedChatServer server;
+
+    @Setup(Level.Trial)
+    public void start() throws Exception {
+        server = EmbeddedChatServer.start(users, partnersPerUser, messagesPerConversation, Map.of());
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() throws Exception {
+        if (server != null) {
+            server.close();
+        }
+    }
+
+    public <T> T bean(Class<T> type) {
+        return server.bean(type);
+    }
+
+    public int serverPort() {
+        return server.port();
+    }
+
+    public long partnerOf(long userId, int offset) {
+        return server.partnerOf(userId, offset);
+    }
+}
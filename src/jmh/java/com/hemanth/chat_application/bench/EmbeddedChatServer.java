@@ -0,0 +1,97 @@
+package com.hemanth.chat_application.bench;
+
+import com.hemanth.chat_application.ChatApplication;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.HashMap;
+import java.util.Map;
+
+// The application running in-process against an embedded Postgres, seeded with
+// users x partnersPerUser conversations of messagesPerConversation messages each.
+// Shared by the JMH benchmarks and the WebSocket load test.
+public class EmbeddedChatServer implements AutoCloseable {
+    private final int users;
+    private final EmbeddedPostgres postgres;
+    private final ConfigurableApplicationContext context;
+
+    private EmbeddedChatServer(int users, EmbeddedPostgres postgres, ConfigurableApplicationContext context) {
+        this.users = users;
+        this.postgres = postgres;
+        this.context = context;
+    }
+
+    public static EmbeddedChatServer start(int users, int partnersPerUser, int messagesPerConversation,
+                                           Map<String, Object> extraProperties) throws Exception {
+        EmbeddedPostgres postgres = EmbeddedPostgres.builder().start();
+
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("server.port", "0");
+        properties.put("spring.datasource.url",
+                postgres.getJdbcUrl("postgres", "postgres") + "&currentSchema=chat_app&reWriteBatchedInserts=true");
+        properties.put("spring.datasource.username", "postgres");
+        properties.put("spring.datasource.password", "");
+        properties.put("spring.jpa.show-sql", "false");
+        properties.put("spring.main.banner-mode", "off");
+        properties.put("logging.level.root", "WARN");
+        properties.putAll(extraProperties);
+
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(ChatApplication.class)
+                .properties(properties)
+                .run();
+
+        EmbeddedChatServer server = new EmbeddedChatServer(users, postgres, context);
+        server.seed(partnersPerUser, messagesPerConversation);
+        return server;
+    }
+
+    public <T> T bean(Class<T> type) {
+        return context.getBean(type);
+    }
+
+    public int port() {
+        return Integer.parseInt(context.getEnvironment().getProperty("local.server.port"));
+    }
+
+    // Partner of user u at offset k, wrapping around the user id range
+    public long partnerOf(long userId, int offset) {
+        return ((userId + offset - 1) % users) + 1;
+    }
+
+    @Override
+    public void close() throws Exception {
+        context.close();
+        postgres.close();
+    }
+
+    private void seed(int partnersPerUser, int messagesPerConversation) {
+        JdbcTemplate jdbc = context.getBean(JdbcTemplate.class);
+
+        jdbc.update("INSERT INTO users (email, username, status, is_active, created_at) " +
+                "SELECT 'user' || g || '@bench.local', 'user' || g, 'OFFLINE', true, now() " +
+                "FROM generate_series(1, ?) g", users);
+
+        jdbc.update("INSERT INTO messages " +
+                "(sender_id, receiver_id, conversation_id, content, status, sent_at, is_deleted) " +
+                "SELECT CASE WHEN m % 2 = 0 THEN p.a ELSE p.b END, CASE WHEN m % 2 = 0 THEN p.b ELSE p.a END, " +
+                "LEAST(p.a, p.b) || ':' || GREATEST(p.a, p.b), 'benchmark message ' || m, 'READ', " +
+                "now() - make_interval(secs => m), false " +
+                "FROM (SELECT u AS a, ((u + k - 1) % ?) + 1 AS b " +
+                "      FROM generate_series(1, ?) u, generate_series(1, ?) k) p, " +
+                "generate_series(1, ?) m",
+                users, users, partnersPerUser, messagesPerConversation);
+
+        jdbc.update("INSERT INTO conversations " +
+                "(user_id, partner_id, last_message_id, last_message_content, last_message_at, unread_count) " +
+                "SELECT DISTINCT ON (p.user_id, p.partner_id) p.user_id, p.partner_id, p.id, p.content, p.sent_at, 0 " +
+                "FROM (SELECT sender_id AS user_id, receiver_id AS partner_id, id, content, sent_at FROM messages " +
+                "      UNION ALL " +
+                "      SELECT receiver_id, sender_id, id, content, sent_at FROM messages) p " +
+                "ORDER BY p.user_id, p.partner_id, p.sent_at DESC, p.id DESC " +
+                "ON CONFLICT DO NOTHING");
+
+        jdbc.execute("ANALYZE");
+    }
+}
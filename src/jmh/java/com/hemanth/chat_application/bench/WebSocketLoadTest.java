@@ -0,0 +1,308 @@
+package com.hemanth.chat_application.bench;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.springframework.messaging.converter.MappingJackson2MessageConverter;
+import org.springframework.messaging.simp.stomp.StompFrameHandler;
+import org.springframework.messaging.simp.stomp.StompHeaders;
+import org.springframework.messaging.simp.stomp.StompSession;
+import org.springframework.messaging.simp.stomp.StompSessionHandlerAdapter;
+import org.springframework.web.socket.WebSocketExtension;
+import org.springframework.web.socket.WebSocketHttpHeaders;
+import org.springframework.web.socket.client.standard.StandardWebSocketClient;
+import org.springframework.web.socket.messaging.WebSocketStompClient;
+import org.springframework.web.socket.sockjs.client.SockJsClient;
+import org.springframework.web.socket.sockjs.client.WebSocketTransport;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.OperatingSystemMXBean;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// End-to-end load generator: boots the server in-process, opens one STOMP session per user
+// through /ws?userId=... (SockJS) or /ws-native?userId=... (raw WebSocket), drives a
+// chat/typing/read-receipt mix and records send-to-deliver latency (/app/chat.send ->
+// receiver's /user/queue/messages) in an HdrHistogram. load.compression offers
+// permessage-deflate on the handshake; process CPU per delivered message covers both the
+// clients and the server, so compare runs rather than reading it as server cost alone.
+//
+//   mvn -P benchmarks test-compile exec:exec@load-test -Dload.args="-Dload.sessions=5000 -Dload.duration-seconds=120"
+//   mvn -P benchmarks test-compile exec:exec@load-test -Dload.args="-Dload.transport=native -Dload.compression=true"
+public class WebSocketLoadTest {
+    private static final String LATENCY_PREFIX = "lt:";
+
+    private final int sessions = Integer.getInteger("load.sessions", 2000);
+    private final int partnersPerUser = Integer.getInteger("load.partners-per-user", 5);
+    private final int rampUpSeconds = Integer.getInteger("load.ramp-up-seconds", 20);
+    private final int durationSeconds = Integer.getInteger("load.duration-seconds", 60);
+    private final double chatPerSecond = Double.parseDouble(System.getProperty("load.chat-per-second", "0.5"));
+    private final double typingPerSecond = Double.parseDouble(System.getProperty("load.typing-per-second", "1.0"));
+    private final double readPerSecond = Double.parseDouble(System.getProperty("load.read-per-second", "0.2"));
+    private final String transport = System.getProperty("load.transport", "sockjs");
+    private final boolean compression = Boolean.getBoolean("load.compression");
+    private final Path reportPath = Path.of(System.getProperty("load.report", "target/loadtest-report.txt"));
+
+    private final Recorder latency = new Recorder(TimeUnit.SECONDS.toMicros(60), 3);
+    private final AtomicLong chatSent = new AtomicLong();
+    private final AtomicLong chatDelivered = new AtomicLong();
+    private final AtomicLong typingSent = new AtomicLong();
+    private final AtomicLong readsSent = new AtomicLong();
+    private final AtomicLong connectFailures = new AtomicLong();
+    private final AtomicLong sendFailures = new AtomicLong();
+    private final ConcurrentLinkedQueue<VirtualUser> connected = new ConcurrentLinkedQueue<>();
+
+    public static void main(String[] args) throws Exception {
+        WebSocketLoadTest test = new WebSocketLoadTest();
+        try (EmbeddedChatServer server = EmbeddedChatServer.start(
+                test.sessions, test.partnersPerUser, 10, Map.of("chat.presence.audience-cache-size", test.sessions))) {
+            test.run(server);
+        }
+        System.exit(0);
+    }
+
+    private void run(EmbeddedChatServer server) throws Exception {
+        boolean nativeTransport = "native".equals(transport);
+        WebSocketStompClient client = nativeTransport
+                ? new WebSocketStompClient(new StandardWebSocketClient())
+                : new WebSocketStompClient(new SockJsClient(List.of(new WebSocketTransport(new StandardWebSocketClient()))));
+        MappingJackson2MessageConverter converter = new MappingJackson2MessageConverter();
+        converter.setObjectMapper(server.bean(ObjectMapper.class));
+        client.setMessageConverter(converter);
+        client.setInboundMessageSizeLimit(64 * 1024);
+
+        String url = nativeTransport
+                ? "ws://localhost:" + server.port() + "/ws-native?userId={userId}"
+                : "http://localhost:" + server.port() + "/ws?userId={userId}";
+        WebSocketHttpHeaders handshakeHeaders = new WebSocketHttpHeaders();
+        if (compression) {
+            handshakeHeaders.setSecWebSocketExtensions(List.of(new WebSocketExtension("permessage-deflate")));
+        }
+
+        ScheduledExecutorService traffic = Executors.newScheduledThreadPool(
+                Math.max(2, Runtime.getRuntime().availableProcessors() / 2));
+        traffic.scheduleAtFixedRate(this::tick, 100, 100, TimeUnit.MILLISECONDS);
+
+        // Ramp up: spread connection attempts evenly so the handshake path is not one burst
+        long rampNanos = TimeUnit.SECONDS.toNanos(rampUpSeconds);
+        long start = System.nanoTime();
+        for (int i = 0; i < sessions; i++) {
+            long userId = i + 1;
+            VirtualUser user = new VirtualUser(userId, server.partnerOf(userId, 1 + (i % partnersPerUser)));
+            client.connectAsync(url, handshakeHeaders, user, userId)
+                    .whenComplete((session, error) -> {
+                        if (error != null) {
+                            connectFailures.incrementAndGet();
+                        }
+                    });
+
+            long due = start + rampNanos * (i + 1) / sessions;
+            long wait = due - System.nanoTime();
+            if (wait > 0) {
+                TimeUnit.NANOSECONDS.sleep(wait);
+            }
+        }
+
+        // Measurement window starts after ramp-up
+        latency.reset();
+        long sentBefore = chatSent.get();
+        long deliveredBefore = chatDelivered.get();
+        Map<String, long[]> gcBefore = gcSnapshot();
+        resetPeakUsage();
+        long cpuBefore = processCpuNanos();
+        long windowStart = System.nanoTime();
+
+        TimeUnit.SECONDS.sleep(durationSeconds);
+
+        double elapsed = (System.nanoTime() - windowStart) / 1e9;
+        long cpuNanos = processCpuNanos() - cpuBefore;
+        Histogram histogram = latency.getIntervalHistogram();
+        String report = report(elapsed, histogram,
+                chatSent.get() - sentBefore, chatDelivered.get() - deliveredBefore, cpuNanos, gcBefore);
+
+        traffic.shutdownNow();
+        connected.forEach(VirtualUser::disconnect);
+        client.stop();
+
+        System.out.println(report);
+        Files.createDirectories(reportPath.toAbsolutePath().getParent());
+        Files.writeString(reportPath, report, StandardCharsets.UTF_8);
+    }
+
+    // Every 100ms each connected user rolls for each kind of traffic
+    private void tick() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (VirtualUser user : connected) {
+            try {
+                if (random.nextDouble() < chatPerSecond / 10) {
+                    user.sendChat();
+                }
+                if (random.nextDouble() < typingPerSecond / 10) {
+                    user.sendTyping();
+                }
+                if (random.nextDouble() < readPerSecond / 10) {
+                    user.sendRead();
+                }
+            } catch (RuntimeException e) {
+                sendFailures.incrementAndGet();
+            }
+        }
+    }
+
+    private String report(double elapsed, Histogram histogram, long sent, long delivered, long cpuNanos,
+                          Map<String, long[]> gcBefore) {
+        StringBuilder out = new StringBuilder();
+        out.append("=== WebSocket load test ===\n");
+        out.append(String.format("sessions          requested=%d connected=%d connect-failures=%d%n",
+                sessions, connected.size(), connectFailures.get()));
+        out.append(String.format("transport         %s compression=%s%n", transport, compression));
+        out.append(String.format("traffic / session chat=%.2f/s typing=%.2f/s read=%.2f/s%n",
+                chatPerSecond, typingPerSecond, readPerSecond));
+        out.append(String.format("window            %.1fs after %ds ramp-up%n", elapsed, rampUpSeconds));
+        out.append(String.format("chat              sent=%d (%.1f/s) delivered=%d (%.1f/s)%n",
+                sent, sent / elapsed, delivered, delivered / elapsed));
+        out.append(String.format("other frames      typing=%d read=%d send-failures=%d%n",
+                typingSent.get(), readsSent.get(), sendFailures.get()));
+
+        out.append("\n--- send -> deliver latency (ms) ---\n");
+        out.append(String.format("count=%d mean=%.2f p50=%.2f p90=%.2f p99=%.2f p99.9=%.2f max=%.2f%n",
+                histogram.getTotalCount(), histogram.getMean() / 1000.0,
+                histogram.getValueAtPercentile(50) / 1000.0, histogram.getValueAtPercentile(90) / 1000.0,
+                histogram.getValueAtPercentile(99) / 1000.0, histogram.getValueAtPercentile(99.9) / 1000.0,
+                histogram.getMaxValue() / 1000.0));
+
+        out.append("\n--- server JVM (in-process) ---\n");
+        out.append(String.format("cpu (with clients) total=%.1fs per-delivered-message=%.1fus%n",
+                cpuNanos / 1e9, delivered == 0 ? 0.0 : cpuNanos / 1000.0 / delivered));
+        gcSnapshot().forEach((name, now) -> {
+            long[] before = gcBefore.getOrDefault(name, new long[]{0, 0});
+            out.append(String.format("gc %-28s collections=%d time=%dms%n",
+                    name, now[0] - before[0], now[1] - before[1]));
+        });
+        var heap = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage();
+        long peak = ManagementFactory.getMemoryPoolMXBeans().stream()
+                .filter(pool -> pool.getType() == MemoryType.HEAP)
+                .mapToLong(pool -> pool.getPeakUsage().getUsed())
+                .sum();
+        out.append(String.format("heap used=%dMB committed=%dMB max=%dMB peak(sum of pools)=%dMB%n",
+                heap.getUsed() >> 20, heap.getCommitted() >> 20, heap.getMax() >> 20, peak >> 20));
+
+        out.append("\n--- latency distribution (ms) ---\n");
+        ByteArrayOutputStream distribution = new ByteArrayOutputStream();
+        histogram.outputPercentileDistribution(new PrintStream(distribution, true, StandardCharsets.UTF_8), 1000.0);
+        out.append(distribution.toString(StandardCharsets.UTF_8));
+        return out.toString();
+    }
+
+    private static Map<String, long[]> gcSnapshot() {
+        Map<String, long[]> snapshot = new LinkedHashMap<>();
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            snapshot.put(gc.getName(), new long[]{gc.getCollectionCount(), gc.getCollectionTime()});
+        }
+        return snapshot;
+    }
+
+    // -1 when the JVM does not expose process CPU time
+    private static long processCpuNanos() {
+        OperatingSystemMXBean os = ManagementFactory.getOperatingSystemMXBean();
+        return os instanceof com.sun.management.OperatingSystemMXBean sunOs ? sunOs.getProcessCpuTime() : -1;
+    }
+
+    private static void resetPeakUsage() {
+        ManagementFactory.getMemoryPoolMXBeans().forEach(MemoryPoolMXBean::resetPeakUsage);
+    }
+
+    private class VirtualUser extends StompSessionHandlerAdapter implements StompFrameHandler {
+        private final long userId;
+        private final long partnerId;
+        private volatile StompSession session;
+        private volatile Long lastReceivedId;
+        private volatile Long lastSenderId;
+
+        private VirtualUser(long userId, long partnerId) {
+            this.userId = userId;
+            this.partnerId = partnerId;
+        }
+
+        @Override
+        public void afterConnected(StompSession session, StompHeaders connectedHeaders) {
+            this.session = session;
+            session.subscribe("/user/queue/messages", this);
+            connected.add(this);
+        }
+
+        @Override
+        public Type getPayloadType(StompHeaders headers) {
+            return Map.class;
+        }
+
+        @Override
+        public void handleFrame(StompHeaders headers, Object payload) {
+            Map<?, ?> message = (Map<?, ?>) payload;
+            if (((Number) message.get("receiverId")).longValue() != userId) {
+                return; // Echo of our own send
+            }
+
+            String content = (String) message.get("content");
+            if (content != null && content.startsWith(LATENCY_PREFIX)) {
+                long sentAt = Long.parseLong(content.substring(LATENCY_PREFIX.length()));
+                latency.recordValue(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - sentAt));
+            }
+            chatDelivered.incrementAndGet();
+            lastReceivedId = ((Number) message.get("id")).longValue();
+            lastSenderId = ((Number) message.get("senderId")).longValue();
+        }
+
+        private void sendChat() {
+            session.send("/app/chat.send", Map.of(
+                    "senderId", userId,
+                    "receiverId", partnerId,
+                    "content", LATENCY_PREFIX + System.nanoTime()));
+            chatSent.incrementAndGet();
+        }
+
+        private void sendTyping() {
+            session.send("/app/chat.typing", Map.of(
+                    "senderId", userId,
+                    "receiverId", partnerId,
+                    "isTyping", true));
+            typingSent.incrementAndGet();
+        }
+
+        private void sendRead() {
+            Long upTo = lastReceivedId;
+            Long sender = lastSenderId;
+            if (upTo == null) {
+                return;
+            }
+            session.send("/app/chat.read", Map.of(
+                    "upToMessageId", upTo,
+                    "senderId", sender,
+                    "receiverId", userId));
+            readsSent.incrementAndGet();
+        }
+
+        private void disconnect() {
+            if (session != null && session.isConnected()) {
+                session.disconnect();
+            }
+        }
+    }
+}
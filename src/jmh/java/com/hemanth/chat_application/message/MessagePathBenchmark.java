@@ -0,0 +1,93 @@
+package com.hemanth.chat_application.message;
+
+import com.hemanth.chat_application.bench.ChatBenchmarkState;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Slice;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// Service-level hot paths: ingest, inbox, history paging and response mapping
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MessagePathBenchmark {
+    private MessageService messageService;
+    private ConversationService conversationService;
+    private Message sample;
+
+    @Setup(Level.Trial)
+    public void setUp(ChatBenchmarkState state) {
+        messageService = state.bean(MessageService.class);
+        conversationService = state.bean(ConversationService.class);
+        sample = Message.builder()
+                .id(42L)
+                .senderId(1L)
+                .receiverId(2L)
+                .conversationId("1:2")
+                .content("benchmark message")
+                .status(MessageStatus.SENT)
+                .sentAt(LocalDateTime.now())
+                .isDeleted(false)
+                .build();
+    }
+
+    @Benchmark
+    public ChatMessageResponse saveMessage(ChatBenchmarkState state) {
+        long sender = randomUser(state);
+        return messageService.saveMessage(ChatMessageRequest.builder()
+                .senderId(sender)
+                .receiverId(state.partnerOf(sender, 1))
+                .content("benchmark message")
+                .build());
+    }
+
+    @Benchmark
+    public List<ConversationDTO> inbox(ChatBenchmarkState state) {
+        return conversationService.getUserConversations(randomUser(state), null, null, 50);
+    }
+
+    @Benchmark
+    public Object conversationFirstPage(ChatBenchmarkState state) {
+        long user = randomUser(state);
+        return messageService.getConversation(user, state.partnerOf(user, 1), 0, 50);
+    }
+
+    // OFFSET paging near the end of the history: the case keyset pagination replaces
+    @Benchmark
+    public Object conversationDeepPage(ChatBenchmarkState state) {
+        long user = randomUser(state);
+        int lastPage = Math.max(0, state.messagesPerConversation * 2 / 50 - 1);
+        return messageService.getConversation(user, state.partnerOf(user, 1), lastPage, 50);
+    }
+
+    @Benchmark
+    public Slice<ChatMessageResponse> historyLatest(ChatBenchmarkState state) {
+        long user = randomUser(state);
+        return messageService.getConversationHistory(user, state.partnerOf(user, 1), null, null, 50);
+    }
+
+    @Benchmark
+    public ChatMessageResponse toResponse() {
+        return messageService.toResponse(sample);
+    }
+
+    private long randomUser(ChatBenchmarkState state) {
+        return ThreadLocalRandom.current().nextLong(1, state.users + 1);
+    }
+}
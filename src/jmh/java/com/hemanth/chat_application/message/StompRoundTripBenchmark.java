@@ -0,0 +1,97 @@
+package com.hemanth.chat_application.message;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hemanth.chat_application.bench.ChatBenchmarkState;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.messaging.converter.MappingJackson2MessageConverter;
+import org.springframework.messaging.simp.stomp.StompFrameHandler;
+import org.springframework.messaging.simp.stomp.StompHeaders;
+import org.springframework.messaging.simp.stomp.StompSession;
+import org.springframework.messaging.simp.stomp.StompSessionHandlerAdapter;
+import org.springframework.web.socket.client.standard.StandardWebSocketClient;
+import org.springframework.web.socket.messaging.WebSocketStompClient;
+import org.springframework.web.socket.sockjs.client.SockJsClient;
+import org.springframework.web.socket.sockjs.client.WebSocketTransport;
+
+import java.lang.reflect.Type;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+// /app/chat.send -> ChatWebSocketController -> simple broker -> sender's /user/queue/messages
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class StompRoundTripBenchmark {
+    private static final long SENDER = 1L;
+
+    private final BlockingQueue<ChatMessageResponse> echoes = new LinkedBlockingQueue<>();
+    private WebSocketStompClient client;
+    private StompSession session;
+    private long receiver;
+
+    @Setup(Level.Trial)
+    public void connect(ChatBenchmarkState state) throws Exception {
+        receiver = state.partnerOf(SENDER, 1);
+        client = new WebSocketStompClient(
+                new SockJsClient(List.of(new WebSocketTransport(new StandardWebSocketClient()))));
+        MappingJackson2MessageConverter converter = new MappingJackson2MessageConverter();
+        converter.setObjectMapper(state.bean(ObjectMapper.class));
+        client.setMessageConverter(converter);
+
+        session = client.connectAsync("http://localhost:" + state.serverPort() + "/ws?userId=" + SENDER,
+                        new StompSessionHandlerAdapter() {
+                        })
+                .get(10, TimeUnit.SECONDS);
+        session.subscribe("/user/queue/messages", new StompFrameHandler() {
+            @Override
+            public Type getPayloadType(StompHeaders headers) {
+                return ChatMessageResponse.class;
+            }
+
+            @Override
+            public void handleFrame(StompHeaders headers, Object payload) {
+                echoes.add((ChatMessageResponse) payload);
+            }
+        });
+
+        // Make sure the subscription is live before measuring
+        roundTrip();
+    }
+
+    @TearDown(Level.Trial)
+    public void disconnect() {
+        session.disconnect();
+        client.stop();
+    }
+
+    @Benchmark
+    public ChatMessageResponse roundTrip() throws InterruptedException {
+        session.send("/app/chat.send", ChatMessageRequest.builder()
+                .senderId(SENDER)
+                .receiverId(receiver)
+                .content("round trip")
+                .build());
+
+        ChatMessageResponse echo = echoes.poll(5, TimeUnit.SECONDS);
+        if (echo == null) {
+            throw new IllegalStateException("No echo within 5s");
+        }
+        return echo;
+    }
+}
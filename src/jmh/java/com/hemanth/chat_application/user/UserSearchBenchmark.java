@@ -0,0 +1,90 @@
+package com.hemanth.chat_application.user;
+
+import com.hemanth.chat_application.bench.EmbeddedChatServer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Slice;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// Search-box latency (p50..p99.9 via SampleTime) over 1M users by default:
+//   mvn -P benchmarks verify -Djmh.args="UserSearchBenchmark"
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class UserSearchBenchmark {
+    private static final String[] NAMES = {
+            "alex", "sam", "jordan", "taylor", "morgan", "casey", "riley", "jamie", "avery", "quinn",
+            "hemanth", "priya", "arjun", "meera", "rahul", "sneha", "vikram", "ananya", "kiran", "deepa"};
+
+    @Param({"1000000"})
+    public int users;
+
+    private EmbeddedChatServer server;
+    private UserService userService;
+
+    @Setup(Level.Trial)
+    public void start() throws Exception {
+        server = EmbeddedChatServer.start(users, 0, 0, Map.of());
+
+        // Realistic spread of names: a common first name plus a random-looking suffix
+        JdbcTemplate jdbc = server.bean(JdbcTemplate.class);
+        jdbc.update("UPDATE users SET username = (ARRAY['" + String.join("','", NAMES) + "'])[1 + id % "
+                + NAMES.length + "] || '_' || substr(md5(id::text), 1, 6)");
+        jdbc.execute("VACUUM ANALYZE users");
+
+        userService = server.bean(UserService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() throws Exception {
+        if (server != null) {
+            server.close();
+        }
+    }
+
+    // Two keystrokes in: btree prefix range
+    @Benchmark
+    public Slice<UserResponse> shortPrefix() {
+        return userService.searchUsers(randomName().substring(0, 2), 0, 20);
+    }
+
+    // Common name: many trigram matches to rank
+    @Benchmark
+    public Slice<UserResponse> commonName() {
+        return userService.searchUsers(randomName(), 0, 20);
+    }
+
+    // Suffix fragment: few, selective trigram matches
+    @Benchmark
+    public Slice<UserResponse> selectiveSubstring() {
+        String suffix = Integer.toHexString(ThreadLocalRandom.current().nextInt(0x1000, 0x10000));
+        return userService.searchUsers(suffix, 0, 20);
+    }
+
+    @Benchmark
+    public Slice<UserResponse> emailPrefix() {
+        return userService.searchUsers("user" + ThreadLocalRandom.current().nextInt(1, users + 1) + "@", 0, 20);
+    }
+
+    private static String randomName() {
+        return NAMES[ThreadLocalRandom.current().nextInt(NAMES.length)];
+    }
+}
@@ -0,0 +1,185 @@
+package com.hemanth.chat_application.websocket;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.hemanth.chat_application.message.ChatMessageResponse;
+import com.hemanth.chat_application.message.MessageStatus;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.converter.MappingJackson2MessageConverter;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.user.SimpSession;
+import org.springframework.messaging.simp.user.SimpSubscription;
+import org.springframework.messaging.simp.user.SimpSubscriptionMatcher;
+import org.springframework.messaging.simp.user.SimpUser;
+import org.springframework.messaging.simp.user.SimpUserRegistry;
+
+import java.security.Principal;
+import java.time.LocalDateTime;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+// Cost of delivering one message to N user destinations, up to the broker channel (no
+// network): convertAndSendToUser per recipient vs encode once and share the bytes. Run
+// with the GC profiler and divide gc.alloc.rate.norm by recipients for bytes allocated per
+// delivered message:
+//   mvn -P benchmarks verify -DskipTests -Djmh.args="-prof gc FanoutEncoding"
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class FanoutEncodingBenchmark {
+    @Param({"2", "50", "500"})
+    public int recipients;
+
+    private SimpMessagingTemplate convertingTemplate;
+    private PreEncodedMessagingTemplate jsonTemplate;
+    private PreEncodedMessagingTemplate cborTemplate;
+    private ChatMessageResponse message;
+    private long bytesSent;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        ObjectMapper objectMapper = JsonMapper.builder()
+                .addModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+
+        // Stands in for the broker channel: counts body bytes so nothing is optimized away
+        MessageChannel channel = (frame, timeout) -> {
+            bytesSent += ((byte[]) frame.getPayload()).length;
+            return true;
+        };
+
+        convertingTemplate = new SimpMessagingTemplate(channel);
+        MappingJackson2MessageConverter converter = new MappingJackson2MessageConverter();
+        converter.setObjectMapper(objectMapper);
+        convertingTemplate.setMessageConverter(converter);
+
+        SimpMessagingTemplate rawTemplate = new SimpMessagingTemplate(channel);
+        jsonTemplate = new PreEncodedMessagingTemplate(rawTemplate, new SingleSessionRegistry(),
+                objectMapper, new SimpleMeterRegistry());
+        cborTemplate = new PreEncodedMessagingTemplate(rawTemplate, new SingleSessionRegistry(),
+                objectMapper, new SimpleMeterRegistry());
+        for (int i = 0; i < recipients; i++) {
+            cborTemplate.sessionConnected(String.valueOf(i), "session-" + i, PayloadFormat.CBOR);
+        }
+
+        message = ChatMessageResponse.builder()
+                .id(123456789L)
+                .senderId(42L)
+                .receiverId(43L)
+                .content("Hey, are we still on for lunch tomorrow? I can book the usual place.")
+                .status(MessageStatus.SENT)
+                .sentAt(LocalDateTime.now())
+                .build();
+    }
+
+    @Benchmark
+    public long convertPerRecipient() {
+        for (int i = 0; i < recipients; i++) {
+            convertingTemplate.convertAndSendToUser(String.valueOf(i), "/queue/messages", message);
+        }
+        return bytesSent;
+    }
+
+    @Benchmark
+    public long encodeOnceJson() {
+        EncodedPayload payload = jsonTemplate.encode(message);
+        for (int i = 0; i < recipients; i++) {
+            jsonTemplate.sendToUser(String.valueOf(i), "/queue/messages", payload);
+        }
+        return bytesSent;
+    }
+
+    // Every recipient negotiated CBOR, so each send is session-targeted
+    @Benchmark
+    public long encodeOnceCbor() {
+        EncodedPayload payload = cborTemplate.encode(message);
+        for (int i = 0; i < recipients; i++) {
+            cborTemplate.sendToUser(String.valueOf(i), "/queue/messages", payload);
+        }
+        return bytesSent;
+    }
+
+    // Every user has exactly one session, "session-<user>"
+    private static class SingleSessionRegistry implements SimpUserRegistry {
+        @Override
+        public SimpUser getUser(String userName) {
+            return new SimpUser() {
+                private final SimpUser user = this;
+
+                @Override
+                public String getName() {
+                    return userName;
+                }
+
+                @Override
+                public Principal getPrincipal() {
+                    return () -> userName;
+                }
+
+                @Override
+                public boolean hasSessions() {
+                    return true;
+                }
+
+                @Override
+                public SimpSession getSession(String sessionId) {
+                    return getSessions().iterator().next();
+                }
+
+                @Override
+                public Set<SimpSession> getSessions() {
+                    return Set.of(new SimpSession() {
+                        @Override
+                        public String getId() {
+                            return "session-" + userName;
+                        }
+
+                        @Override
+                        public SimpUser getUser() {
+                            return user;
+                        }
+
+                        @Override
+                        public Set<SimpSubscription> getSubscriptions() {
+                            return Set.of();
+                        }
+                    });
+                }
+            };
+        }
+
+        @Override
+        public Set<SimpUser> getUsers() {
+            return Set.of();
+        }
+
+        @Override
+        public int getUserCount() {
+            return 0;
+        }
+
+        @Override
+        public Set<SimpSubscription> findSubscriptions(SimpSubscriptionMatcher matcher) {
+            return Set.of();
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package com.hemanth.chat_application.websocket;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.hemanth.chat_application.message.ChatMessageResponse;
+import com.hemanth.chat_application.message.MessageStatus;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompEncoder;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.util.MimeTypeUtils;
+import org.springframework.web.socket.sockjs.frame.Jackson2SockJsMessageCodec;
+import org.springframework.web.socket.sockjs.frame.SockJsMessageCodec;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.Deflater;
+
+// Server-side cost of putting one /user/queue/messages frame on the wire, per transport:
+// STOMP encoding, then SockJS framing (a["<escaped STOMP>"]) or none for /ws-native, then
+// optional permessage-deflate as Tomcat does it (raw deflate, sync flush, trailing 00 00 ff ff
+// dropped). Time per op is the CPU cost; bytes on wire per message are printed at the end.
+// Messages rotate through varied contents so context takeover is not flattered by repeats.
+//   mvn -P benchmarks verify -DskipTests -Djmh.args="TransportOverhead"
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class TransportOverheadBenchmark {
+    private static final int DISTINCT_MESSAGES = 64;
+
+    @Param({"sockjs", "native"})
+    public String transport;
+
+    // none, deflate (context takeover, the default), deflate-no-context (reset per message)
+    @Param({"none", "deflate", "deflate-no-context"})
+    public String compression;
+
+    private final StompEncoder stompEncoder = new StompEncoder();
+    private final SockJsMessageCodec sockJsCodec = new Jackson2SockJsMessageCodec();
+    private final byte[] deflateBuffer = new byte[64 * 1024];
+    private Deflater deflater;
+    private Message<byte[]>[] frames;
+    private int next;
+    private long wireBytes;
+    private long messages;
+
+    @Setup(Level.Trial)
+    @SuppressWarnings("unchecked")
+    public void setUp() throws Exception {
+        ObjectMapper objectMapper = JsonMapper.builder()
+                .addModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+
+        frames = new Message[DISTINCT_MESSAGES];
+        for (int i = 0; i < DISTINCT_MESSAGES; i++) {
+            ChatMessageResponse message = ChatMessageResponse.builder()
+                    .id(1_000_000L + i * 7919L)
+                    .senderId(40L + i % 5)
+                    .receiverId(50L + i % 3)
+                    .content(CONTENTS[i % CONTENTS.length] + " #" + i)
+                    .status(MessageStatus.SENT)
+                    .sentAt(LocalDateTime.of(2025, 3, 1, 12, 0).plusSeconds(i * 37L))
+                    .build();
+
+            // Headers as the simple broker sends them to a subscribed session
+            StompHeaderAccessor accessor = StompHeaderAccessor.create(StompCommand.MESSAGE);
+            accessor.setDestination("/user/queue/messages");
+            accessor.setSubscriptionId("sub-0");
+            accessor.setMessageId("6d2c1f7e-" + i);
+            accessor.setContentType(MimeTypeUtils.APPLICATION_JSON);
+            frames[i] = MessageBuilder.createMessage(objectMapper.writeValueAsBytes(message),
+                    accessor.getMessageHeaders());
+        }
+
+        deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+    }
+
+    @Benchmark
+    public int encodeFrame() {
+        byte[] stomp = stompEncoder.encode(frames[next]);
+        next = (next + 1) % DISTINCT_MESSAGES;
+
+        byte[] payload = "sockjs".equals(transport)
+                ? sockJsFrame(stomp)
+                : stomp;
+
+        int length = switch (compression) {
+            case "deflate" -> deflate(payload);
+            case "deflate-no-context" -> {
+                deflater.reset();
+                yield deflate(payload);
+            }
+            default -> payload.length;
+        };
+
+        int onWire = length + frameHeaderLength(length);
+        wireBytes += onWire;
+        messages++;
+        return onWire;
+    }
+
+    @TearDown(Level.Trial)
+    public void report() {
+        System.out.printf("%n[transport=%s compression=%s] wire bytes per message: %.1f%n",
+                transport, compression, (double) wireBytes / messages);
+        deflater.end();
+    }
+
+    private byte[] sockJsFrame(byte[] stomp) {
+        String framed = sockJsCodec.encode(new String(stomp, StandardCharsets.UTF_8));
+        return framed.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private int deflate(byte[] payload) {
+        deflater.setInput(payload);
+        int length = deflater.deflate(deflateBuffer, 0, deflateBuffer.length, Deflater.SYNC_FLUSH);
+        // permessage-deflate drops the 00 00 ff ff tail of the sync flush
+        return length - 4;
+    }
+
+    // RFC 6455 server frames: 2-byte header, plus 2 or 8 bytes of extended length
+    private static int frameHeaderLength(int payloadLength) {
+        if (payloadLength < 126) {
+            return 2;
+        }
+        return payloadLength <= 0xFFFF ? 4 : 10;
+    }
+
+    private static final String[] CONTENTS = {
+            "Hey, are we still on for lunch tomorrow?",
+            "Running 10 minutes late, sorry!",
+            "Can you send me the slides from this morning's meeting when you get a chance?",
+            "ok",
+            "Sounds good 👍",
+            "I pushed the fix to the branch, tests are green now. Mind taking another look at the PR?",
+            "Where did you park?",
+            "The build server is down again, ops are on it."
+    };
+}
@@ -1,12 +1,16 @@
 package com.hemanth.chat_application.auth;
 
 import com.hemanth.chat_application.email.EmailService;
+import com.hemanth.chat_application.otp.OtpRateLimiter;
 import com.hemanth.chat_application.otp.OtpService;
 import com.hemanth.chat_application.otp.Purpose;
 import com.hemanth.chat_application.otp.SendOtpRequest;
 import com.hemanth.chat_application.otp.VerifyOtpRequest;
 import com.hemanth.chat_application.user.UserService;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
@@ -20,12 +24,21 @@ public class AuthController {
     private final OtpService otpService;
     private final EmailService emailService;
     private final UserService userService;
+    private final OtpRateLimiter otpRateLimiter;
 
     @PostMapping("/send-otp")
-    public ResponseEntity<?> sendOtp(@RequestBody SendOtpRequest request) {
+    public ResponseEntity<?> sendOtp(@RequestBody SendOtpRequest request, HttpServletRequest httpRequest) {
         String email = request.getEmail().toLowerCase().trim();
         Purpose purpose = Purpose.valueOf(request.getPurpose().toUpperCase().trim());
 
+        // Before any query or mail: rejected requests cost no database or SMTP work
+        long retryAfterMs = otpRateLimiter.tryAcquire(email, httpRequest.getRemoteAddr(), purpose);
+        if (retryAfterMs > 0) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf((retryAfterMs + 999) / 1000))
+                    .body(new ApiResponse(false, "Too many OTP requests. Try again later."));
+        }
+
         if (purpose == Purpose.REGISTER && userService.emailExists(email)) {
             return ResponseEntity.badRequest().body(new ApiResponse(false, "Email already registered"));
         }
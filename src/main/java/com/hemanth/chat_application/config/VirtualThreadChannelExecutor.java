@@ -0,0 +1,34 @@
+package com.hemanth.chat_application.config;
+
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Channel executor for chat.websocket.executor.mode=virtual: a virtual thread per task, at most
+// concurrencyLimit at once. SimpleAsyncTaskExecutor keeps its in-flight count private, so running
+// tasks are counted here for the saturation gauges in WebSocketMetricsConfig.
+class VirtualThreadChannelExecutor extends SimpleAsyncTaskExecutor {
+    private final AtomicInteger activeCount = new AtomicInteger();
+
+    VirtualThreadChannelExecutor(String threadNamePrefix, int concurrencyLimit) {
+        super(threadNamePrefix);
+        setVirtualThreads(true);
+        setConcurrencyLimit(concurrencyLimit);
+    }
+
+    int getActiveCount() {
+        return activeCount.get();
+    }
+
+    @Override
+    protected void doExecute(Runnable task) {
+        super.doExecute(() -> {
+            activeCount.incrementAndGet();
+            try {
+                task.run();
+            } finally {
+                activeCount.decrementAndGet();
+            }
+        });
+    }
+}
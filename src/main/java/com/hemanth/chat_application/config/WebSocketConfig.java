@@ -1,35 +1,204 @@
 package com.hemanth.chat_application.config;
 
+import com.hemanth.chat_application.websocket.CompressionHandshakeHandler;
 import com.hemanth.chat_application.websocket.HttpHandshakeInterceptor;
 import com.hemanth.chat_application.websocket.UserInterceptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.messaging.simp.config.ChannelRegistration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
 import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketTransportRegistration;
 
 @Configuration
 @EnableWebSocketMessageBroker
 public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
 
+    // simple = in-JVM broker (single node), relay = external STOMP broker (RabbitMQ/ActiveMQ/Artemis)
+    @Value("${chat.broker.mode:simple}")
+    private String brokerMode;
+
+    @Value("${chat.broker.relay.host:localhost}")
+    private String relayHost;
+
+    @Value("${chat.broker.relay.port:61613}")
+    private int relayPort;
+
+    @Value("${chat.broker.relay.client-login:guest}")
+    private String relayClientLogin;
+
+    @Value("${chat.broker.relay.client-passcode:guest}")
+    private String relayClientPasscode;
+
+    @Value("${chat.broker.relay.system-login:guest}")
+    private String relaySystemLogin;
+
+    @Value("${chat.broker.relay.system-passcode:guest}")
+    private String relaySystemPasscode;
+
+    @Value("${chat.broker.relay.virtual-host:}")
+    private String relayVirtualHost;
+
+    // pool = platform thread pools, virtual = a virtual thread per task (at most max-pool-size at once)
+    @Value("${chat.websocket.executor.mode:pool}")
+    private String executorMode;
+
+    @Value("${chat.websocket.inbound.core-pool-size:8}")
+    private int inboundCorePoolSize;
+
+    @Value("${chat.websocket.inbound.max-pool-size:64}")
+    private int inboundMaxPoolSize;
+
+    @Value("${chat.websocket.inbound.queue-capacity:10000}")
+    private int inboundQueueCapacity;
+
+    @Value("${chat.websocket.outbound.core-pool-size:8}")
+    private int outboundCorePoolSize;
+
+    @Value("${chat.websocket.outbound.max-pool-size:32}")
+    private int outboundMaxPoolSize;
+
+    @Value("${chat.websocket.outbound.queue-capacity:10000}")
+    private int outboundQueueCapacity;
+
+    @Value("${chat.websocket.broker.core-pool-size:4}")
+    private int brokerCorePoolSize;
+
+    @Value("${chat.websocket.broker.max-pool-size:16}")
+    private int brokerMaxPoolSize;
+
+    @Value("${chat.websocket.broker.queue-capacity:10000}")
+    private int brokerQueueCapacity;
+
+    @Value("${chat.websocket.send-time-limit-ms:10000}")
+    private int sendTimeLimitMs;
+
+    @Value("${chat.websocket.send-buffer-size-limit:524288}")
+    private int sendBufferSizeLimit;
+
+    @Value("${chat.websocket.message-size-limit:65536}")
+    private int messageSizeLimit;
+
+    // permessage-deflate for both endpoints when the client offers it
+    @Value("${chat.websocket.compression.enabled:true}")
+    private boolean compressionEnabled;
+
+    // STOMP heartbeats (ms, 0 = off); the effective interval is negotiated with each client
+    @Value("${chat.websocket.heartbeat.send-ms:10000}")
+    private long heartbeatSendMs;
+
+    @Value("${chat.websocket.heartbeat.receive-ms:10000}")
+    private long heartbeatReceiveMs;
+
+    @Value("${chat.websocket.sockjs.heartbeat-ms:25000}")
+    private long sockJsHeartbeatMs;
+
+    private TaskScheduler messageBrokerTaskScheduler;
+
+    // The broker's own scheduler; lazy because it is created by the configuration being customized
+    @Autowired
+    public void setMessageBrokerTaskScheduler(
+            @Lazy @Qualifier("messageBrokerTaskScheduler") TaskScheduler messageBrokerTaskScheduler) {
+        this.messageBrokerTaskScheduler = messageBrokerTaskScheduler;
+    }
+
     @Override
     public void configureMessageBroker(MessageBrokerRegistry config) {
-        config.enableSimpleBroker("/topic", "/queue");
+        if ("relay".equalsIgnoreCase(brokerMode)) {
+            var relay = config.enableStompBrokerRelay("/topic", "/queue")
+                    .setRelayHost(relayHost)
+                    .setRelayPort(relayPort)
+                    .setClientLogin(relayClientLogin)
+                    .setClientPasscode(relayClientPasscode)
+                    .setSystemLogin(relaySystemLogin)
+                    .setSystemPasscode(relaySystemPasscode)
+                    // Users connected to another node: unresolved /user destinations are re-broadcast
+                    // through the broker and every node shares its session registry
+                    .setUserDestinationBroadcast("/topic/unresolved-user-destination")
+                    .setUserRegistryBroadcast("/topic/simp-user-registry")
+                    .setSystemHeartbeatSendInterval(heartbeatSendMs)
+                    .setSystemHeartbeatReceiveInterval(heartbeatReceiveMs);
+            if (!relayVirtualHost.isBlank()) {
+                relay.setVirtualHost(relayVirtualHost);
+            }
+        } else {
+            config.enableSimpleBroker("/topic", "/queue")
+                    .setHeartbeatValue(new long[]{heartbeatSendMs, heartbeatReceiveMs})
+                    .setTaskScheduler(messageBrokerTaskScheduler);
+        }
+        configureExecutor(config.configureBrokerChannel(),
+                "ws-broker-", brokerCorePoolSize, brokerMaxPoolSize, brokerQueueCapacity);
         config.setApplicationDestinationPrefixes("/app");
         config.setUserDestinationPrefix("/user");
     }
 
     @Override
     public void registerStompEndpoints(StompEndpointRegistry registry) {
+        CompressionHandshakeHandler handshakeHandler = new CompressionHandshakeHandler(compressionEnabled);
+
+        // Frames of one session are handled in the order received, so a SUBSCRIBE is registered
+        // before a SEND that follows it (e.g. /app/sync.start)
+        registry.setPreserveReceiveOrder(true);
+
+        // SockJS: falls back to HTTP streaming/polling where WebSockets are blocked
         registry.addEndpoint("/ws")
+                .setHandshakeHandler(handshakeHandler)
+                .setAllowedOriginPatterns("*")
+                .addInterceptors(new HttpHandshakeInterceptor(true)) // Add handshake interceptor
+                .withSockJS()
+                .setHeartbeatTime(sockJsHeartbeatMs);
+
+        // Raw WebSocket: no SockJS framing (a["..."] with JSON-escaped STOMP) on every frame
+        registry.addEndpoint("/ws-native")
+                .setHandshakeHandler(handshakeHandler)
                 .setAllowedOriginPatterns("*")
-                .addInterceptors(new HttpHandshakeInterceptor()) // Add handshake interceptor
-                .withSockJS();
+                .addInterceptors(new HttpHandshakeInterceptor(false));
     }
 
     @Override
     public void configureClientInboundChannel(ChannelRegistration registration) {
         registration.interceptors(new UserInterceptor()); // Add channel interceptor to set Principal
+        configureExecutor(registration, "ws-inbound-",
+                inboundCorePoolSize, inboundMaxPoolSize, inboundQueueCapacity);
+    }
+
+    @Override
+    public void configureClientOutboundChannel(ChannelRegistration registration) {
+        configureExecutor(registration, "ws-outbound-",
+                outboundCorePoolSize, outboundMaxPoolSize, outboundQueueCapacity);
+    }
+
+    // Sessions that exceed these limits are closed (Spring's TERMINATE overflow strategy)
+    @Override
+    public void configureWebSocketTransport(WebSocketTransportRegistration registration) {
+        registration.setSendTimeLimit(sendTimeLimitMs)
+                .setSendBufferSizeLimit(sendBufferSizeLimit)
+                .setMessageSizeLimit(messageSizeLimit);
+    }
+
+    private void configureExecutor(ChannelRegistration registration, String prefix,
+                                   int corePoolSize, int maxPoolSize, int queueCapacity) {
+        if ("virtual".equalsIgnoreCase(executorMode)) {
+            // A new virtual thread per task, so handlers blocked on JDBC no longer starve the
+            // channel; past max-pool-size concurrent tasks the submitter waits instead of the
+            // frame being rejected
+            registration.executor(new VirtualThreadChannelExecutor(prefix, maxPoolSize));
+            return;
+        }
+
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix(prefix);
+        executor.setCorePoolSize(corePoolSize);
+        executor.setMaxPoolSize(maxPoolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setKeepAliveSeconds(60);
+        registration.taskExecutor(executor);
     }
 }
\ No newline at end of file
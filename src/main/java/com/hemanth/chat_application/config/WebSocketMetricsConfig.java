@@ -0,0 +1,52 @@
+package com.hemanth.chat_application.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.function.ToDoubleFunction;
+
+@Configuration
+public class WebSocketMetricsConfig {
+
+    // Saturation and backlog of the STOMP channel executors configured in WebSocketConfig
+    @Bean
+    public MeterBinder webSocketExecutorMetrics(
+            @Qualifier("clientInboundChannelExecutor") Executor inbound,
+            @Qualifier("clientOutboundChannelExecutor") Executor outbound,
+            @Qualifier("brokerChannelExecutor") Executor broker) {
+        return registry -> Map.of("inbound", inbound, "outbound", outbound, "broker", broker)
+                .forEach((channel, executor) -> {
+                    if (executor instanceof ThreadPoolTaskExecutor pool) {
+                        gauge(registry, "chat.websocket.executor.active", channel, pool,
+                                ThreadPoolTaskExecutor::getActiveCount);
+                        gauge(registry, "chat.websocket.executor.pool.size", channel, pool,
+                                ThreadPoolTaskExecutor::getPoolSize);
+                        gauge(registry, "chat.websocket.executor.pool.max", channel, pool,
+                                ThreadPoolTaskExecutor::getMaxPoolSize);
+                        gauge(registry, "chat.websocket.executor.queue.size", channel, pool,
+                                e -> e.getThreadPoolExecutor().getQueue().size());
+                    } else if (executor instanceof VirtualThreadChannelExecutor virtual) {
+                        // No pool and no queue: past the limit the submitting thread waits, so
+                        // active reaching concurrency.limit is the saturation signal
+                        gauge(registry, "chat.websocket.executor.active", channel, virtual,
+                                VirtualThreadChannelExecutor::getActiveCount);
+                        gauge(registry, "chat.websocket.executor.concurrency.limit", channel, virtual,
+                                VirtualThreadChannelExecutor::getConcurrencyLimit);
+                    }
+                });
+    }
+
+    private static <T> void gauge(MeterRegistry registry, String name, String channel,
+                                  T executor, ToDoubleFunction<T> value) {
+        Gauge.builder(name, executor, value)
+                .tag("channel", channel)
+                .register(registry);
+    }
+}
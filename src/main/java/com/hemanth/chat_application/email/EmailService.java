@@ -1,6 +1,6 @@
 package com.hemanth.chat_application.email;
 
-
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
 import org.springframework.mail.SimpleMailMessage;
 import org.springframework.mail.javamail.JavaMailSender;
@@ -11,6 +11,7 @@ import org.springframework.stereotype.Service;
 public class EmailService {
     private final JavaMailSender mailSender;
 
+    @Timed(value = "chat.email.send", description = "SMTP round trip for OTP mail")
     public void sendOtpEmail(String to, String otp, String purpose) {
         SimpleMailMessage msg = new SimpleMailMessage();
         msg.setTo(to);
@@ -0,0 +1,14 @@
+package com.hemanth.chat_application.message;
+
+// Outcome of MessageService.acceptMessage: duplicate means the clientMsgId was already accepted and
+// response is the stored original, which the receiver has already been sent
+public record AcceptedMessage(ChatMessageResponse response, boolean duplicate) {
+
+    public static AcceptedMessage created(ChatMessageResponse response) {
+        return new AcceptedMessage(response, false);
+    }
+
+    public static AcceptedMessage duplicate(ChatMessageResponse response) {
+        return new AcceptedMessage(response, true);
+    }
+}
@@ -0,0 +1,217 @@
+package com.hemanth.chat_application.message;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+// Write-behind persistence for chat.ingest.mode=batched: messages are queued after fan-out
+// and inserted N at a time (or every T ms) with JDBC batching, then acked to the sender.
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "chat.ingest.mode", havingValue = "batched")
+public class BatchingMessageWriter {
+    private static final String INSERT_SQL = "INSERT INTO messages " +
+            "(id, sender_id, receiver_id, conversation_id, content, status, sent_at, client_msg_id, is_deleted) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, false)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ConversationService conversationService;
+    private final MessageDeduplicator messageDeduplicator;
+    private final SimpMessagingTemplate messagingTemplate;
+
+    private final BlockingQueue<Message> queue;
+    private final int batchSize;
+    private final long flushIntervalMs;
+    private final long offerTimeoutMs;
+
+    private final Timer flushTimer;
+    private final Counter rejectedCounter;
+    private final Counter failedCounter;
+
+    private volatile boolean running;
+    private Thread writerThread;
+
+    public BatchingMessageWriter(JdbcTemplate jdbcTemplate,
+                                 TransactionTemplate transactionTemplate,
+                                 ConversationService conversationService,
+                                 MessageDeduplicator messageDeduplicator,
+                                 SimpMessagingTemplate messagingTemplate,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${chat.ingest.queue-capacity:10000}") int queueCapacity,
+                                 @Value("${chat.ingest.batch-size:500}") int batchSize,
+                                 @Value("${chat.ingest.flush-interval-ms:20}") long flushIntervalMs,
+                                 @Value("${chat.ingest.offer-timeout-ms:50}") long offerTimeoutMs) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.conversationService = conversationService;
+        this.messageDeduplicator = messageDeduplicator;
+        this.messagingTemplate = messagingTemplate;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.batchSize = batchSize;
+        this.flushIntervalMs = flushIntervalMs;
+        this.offerTimeoutMs = offerTimeoutMs;
+
+        Gauge.builder("chat.ingest.queue.depth", queue, BlockingQueue::size)
+                .description("Messages waiting to be persisted")
+                .register(meterRegistry);
+        this.flushTimer = Timer.builder("chat.ingest.flush")
+                .description("Time to persist one batch of messages")
+                .register(meterRegistry);
+        this.rejectedCounter = Counter.builder("chat.ingest.rejected")
+                .description("Messages refused because the ingest queue was full")
+                .register(meterRegistry);
+        this.failedCounter = Counter.builder("chat.ingest.failed")
+                .description("Messages that failed to persist")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    void start() {
+        running = true;
+        writerThread = Thread.ofPlatform().name("message-writer").daemon(true).start(this::run);
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        // Let the writer drain whatever is already queued before the datasource goes away
+        running = false;
+        writerThread.join(TimeUnit.SECONDS.toMillis(10));
+    }
+
+    // Returns false (and tells the sender) when the queue stays full for offer-timeout-ms
+    public boolean submit(Message message) {
+        try {
+            if (queue.offer(message, offerTimeoutMs, TimeUnit.MILLISECONDS)) {
+                return true;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        rejectedCounter.increment();
+        sendAck(message, MessageAck.Status.REJECTED);
+        return false;
+    }
+
+    private void run() {
+        List<Message> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                Message first = queue.poll(flushIntervalMs, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+
+                // Keep filling until the batch is full or the flush interval has passed
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(flushIntervalMs);
+                while (batch.size() < batchSize) {
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) {
+                        break;
+                    }
+                    Message next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+
+                flush(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                running = false;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    // A failing batch is retried in halves, so one bad row (e.g. an unknown receiverId) ends up
+    // FAILED on its own instead of taking every other sender's message in the batch with it
+    private void flush(List<Message> batch) {
+        Set<Long> duplicates;
+        try {
+            duplicates = flushTimer.record(() -> persist(batch));
+        } catch (RuntimeException e) {
+            if (batch.size() > 1) {
+                log.warn("Batch of {} messages failed, retrying in halves", batch.size(), e);
+                int half = batch.size() / 2;
+                flush(batch.subList(0, half));
+                flush(batch.subList(half, batch.size()));
+                return;
+            }
+            log.error("Failed to persist message {}", batch.get(0).getId(), e);
+            failedCounter.increment();
+            sendAck(batch.get(0), MessageAck.Status.FAILED);
+            return;
+        }
+
+        batch.forEach(message -> sendAck(message, duplicates.contains(message.getId())
+                ? MessageAck.Status.DUPLICATE
+                : MessageAck.Status.PERSISTED));
+    }
+
+    // One transaction; returns the ids dropped as duplicates
+    private Set<Long> persist(List<Message> batch) {
+        Set<Long> duplicates = new HashSet<>();
+        transactionTemplate.executeWithoutResult(status -> {
+            // Keys the dedup window missed (another node, expired): already fanned out, but
+            // not stored twice; the sender is told to drop its copy
+            duplicates.addAll(messageDeduplicator.claimAll(batch));
+            List<Message> persisted = batch.stream()
+                    .filter(message -> !duplicates.contains(message.getId()))
+                    .toList();
+
+            jdbcTemplate.batchUpdate(INSERT_SQL, persisted, persisted.size(), (ps, message) -> {
+                ps.setLong(1, message.getId());
+                ps.setLong(2, message.getSenderId());
+                ps.setLong(3, message.getReceiverId());
+                ps.setString(4, message.getConversationId());
+                ps.setString(5, message.getContent());
+                ps.setString(6, message.getStatus().name());
+                ps.setTimestamp(7, Timestamp.valueOf(message.getSentAt()));
+                ps.setString(8, message.getClientMsgId());
+            });
+            conversationService.recordMessages(persisted);
+        });
+        return duplicates;
+    }
+
+    private void sendAck(Message message, MessageAck.Status status) {
+        if (status != MessageAck.Status.PERSISTED) {
+            messageDeduplicator.forget(message);
+        }
+        messagingTemplate.convertAndSendToUser(
+                String.valueOf(message.getSenderId()),
+                "/queue/acks",
+                MessageAck.builder()
+                        .messageId(message.getId())
+                        .receiverId(message.getReceiverId())
+                        .status(status)
+                        .timestamp(LocalDateTime.now())
+                        .build()
+        );
+    }
+}
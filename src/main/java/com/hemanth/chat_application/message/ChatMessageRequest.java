@@ -13,4 +13,6 @@ public class ChatMessageRequest {
     private Long senderId;
     private Long receiverId;
     private String content;
+    // Optional idempotency key (e.g. a UUID); a retry with the same key returns the original message
+    private String clientMsgId;
 }
\ No newline at end of file
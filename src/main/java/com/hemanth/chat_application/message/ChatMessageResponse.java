@@ -20,4 +20,5 @@ public class ChatMessageResponse {
     private LocalDateTime sentAt;
     private LocalDateTime deliveredAt;
     private LocalDateTime readAt;
+    private String clientMsgId;
 }
\ No newline at end of file
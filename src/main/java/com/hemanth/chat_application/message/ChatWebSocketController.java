@@ -1,46 +1,71 @@
 package com.hemanth.chat_application.message;
 
+import com.hemanth.chat_application.websocket.EncodedPayload;
+import com.hemanth.chat_application.websocket.PreEncodedMessagingTemplate;
+import com.hemanth.chat_application.websocket.PresenceFanout;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
+import org.springframework.messaging.handler.annotation.Header;
 import org.springframework.messaging.handler.annotation.MessageMapping;
 import org.springframework.messaging.handler.annotation.Payload;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Controller;
 
+import java.security.Principal;
 import java.time.LocalDateTime;
+import java.util.Optional;
 
 @Controller
 @RequiredArgsConstructor
+@Timed(value = "chat.stomp.handler", description = "@MessageMapping handler time, tagged by method")
 public class ChatWebSocketController {
     private final MessageService messageService;
     private final SimpMessagingTemplate messagingTemplate;
+    private final TypingAggregator typingAggregator;
+    private final PresenceFanout presenceFanout;
+    private final MessageSyncService messageSyncService;
+    private final PreEncodedMessagingTemplate preEncodedTemplate;
 
     @MessageMapping("/chat.send")
     public void sendMessage(@Payload ChatMessageRequest request) {
-        // Save message to database
-        ChatMessageResponse response = messageService.saveMessage(request);
+        // Save message to database (or queue it for the batching writer)
+        Optional<AcceptedMessage> accepted = messageService.acceptMessage(request);
+        if (accepted.isEmpty()) {
+            return;
+        }
+        ChatMessageResponse response = accepted.get().response();
+        if (accepted.get().duplicate()) {
+            // A retry: the receiver already has the original, only the sender needs the confirmation
+            preEncodedTemplate.convertAndSendToUser(String.valueOf(request.getSenderId()), "/queue/messages", response);
+            return;
+        }
+        presenceFanout.addContact(request.getSenderId(), request.getReceiverId());
 
-        // Send message to receiver via WebSocket
-        messagingTemplate.convertAndSendToUser(
-                String.valueOf(request.getReceiverId()),
-                "/queue/messages",
-                response
-        );
-
-        // Send confirmation back to sender
-        messagingTemplate.convertAndSendToUser(
-                String.valueOf(request.getSenderId()),
-                "/queue/messages",
-                response
-        );
+        // Encoded once, then sent to the receiver and echoed back to the sender as confirmation
+        EncodedPayload payload = preEncodedTemplate.encode(response);
+        preEncodedTemplate.sendToUser(String.valueOf(request.getReceiverId()), "/queue/messages", payload);
+        preEncodedTemplate.sendToUser(String.valueOf(request.getSenderId()), "/queue/messages", payload);
     }
 
     @MessageMapping("/chat.delivered")
-    public void markAsDelivered(@Payload MessageNotification notification) {
-        messageService.markAsDelivered(notification.getMessageId());
+    public void markAsDelivered(@Payload MessageNotification notification, Principal principal) {
+        // Receipts only ever cover the caller's own inbox; a receiverId in the payload is ignored
+        Long receiverId = Long.valueOf(principal.getName());
+        if (notification.getUpToMessageId() != null) {
+            int count = messageService.markDeliveredUpTo(
+                    receiverId, notification.getSenderId(), notification.getUpToMessageId());
+            notifyRange(notification, receiverId, MessageStatus.DELIVERED, count);
+            return;
+        }
+
+        Optional<Long> senderId = messageService.markAsDelivered(receiverId, notification.getMessageId());
+        if (senderId.isEmpty()) {
+            return;
+        }
 
-        // Notify sender that message was delivered
+        // Notify the stored sender that the message was delivered
         messagingTemplate.convertAndSendToUser(
-                String.valueOf(notification.getSenderId()),
+                String.valueOf(senderId.get()),
                 "/queue/notifications",
                 MessageNotification.builder()
                         .messageId(notification.getMessageId())
@@ -51,12 +76,23 @@ public class ChatWebSocketController {
     }
 
     @MessageMapping("/chat.read")
-    public void markAsRead(@Payload MessageNotification notification) {
-        messageService.markAsRead(notification.getMessageId());
+    public void markAsRead(@Payload MessageNotification notification, Principal principal) {
+        Long receiverId = Long.valueOf(principal.getName());
+        if (notification.getUpToMessageId() != null) {
+            int count = messageService.markReadUpTo(
+                    receiverId, notification.getSenderId(), notification.getUpToMessageId());
+            notifyRange(notification, receiverId, MessageStatus.READ, count);
+            return;
+        }
+
+        Optional<Long> senderId = messageService.markAsRead(receiverId, notification.getMessageId());
+        if (senderId.isEmpty()) {
+            return;
+        }
 
-        // Notify sender that message was read
+        // Notify the stored sender that the message was read
         messagingTemplate.convertAndSendToUser(
-                String.valueOf(notification.getSenderId()),
+                String.valueOf(senderId.get()),
                 "/queue/notifications",
                 MessageNotification.builder()
                         .messageId(notification.getMessageId())
@@ -67,12 +103,53 @@ public class ChatWebSocketController {
     }
 
     @MessageMapping("/chat.typing")
-    public void userTyping(@Payload TypingNotification notification) {
-        // Send typing notification to receiver
+    public void userTyping(@Payload TypingNotification notification,
+                           @Header("simpSessionId") String sessionId) {
+        // Only start/stop transitions reach the receiver; repeats are coalesced
+        typingAggregator.onTyping(notification, sessionId);
+    }
+
+    // Unsend one message (messageId) or clear the conversation with partnerId (optionally upToMessageId)
+    @MessageMapping("/chat.delete")
+    public void deleteMessages(@Payload MessageTombstone request, Principal principal) {
+        Long userId = Long.valueOf(principal.getName());
+        if (request.getMessageId() != null) {
+            messageService.unsendMessage(userId, request.getMessageId());
+        } else if (request.getPartnerId() != null) {
+            messageService.deleteConversation(userId, request.getPartnerId(), request.getUpToMessageId());
+        }
+    }
+
+    // Sent after subscribing to /user/queue/sync; starts the catch-up stream for this session
+    @MessageMapping("/sync.start")
+    public void startSync(@Header("simpSessionId") String sessionId) {
+        messageSyncService.start(sessionId);
+    }
+
+    // Acks a /queue/sync page (upToMessageId = its lastMessageId) and pulls the next one
+    @MessageMapping("/sync.ack")
+    public void acknowledgeSync(@Payload MessageNotification notification,
+                                @Header("simpSessionId") String sessionId) {
+        messageSyncService.acknowledge(sessionId, notification.getUpToMessageId());
+    }
+
+    // One aggregated receipt for the whole range instead of one frame per message
+    private void notifyRange(MessageNotification notification, Long receiverId, MessageStatus status, int count) {
+        if (count == 0) {
+            return;
+        }
+
         messagingTemplate.convertAndSendToUser(
-                String.valueOf(notification.getReceiverId()),
-                "/queue/typing",
-                notification
+                String.valueOf(notification.getSenderId()),
+                "/queue/notifications",
+                MessageNotification.builder()
+                        .upToMessageId(notification.getUpToMessageId())
+                        .senderId(notification.getSenderId())
+                        .receiverId(receiverId)
+                        .count(count)
+                        .status(status)
+                        .timestamp(LocalDateTime.now())
+                        .build()
         );
     }
 }
\ No newline at end of file
@@ -0,0 +1,37 @@
+package com.hemanth.chat_application.message;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Entity
+@IdClass(ConversationId.class)
+@Table(name = "conversations", indexes = {
+        @Index(name = "idx_conversations_inbox", columnList = "userId, lastMessageAt DESC, partnerId DESC")
+})
+public class Conversation {
+    @Id
+    private Long userId;
+
+    @Id
+    private Long partnerId;
+
+    @Column(nullable = false)
+    private Long lastMessageId;
+
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String lastMessageContent;
+
+    @Column(nullable = false)
+    private LocalDateTime lastMessageAt;
+
+    @Builder.Default
+    @Column(nullable = false)
+    private Long unreadCount = 0L;
+}
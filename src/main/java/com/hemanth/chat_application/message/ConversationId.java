@@ -0,0 +1,19 @@
+package com.hemanth.chat_application.message;
+
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.io.Serializable;
+
+@Getter
+@Setter
+@EqualsAndHashCode
+@AllArgsConstructor
+@NoArgsConstructor
+public class ConversationId implements Serializable {
+    private Long userId;
+    private Long partnerId;
+}
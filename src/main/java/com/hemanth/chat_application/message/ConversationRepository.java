@@ -0,0 +1,102 @@
+package com.hemanth.chat_application.message;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface ConversationRepository extends JpaRepository<Conversation, ConversationId> {
+
+    @Query("SELECT c FROM Conversation c WHERE c.userId = :userId ORDER BY c.lastMessageAt DESC, c.partnerId DESC")
+    List<Conversation> findInbox(@Param("userId") Long userId, Pageable pageable);
+
+    @Query("SELECT c FROM Conversation c WHERE c.userId = :userId AND (c.lastMessageAt < :beforeTime " +
+            "OR (c.lastMessageAt = :beforeTime AND c.partnerId < :beforePartnerId)) " +
+            "ORDER BY c.lastMessageAt DESC, c.partnerId DESC")
+    List<Conversation> findInboxBefore(
+            @Param("userId") Long userId,
+            @Param("beforeTime") LocalDateTime beforeTime,
+            @Param("beforePartnerId") Long beforePartnerId,
+            Pageable pageable);
+
+    @Query("SELECT c.partnerId FROM Conversation c WHERE c.userId = :userId")
+    List<Long> findPartnerIds(@Param("userId") Long userId);
+
+    // Newer messages win; older ones arriving late only bump the unread counter
+    String UPSERT_LAST_MESSAGE_SQL = "INSERT INTO conversations " +
+            "(user_id, partner_id, last_message_id, last_message_content, last_message_at, unread_count) " +
+            "VALUES (:userId, :partnerId, :messageId, :content, :sentAt, :unreadDelta) " +
+            "ON CONFLICT (user_id, partner_id) DO UPDATE SET " +
+            "last_message_id = CASE WHEN EXCLUDED.last_message_id > conversations.last_message_id " +
+            "THEN EXCLUDED.last_message_id ELSE conversations.last_message_id END, " +
+            "last_message_content = CASE WHEN EXCLUDED.last_message_id > conversations.last_message_id " +
+            "THEN EXCLUDED.last_message_content ELSE conversations.last_message_content END, " +
+            "last_message_at = CASE WHEN EXCLUDED.last_message_id > conversations.last_message_id " +
+            "THEN EXCLUDED.last_message_at ELSE conversations.last_message_at END, " +
+            "unread_count = conversations.unread_count + EXCLUDED.unread_count";
+
+    @Modifying
+    @Query(value = UPSERT_LAST_MESSAGE_SQL, nativeQuery = true)
+    void upsertLastMessage(
+            @Param("userId") Long userId,
+            @Param("partnerId") Long partnerId,
+            @Param("messageId") Long messageId,
+            @Param("content") String content,
+            @Param("sentAt") LocalDateTime sentAt,
+            @Param("unreadDelta") long unreadDelta);
+
+    @Modifying
+    @Query("UPDATE Conversation c SET c.unreadCount = CASE WHEN c.unreadCount > :count " +
+            "THEN c.unreadCount - :count ELSE 0L END " +
+            "WHERE c.userId = :userId AND c.partnerId = :partnerId")
+    int decrementUnread(
+            @Param("userId") Long userId,
+            @Param("partnerId") Long partnerId,
+            @Param("count") long count);
+
+    // Single-message read receipt: find the (receiver, sender) row through the message itself
+    @Modifying
+    @Query(value = "UPDATE conversations c SET unread_count = GREATEST(c.unread_count - 1, 0) " +
+            "FROM messages m WHERE m.id = :messageId " +
+            "AND c.user_id = m.receiver_id AND c.partner_id = m.sender_id",
+            nativeQuery = true)
+    int decrementUnreadForMessage(@Param("messageId") Long messageId);
+
+    @Modifying
+    @Query("UPDATE Conversation c SET c.unreadCount = 0 " +
+            "WHERE c.userId = :userId AND c.partnerId = :partnerId")
+    int resetUnread(@Param("userId") Long userId, @Param("partnerId") Long partnerId);
+
+    // After a delete: point both sides at the newest remaining message and recount unread
+    @Modifying
+    @Query(value = "UPDATE conversations c SET last_message_id = m.id, last_message_content = m.content, " +
+            "last_message_at = m.sent_at, unread_count = (SELECT COUNT(*) FROM messages u " +
+            "WHERE u.receiver_id = c.user_id AND u.sender_id = c.partner_id " +
+            "AND u.status != 'READ' AND u.is_deleted = false) " +
+            "FROM (SELECT id, content, sent_at FROM messages WHERE conversation_id = :conversationId " +
+            "AND is_deleted = false ORDER BY sent_at DESC, id DESC LIMIT 1) m " +
+            "WHERE (c.user_id = :userId AND c.partner_id = :partnerId) " +
+            "OR (c.user_id = :partnerId AND c.partner_id = :userId)",
+            nativeQuery = true)
+    int refreshAfterDelete(
+            @Param("conversationId") String conversationId,
+            @Param("userId") Long userId,
+            @Param("partnerId") Long partnerId);
+
+    // Nothing left to show: drop both inbox rows (the next message recreates them)
+    @Modifying
+    @Query(value = "DELETE FROM conversations c " +
+            "WHERE ((c.user_id = :userId AND c.partner_id = :partnerId) " +
+            "OR (c.user_id = :partnerId AND c.partner_id = :userId)) " +
+            "AND NOT EXISTS (SELECT 1 FROM messages m WHERE m.conversation_id = :conversationId " +
+            "AND m.is_deleted = false)",
+            nativeQuery = true)
+    int deleteIfEmpty(
+            @Param("conversationId") String conversationId,
+            @Param("userId") Long userId,
+            @Param("partnerId") Long partnerId);
+}
@@ -1,79 +1,139 @@
 package com.hemanth.chat_application.message;
 
-import com.hemanth.chat_application.user.User;
-import com.hemanth.chat_application.user.UserRepository;
-import lombok.RequiredArgsConstructor;
+import com.hemanth.chat_application.user.UserCache;
+import com.hemanth.chat_application.user.UserResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
-import java.util.ArrayList;
-import java.util.HashMap;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
 
 @Service
-@RequiredArgsConstructor
 public class ConversationService {
-    private final MessageRepository messageRepository;
-    private final UserRepository userRepository;
+    private final ConversationRepository conversationRepository;
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final UserCache userCache;
+    private final int maxPageSize;
 
-    public List<ConversationDTO> getUserConversations(Long userId) {
-        // Get all messages where user is either sender or receiver
-        List<Message> allMessages = messageRepository.findAll();
+    public ConversationService(ConversationRepository conversationRepository,
+                               NamedParameterJdbcTemplate jdbcTemplate,
+                               UserCache userCache,
+                               @Value("${chat.conversations.max-page-size:100}") int maxPageSize) {
+        this.conversationRepository = conversationRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.userCache = userCache;
+        this.maxPageSize = maxPageSize;
+    }
+
+    // Sizes above max-page-size are clamped; below 1 is a client error
+    @Transactional(readOnly = true)
+    public List<ConversationDTO> getUserConversations(Long userId, LocalDateTime beforeTime,
+                                                      Long beforeUserId, int size) {
+        if (size < 1) {
+            throw new IllegalArgumentException("size must be at least 1");
+        }
+        Pageable limit = PageRequest.of(0, Math.min(size, maxPageSize));
 
-        // Filter messages involving this user
-        List<Message> userMessages = allMessages.stream()
-                .filter(m -> m.getSenderId().equals(userId) || m.getReceiverId().equals(userId))
-                .filter(m -> !m.getIsDeleted())
+        // Keyset pagination: the cursor is the (lastMessageTime, otherUserId) of the last row seen
+        List<Conversation> conversations = (beforeTime != null && beforeUserId != null)
+                ? conversationRepository.findInboxBefore(userId, beforeTime, beforeUserId, limit)
+                : conversationRepository.findInbox(userId, limit);
+
+        // Partner profiles come from the user cache: one IN query for whatever is not cached
+        Map<Long, UserResponse> partners = userCache.getAll(conversations.stream()
+                .map(Conversation::getPartnerId)
+                .collect(Collectors.toList()));
+
+        return conversations.stream()
+                .map(conversation -> toDTO(conversation, partners.get(conversation.getPartnerId())))
                 .collect(Collectors.toList());
+    }
+
+    // Called from MessageService inside the same transaction as the message insert
+    public void recordMessage(Message message) {
+        // Sender side: latest message changes, unread count does not
+        conversationRepository.upsertLastMessage(message.getSenderId(), message.getReceiverId(),
+                message.getId(), message.getContent(), message.getSentAt(), 0);
+
+        // Receiver side: one more unread message from the sender
+        conversationRepository.upsertLastMessage(message.getReceiverId(), message.getSenderId(),
+                message.getId(), message.getContent(), message.getSentAt(), 1);
+    }
+
+    // Batched variant for the write-behind path: one upsert per (user, partner) pair per batch
+    public void recordMessages(List<Message> messages) {
+        Map<ConversationId, MapSqlParameterSource> rows = new LinkedHashMap<>();
+        for (Message message : messages) {
+            merge(rows, message.getSenderId(), message.getReceiverId(), message, 0);
+            merge(rows, message.getReceiverId(), message.getSenderId(), message, 1);
+        }
 
-        // Group by conversation partner
-        Map<Long, List<Message>> conversationMap = new HashMap<>();
-        for (Message message : userMessages) {
-            Long otherUserId = message.getSenderId().equals(userId)
-                    ? message.getReceiverId()
-                    : message.getSenderId();
+        jdbcTemplate.batchUpdate(ConversationRepository.UPSERT_LAST_MESSAGE_SQL,
+                rows.values().toArray(new SqlParameterSource[0]));
+    }
+
+    private void merge(Map<ConversationId, MapSqlParameterSource> rows, Long userId, Long partnerId,
+                       Message message, long unreadDelta) {
+        MapSqlParameterSource row = rows.get(new ConversationId(userId, partnerId));
+        if (row == null) {
+            row = new MapSqlParameterSource()
+                    .addValue("userId", userId)
+                    .addValue("partnerId", partnerId)
+                    .addValue("messageId", message.getId())
+                    .addValue("content", message.getContent())
+                    .addValue("sentAt", message.getSentAt())
+                    .addValue("unreadDelta", unreadDelta);
+            rows.put(new ConversationId(userId, partnerId), row);
+            return;
+        }
 
-            conversationMap.computeIfAbsent(otherUserId, k -> new ArrayList<>()).add(message);
+        if (message.getId() > (Long) row.getValue("messageId")) {
+            row.addValue("messageId", message.getId())
+                    .addValue("content", message.getContent())
+                    .addValue("sentAt", message.getSentAt());
         }
+        row.addValue("unreadDelta", (Long) row.getValue("unreadDelta") + unreadDelta);
+    }
 
-        // Build conversation DTOs
-        List<ConversationDTO> conversations = new ArrayList<>();
-        for (Map.Entry<Long, List<Message>> entry : conversationMap.entrySet()) {
-            Long otherUserId = entry.getKey();
-            List<Message> messages = entry.getValue();
-
-            // Get the most recent message
-            Message lastMessage = messages.stream()
-                    .max((m1, m2) -> m1.getSentAt().compareTo(m2.getSentAt()))
-                    .orElse(null);
-
-            if (lastMessage != null) {
-                // Get unread count
-                Long unreadCount = messageRepository.countUnreadMessagesBetweenUsers(userId, otherUserId);
-
-                // Get other user info
-                User otherUser = userRepository.findById(otherUserId).orElse(null);
-
-                if (otherUser != null) {
-                    ConversationDTO dto = ConversationDTO.builder()
-                            .otherUserId(otherUserId)
-                            .otherUserEmail(otherUser.getEmail())
-                            .otherUsername(otherUser.getUsername())
-                            .lastMessageContent(lastMessage.getContent())
-                            .lastMessageTime(lastMessage.getSentAt())
-                            .unreadCount(unreadCount)
-                            .otherUserStatus(otherUser.getStatus() != null ? otherUser.getStatus().name() : "OFFLINE")
-                            .build();
-
-                    conversations.add(dto);
-                }
-            }
+    public void recordRead(Long receiverId, Long senderId, long count) {
+        if (count > 0) {
+            conversationRepository.decrementUnread(receiverId, senderId, count);
         }
+    }
 
-        // Sort by last message time (most recent first)
-        conversations.sort((c1, c2) -> c2.getLastMessageTime().compareTo(c1.getLastMessageTime()));
+    public void recordRead(Long messageId) {
+        conversationRepository.decrementUnreadForMessage(messageId);
+    }
+
+    public void recordConversationRead(Long receiverId, Long senderId) {
+        conversationRepository.resetUnread(receiverId, senderId);
+    }
+
+    public void recordDelete(Long userId, Long partnerId) {
+        String conversationId = Message.conversationKey(userId, partnerId);
+        if (conversationRepository.refreshAfterDelete(conversationId, userId, partnerId) == 0) {
+            conversationRepository.deleteIfEmpty(conversationId, userId, partnerId);
+        }
+    }
 
-        return conversations;
+    private ConversationDTO toDTO(Conversation conversation, UserResponse otherUser) {
+        return ConversationDTO.builder()
+                .otherUserId(conversation.getPartnerId())
+                .otherUserEmail(otherUser != null ? otherUser.getEmail() : null)
+                .otherUsername(otherUser != null ? otherUser.getUsername() : null)
+                .lastMessageContent(conversation.getLastMessageContent())
+                .lastMessageTime(conversation.getLastMessageAt())
+                .unreadCount(conversation.getUnreadCount())
+                .otherUserStatus(otherUser != null && otherUser.getStatus() != null ? otherUser.getStatus() : "OFFLINE")
+                .build();
     }
-}
\ No newline at end of file
+}
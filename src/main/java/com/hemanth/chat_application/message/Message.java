@@ -14,8 +14,9 @@ import java.time.LocalDateTime;
 @Entity
 @Table(name = "messages", indexes = {
         @Index(columnList = "senderId"),
-        @Index(columnList = "receiverId"),
-        @Index(columnList = "sentAt")
+        @Index(name = "idx_messages_receiver_sync", columnList = "receiverId, id"),
+        @Index(columnList = "sentAt"),
+        @Index(name = "idx_messages_conversation", columnList = "conversationId, sentAt DESC, id DESC")
 })
 public class Message {
     @Id
@@ -28,6 +29,9 @@ public class Message {
     @Column(nullable = false)
     private Long receiverId;
 
+    @Column(nullable = false, length = 64)
+    private String conversationId;
+
     @Column(nullable = false, columnDefinition = "TEXT")
     private String content;
 
@@ -44,4 +48,23 @@ public class Message {
 
     @Builder.Default
     private Boolean isDeleted = false;
+
+    // Set together with isDeleted; MessageCompactor purges rows once this is old enough
+    private LocalDateTime deletedAt;
+
+    // Sender's idempotency key, claimed in message_client_ids (see MessageDeduplicator)
+    @Column(length = 64)
+    private String clientMsgId;
+
+    @PrePersist
+    void assignConversationId() {
+        if (conversationId == null) {
+            conversationId = conversationKey(senderId, receiverId);
+        }
+    }
+
+    // Same key for A->B and B->A, so one index range covers the whole conversation
+    public static String conversationKey(Long userId1, Long userId2) {
+        return Math.min(userId1, userId2) + ":" + Math.max(userId1, userId2);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,23 @@
+package com.hemanth.chat_application.message;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class MessageAck {
+    private Long messageId;
+    private Long receiverId;
+    private Status status;
+    private LocalDateTime timestamp;
+
+    public enum Status {
+        PERSISTED, REJECTED, FAILED, DUPLICATE
+    }
+}
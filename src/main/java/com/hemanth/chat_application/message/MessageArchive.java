@@ -0,0 +1,333 @@
+package com.hemanth.chat_application.message;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.zip.GZIPInputStream;
+
+// Cold tier for detached message partitions. Each partition becomes one NDJSON.gz file on
+// disk written as one gzip member per conversation (newest message first); the byte range of
+// every member is kept in message_archive_index, so reading a conversation's archived history
+// decompresses only that conversation's slice of each month.
+@Slf4j
+@Component
+public class MessageArchive {
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int INDEX_BATCH_SIZE = 1000;
+
+    private static final String PARTITION_ROWS_SQL = "SELECT id, sender_id, receiver_id, conversation_id, content, " +
+            "status, sent_at, delivered_at, read_at FROM %s WHERE is_deleted = false " +
+            "ORDER BY conversation_id, sent_at DESC, id DESC";
+
+    private static final String INSERT_INDEX_SQL = "INSERT INTO message_archive_index " +
+            "(conversation_id, partition_name, byte_offset, byte_length, message_count) VALUES (?, ?, ?, ?, ?)";
+
+    private static final String MEMBERS_BEFORE_SQL = "SELECT p.archive_path, i.byte_offset, i.byte_length " +
+            "FROM message_archive_index i JOIN message_partitions p ON p.name = i.partition_name " +
+            "WHERE i.conversation_id = ? AND p.state = 'ARCHIVED' AND (p.range_start IS NULL OR p.range_start <= ?) " +
+            "ORDER BY p.range_end DESC";
+
+    private static final String MEMBERS_AFTER_SQL = "SELECT p.archive_path, i.byte_offset, i.byte_length " +
+            "FROM message_archive_index i JOIN message_partitions p ON p.name = i.partition_name " +
+            "WHERE i.conversation_id = ? AND p.state = 'ARCHIVED' AND p.range_end > ? " +
+            "ORDER BY p.range_end ASC";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final JdbcTemplate streamingJdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final Path archiveDir;
+
+    // Everything sent before this instant lives in the archive; null while nothing is archived
+    private volatile LocalDateTime archivedUpTo;
+
+    public MessageArchive(JdbcTemplate jdbcTemplate,
+                          DataSource dataSource,
+                          PlatformTransactionManager transactionManager,
+                          ObjectMapper objectMapper,
+                          @Value("${chat.partitions.archive.dir:./data/message-archive}") String archiveDir,
+                          @Value("${chat.export.fetch-size:1000}") int fetchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.streamingJdbcTemplate = new JdbcTemplate(dataSource);
+        this.streamingJdbcTemplate.setFetchSize(fetchSize);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.objectMapper = objectMapper;
+        this.archiveDir = Path.of(archiveDir);
+    }
+
+    public boolean hasArchives() {
+        return archivedUpTo != null;
+    }
+
+    public boolean covers(LocalDateTime sentAt) {
+        LocalDateTime upTo = archivedUpTo;
+        return upTo != null && sentAt.isBefore(upTo);
+    }
+
+    // Other nodes archive too, so the boundary is re-read periodically
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${chat.partitions.archive.refresh-interval-ms:60000}")
+    public void refresh() {
+        Timestamp upTo = jdbcTemplate.queryForObject(
+                "SELECT MAX(range_end) FROM message_partitions WHERE state = 'ARCHIVED'", Timestamp.class);
+        archivedUpTo = upTo != null ? upTo.toLocalDateTime() : null;
+    }
+
+    // Writes the partition's rows and member index; the file only appears once complete
+    public Path write(String partition) throws IOException {
+        Files.createDirectories(archiveDir);
+        Path file = archiveDir.resolve(partition + ".ndjson.gz");
+        Path temp = archiveDir.resolve(partition + ".ndjson.gz.tmp");
+
+        try (CountingOutputStream out = new CountingOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(temp), BUFFER_SIZE))) {
+            transactionTemplate.executeWithoutResult(status -> {
+                jdbcTemplate.update("DELETE FROM message_archive_index WHERE partition_name = ?", partition);
+                MemberWriter members = new MemberWriter(partition, out);
+                streamingJdbcTemplate.query(String.format(PARTITION_ROWS_SQL, partition), members);
+                members.finish();
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+            channel.force(true);
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return file;
+    }
+
+    // Archived messages of the conversation older than the cursor (all when null), newest first
+    public List<ChatMessageResponse> findBefore(String conversationId, MessageCursor before, int limit) {
+        Timestamp from = Timestamp.valueOf(before != null ? before.getSentAt() : LocalDateTime.of(9999, 12, 31, 0, 0));
+        List<ChatMessageResponse> result = new ArrayList<>();
+        for (Member member : members(MEMBERS_BEFORE_SQL, conversationId, from)) {
+            for (ChatMessageResponse message : read(member)) {
+                if (before == null || before.follows(message)) {
+                    result.add(message);
+                    if (result.size() == limit) {
+                        return result;
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    // Archived messages of the conversation newer than the cursor, oldest first
+    public List<ChatMessageResponse> findAfter(String conversationId, MessageCursor after, int limit) {
+        List<ChatMessageResponse> result = new ArrayList<>();
+        for (Member member : members(MEMBERS_AFTER_SQL, conversationId, Timestamp.valueOf(after.getSentAt()))) {
+            List<ChatMessageResponse> messages = read(member);
+            Collections.reverse(messages);
+            for (ChatMessageResponse message : messages) {
+                if (after.precedes(message)) {
+                    result.add(message);
+                    if (result.size() == limit) {
+                        return result;
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    // Every archived message of the conversation, oldest first; one member (a month of the
+    // conversation) is held in memory at a time
+    public void forEachArchived(String conversationId, Consumer<ChatMessageResponse> action) {
+        if (!hasArchives()) {
+            return;
+        }
+        for (Member member : members(MEMBERS_AFTER_SQL, conversationId, Timestamp.valueOf(LocalDateTime.of(1970, 1, 1, 0, 0)))) {
+            List<ChatMessageResponse> messages = read(member);
+            Collections.reverse(messages);
+            messages.forEach(action);
+        }
+    }
+
+    private List<Member> members(String sql, String conversationId, Timestamp bound) {
+        return jdbcTemplate.query(sql, (rs, rowNum) -> new Member(
+                Path.of(rs.getString("archive_path")), rs.getLong("byte_offset"), rs.getLong("byte_length")),
+                conversationId, bound);
+    }
+
+    private List<ChatMessageResponse> read(Member member) {
+        try {
+            return readMember(member.file, member.offset, member.length, objectMapper);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read archive " + member.file, e);
+        }
+    }
+
+    static List<ChatMessageResponse> readMember(Path file, long offset, long length, ObjectMapper objectMapper)
+            throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            channel.position(offset);
+            InputStream member = new BoundedInputStream(Channels.newInputStream(channel), length);
+            try (BufferedReader reader = new BufferedReader(
+                    new InputStreamReader(new GZIPInputStream(member), StandardCharsets.UTF_8))) {
+                List<ChatMessageResponse> messages = new ArrayList<>();
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (!line.isEmpty()) {
+                        messages.add(objectMapper.readValue(line, ChatMessageResponse.class));
+                    }
+                }
+                return messages;
+            }
+        }
+    }
+
+    // Starts a new gzip member whenever the conversation changes and records where it lies
+    private class MemberWriter implements RowCallbackHandler {
+        private final String partition;
+        private final CountingOutputStream out;
+        private final List<Object[]> pendingIndex = new ArrayList<>();
+
+        private String conversationId;
+        private MessageExportWriter member;
+        private long memberStart;
+
+        private MemberWriter(String partition, CountingOutputStream out) {
+            this.partition = partition;
+            this.out = out;
+        }
+
+        @Override
+        public void processRow(ResultSet rs) throws SQLException {
+            try {
+                String rowConversation = rs.getString("conversation_id");
+                if (!rowConversation.equals(conversationId)) {
+                    closeMember();
+                    conversationId = rowConversation;
+                    memberStart = out.count;
+                    member = new MessageExportWriter(ExportFormat.NDJSON, out, true, objectMapper);
+                }
+                member.write(MessageExportService.toResponse(rs));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        private void finish() {
+            try {
+                closeMember();
+                out.flush();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            flushIndex();
+        }
+
+        private void closeMember() throws IOException {
+            if (member == null) {
+                return;
+            }
+            member.close();
+            pendingIndex.add(new Object[]{conversationId, partition, memberStart, out.count - memberStart, member.count()});
+            member = null;
+            if (pendingIndex.size() >= INDEX_BATCH_SIZE) {
+                flushIndex();
+            }
+        }
+
+        private void flushIndex() {
+            if (!pendingIndex.isEmpty()) {
+                jdbcTemplate.batchUpdate(INSERT_INDEX_SQL, pendingIndex);
+                pendingIndex.clear();
+            }
+        }
+    }
+
+    private record Member(Path file, long offset, long length) {
+    }
+
+    private static class CountingOutputStream extends FilterOutputStream {
+        private long count;
+
+        private CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+    }
+
+    // Stops after one member so GZIPInputStream does not run on into the next one
+    private static class BoundedInputStream extends InputStream {
+        private final InputStream in;
+        private long remaining;
+
+        private BoundedInputStream(InputStream in, long length) {
+            this.in = in;
+            this.remaining = length;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (remaining <= 0) {
+                return -1;
+            }
+            int b = in.read();
+            if (b >= 0) {
+                remaining--;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (remaining <= 0) {
+                return -1;
+            }
+            int n = in.read(b, off, (int) Math.min(len, remaining));
+            if (n > 0) {
+                remaining -= n;
+            }
+            return n;
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.hemanth.chat_application.message;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+// Hard-deletes tombstoned messages once the grace period has passed. Each batch is its own
+// short autocommit DELETE followed by a pause, so row locks stay brief, autovacuum keeps up
+// and replicas are not flooded; SKIP LOCKED lets several nodes run it without contention.
+// Runs on its own thread: the pauses would otherwise hold a slot of the shared task scheduler.
+@Slf4j
+@Component
+public class MessageCompactor {
+    private static final String PURGE_SQL = "DELETE FROM messages WHERE (id, sent_at) IN (" +
+            "SELECT id, sent_at FROM messages WHERE is_deleted = true AND deleted_at < ? " +
+            "ORDER BY deleted_at LIMIT ? FOR UPDATE SKIP LOCKED)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final MessageMetrics messageMetrics;
+    private final long gracePeriodMs;
+    private final int batchSize;
+    private final long batchPauseMs;
+    private final int maxBatchesPerRun;
+    private final long intervalMs;
+
+    private ScheduledExecutorService executor;
+
+    public MessageCompactor(JdbcTemplate jdbcTemplate,
+                            MessageMetrics messageMetrics,
+                            @Value("${chat.messages.compaction.grace-period-ms:3600000}") long gracePeriodMs,
+                            @Value("${chat.messages.compaction.batch-size:500}") int batchSize,
+                            @Value("${chat.messages.compaction.batch-pause-ms:200}") long batchPauseMs,
+                            @Value("${chat.messages.compaction.max-batches-per-run:50}") int maxBatchesPerRun,
+                            @Value("${chat.messages.compaction.interval-ms:60000}") long intervalMs) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.messageMetrics = messageMetrics;
+        this.gracePeriodMs = gracePeriodMs;
+        this.batchSize = batchSize;
+        this.batchPauseMs = batchPauseMs;
+        this.maxBatchesPerRun = maxBatchesPerRun;
+        this.intervalMs = intervalMs;
+    }
+
+    @PostConstruct
+    void start() {
+        executor = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().name("message-compactor").daemon(true).factory());
+        executor.scheduleWithFixedDelay(this::compact, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void stop() {
+        // Interrupts a run sleeping between batches; the current DELETE is left to finish on its own
+        executor.shutdownNow();
+    }
+
+    public void compact() {
+        Timestamp cutoff = Timestamp.valueOf(LocalDateTime.now().minus(Duration.ofMillis(gracePeriodMs)));
+        int total = 0;
+
+        try {
+            for (int batch = 0; batch < maxBatchesPerRun; batch++) {
+                int purged = jdbcTemplate.update(PURGE_SQL, cutoff, batchSize);
+                total += purged;
+                messageMetrics.purged(purged);
+                if (purged < batchSize) {
+                    break;
+                }
+                Thread.sleep(batchPauseMs);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            log.error("Message compaction failed after purging {} rows", total, e);
+            return;
+        }
+
+        if (total > 0) {
+            log.info("Purged {} deleted messages", total);
+        }
+    }
+}
@@ -2,9 +2,15 @@ package com.hemanth.chat_application.message;
 
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @RestController
@@ -13,6 +19,8 @@ import java.util.List;
 public class MessageController {
     private final MessageService messageService;
     private final ConversationService conversationService;
+    private final MessageSearchService messageSearchService;
+    private final MessageExportService messageExportService;
 
     @GetMapping("/conversation")
     public ResponseEntity<Page<ChatMessageResponse>> getConversation(
@@ -25,11 +33,75 @@ public class MessageController {
         return ResponseEntity.ok(messages);
     }
 
+    @GetMapping("/conversation/history")
+    public ResponseEntity<Slice<ChatMessageResponse>> getConversationHistory(
+            @RequestParam Long userId1,
+            @RequestParam Long userId2,
+            @RequestParam(required = false) String before,
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "50") int size) {
+
+        if (before != null && after != null) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        try {
+            Slice<ChatMessageResponse> messages = messageService.getConversationHistory(
+                    userId1, userId2, MessageCursor.parse(before), MessageCursor.parse(after), size);
+            return ResponseEntity.ok(messages);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    // Full-text search within the user's conversations; page with before=<sentAt>,<id> of the last hit
+    @GetMapping("/search")
+    public ResponseEntity<Slice<MessageSearchResult>> searchMessages(
+            @RequestParam Long userId,
+            @RequestParam String query,
+            @RequestParam(required = false) Long partnerId,
+            @RequestParam(required = false) String before,
+            @RequestParam(defaultValue = "20") int size) {
+
+        try {
+            return ResponseEntity.ok(messageSearchService.search(
+                    userId, query, partnerId, MessageCursor.parse(before), size));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    // Streams the whole history as NDJSON or CSV (optionally gzipped) without buffering it
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportMessages(
+            @RequestParam Long userId,
+            @RequestParam(required = false) Long partnerId,
+            @RequestParam(defaultValue = "ndjson") String format,
+            @RequestParam(defaultValue = "false") boolean gzip) {
+
+        ExportFormat exportFormat;
+        try {
+            exportFormat = ExportFormat.parse(format);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        String filename = "messages-" + userId + (partnerId != null ? "-" + partnerId : "")
+                + "." + exportFormat.getExtension() + (gzip ? ".gz" : "");
+        StreamingResponseBody body = out -> messageExportService.export(userId, partnerId, exportFormat, gzip, out);
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(gzip ? "application/gzip" : exportFormat.getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"")
+                .body(body);
+    }
+
     @GetMapping("/unread")
     public ResponseEntity<List<ChatMessageResponse>> getUnreadMessages(
-            @RequestParam Long receiverId) {
+            @RequestParam Long receiverId,
+            @RequestParam(defaultValue = "500") int limit) {
 
-        List<ChatMessageResponse> unreadMessages = messageService.getUnreadMessages(receiverId);
+        List<ChatMessageResponse> unreadMessages = messageService.getUnreadMessages(receiverId, limit);
         return ResponseEntity.ok(unreadMessages);
     }
 
@@ -43,8 +115,11 @@ public class MessageController {
     }
 
     @PutMapping("/{messageId}/read")
-    public ResponseEntity<Void> markMessageAsRead(@PathVariable Long messageId) {
-        messageService.markAsRead(messageId);
+    public ResponseEntity<Void> markMessageAsRead(
+            @PathVariable Long messageId,
+            @RequestParam Long receiverId) {
+
+        messageService.markAsRead(receiverId, messageId);
         return ResponseEntity.ok().build();
     }
 
@@ -57,11 +132,38 @@ public class MessageController {
         return ResponseEntity.ok().build();
     }
 
+    @DeleteMapping("/{messageId}")
+    public ResponseEntity<Void> unsendMessage(
+            @PathVariable Long messageId,
+            @RequestParam Long userId) {
+
+        return messageService.unsendMessage(userId, messageId)
+                ? ResponseEntity.noContent().build()
+                : ResponseEntity.notFound().build();
+    }
+
+    @DeleteMapping("/conversation")
+    public ResponseEntity<Integer> deleteConversation(
+            @RequestParam Long userId,
+            @RequestParam Long partnerId,
+            @RequestParam(required = false) Long upToMessageId) {
+
+        return ResponseEntity.ok(messageService.deleteConversation(userId, partnerId, upToMessageId));
+    }
+
     @GetMapping("/conversations")
     public ResponseEntity<List<ConversationDTO>> getUserConversations(
-            @RequestParam Long userId) {
+            @RequestParam Long userId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime beforeTime,
+            @RequestParam(required = false) Long beforeUserId,
+            @RequestParam(defaultValue = "50") int size) {
 
-        List<ConversationDTO> conversations = conversationService.getUserConversations(userId);
-        return ResponseEntity.ok(conversations);
+        try {
+            List<ConversationDTO> conversations = conversationService.getUserConversations(
+                    userId, beforeTime, beforeUserId, size);
+            return ResponseEntity.ok(conversations);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,54 @@
+package com.hemanth.chat_application.message;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+
+@Getter
+@AllArgsConstructor
+public class MessageCursor {
+    private final LocalDateTime sentAt;
+    private final Long id;
+
+    // Format: <sentAt ISO-8601>,<id>  e.g. 2025-01-31T10:15:30.123,4711
+    public static MessageCursor parse(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+
+        int comma = value.lastIndexOf(',');
+        if (comma < 0) {
+            throw new IllegalArgumentException("Invalid cursor: " + value);
+        }
+
+        try {
+            LocalDateTime sentAt = LocalDateTime.parse(value.substring(0, comma).trim());
+            Long id = Long.parseLong(value.substring(comma + 1).trim());
+            return new MessageCursor(sentAt, id);
+        } catch (DateTimeParseException | NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + value, e);
+        }
+    }
+
+    public static MessageCursor of(ChatMessageResponse message) {
+        return new MessageCursor(message.getSentAt(), message.getId());
+    }
+
+    // Strict (sentAt, id) ordering of a message relative to this cursor
+    public boolean precedes(ChatMessageResponse message) {
+        int bySentAt = message.getSentAt().compareTo(sentAt);
+        return bySentAt > 0 || (bySentAt == 0 && message.getId() > id);
+    }
+
+    public boolean follows(ChatMessageResponse message) {
+        int bySentAt = message.getSentAt().compareTo(sentAt);
+        return bySentAt < 0 || (bySentAt == 0 && message.getId() < id);
+    }
+
+    @Override
+    public String toString() {
+        return sentAt + "," + id;
+    }
+}
@@ -0,0 +1,190 @@
+package com.hemanth.chat_application.message;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+// Idempotent sends: a client retrying /app/chat.send with the same clientMsgId gets the stored
+// message back instead of a second copy. Recently accepted keys are kept in a bounded window
+// in memory, so a retry after a reconnect is answered without touching the database; the
+// primary key on message_client_ids is what actually guarantees one message per key, across
+// nodes and after the window has expired.
+@Slf4j
+@Component
+public class MessageDeduplicator {
+    public static final int MAX_CLIENT_MSG_ID_LENGTH = 64;
+
+    private static final String CLAIM_SQL = "INSERT INTO message_client_ids " +
+            "(sender_id, client_msg_id, message_id, sent_at) VALUES (?, ?, ?, ?)";
+    private static final String CLAIM_BATCH_SQL = "INSERT INTO message_client_ids " +
+            "(sender_id, client_msg_id, message_id, sent_at) " +
+            "SELECT * FROM unnest(?::bigint[], ?::varchar[], ?::bigint[], ?::timestamptz[]) " +
+            "ON CONFLICT DO NOTHING RETURNING message_id";
+    private static final String FIND_SQL = "SELECT message_id, sent_at FROM message_client_ids " +
+            "WHERE sender_id = ? AND client_msg_id = ?";
+    private static final String PURGE_SQL = "DELETE FROM message_client_ids WHERE (sender_id, client_msg_id) IN (" +
+            "SELECT sender_id, client_msg_id FROM message_client_ids WHERE sent_at < ? LIMIT ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Cache<String, ChatMessageResponse> window;
+    private final long retentionMs;
+    private final int purgeBatchSize;
+    private final Counter windowHits;
+    private final Counter databaseHits;
+
+    public MessageDeduplicator(JdbcTemplate jdbcTemplate,
+                               MeterRegistry meterRegistry,
+                               @Value("${chat.messages.dedup.window-ms:600000}") long windowMs,
+                               @Value("${chat.messages.dedup.window-max-size:100000}") long windowMaxSize,
+                               @Value("${chat.messages.dedup.retention-ms:604800000}") long retentionMs,
+                               @Value("${chat.messages.dedup.purge-batch-size:5000}") int purgeBatchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.retentionMs = retentionMs;
+        this.purgeBatchSize = purgeBatchSize;
+        this.window = CaffeineCacheMetrics.monitor(meterRegistry, Caffeine.newBuilder()
+                .maximumSize(windowMaxSize)
+                .expireAfterWrite(Duration.ofMillis(windowMs))
+                .recordStats()
+                .<String, ChatMessageResponse>build(), "message_dedup");
+        this.windowHits = meterRegistry.counter("chat.messages.duplicates", "source", "window");
+        this.databaseHits = meterRegistry.counter("chat.messages.duplicates", "source", "database");
+    }
+
+    // Fast path: the original response if this key was accepted on this node within the window
+    public Optional<ChatMessageResponse> recent(ChatMessageRequest request) {
+        String key = key(request.getSenderId(), request.getClientMsgId());
+        if (key == null) {
+            return Optional.empty();
+        }
+
+        ChatMessageResponse original = window.getIfPresent(key);
+        if (original != null) {
+            windowHits.increment();
+        }
+        return Optional.ofNullable(original);
+    }
+
+    public void remember(ChatMessageResponse response) {
+        String key = key(response.getSenderId(), response.getClientMsgId());
+        if (key != null) {
+            window.put(key, response);
+        }
+    }
+
+    // Batched ingest remembers a key as soon as the message is queued; when the write then does
+    // not store it, the key is released so the client's retry is saved instead of answered as a
+    // duplicate. A key already remembered for another message is left alone.
+    public void forget(Message message) {
+        String key = key(message.getSenderId(), message.getClientMsgId());
+        if (key != null) {
+            window.asMap().computeIfPresent(key,
+                    (k, original) -> message.getId().equals(original.getId()) ? null : original);
+        }
+    }
+
+    // Must run in the transaction that inserted the message: a DuplicateKeyException rolls both back
+    public void claim(Message message) {
+        if (message.getClientMsgId() == null) {
+            return;
+        }
+        jdbcTemplate.update(CLAIM_SQL, message.getSenderId(), message.getClientMsgId(), message.getId(),
+                Timestamp.valueOf(message.getSentAt()));
+    }
+
+    // Batched ingest: claims every key in one statement and returns the messages to drop,
+    // i.e. those whose key already belongs to another message
+    public Set<Long> claimAll(List<Message> messages) {
+        List<Message> keyed = messages.stream()
+                .filter(message -> message.getClientMsgId() != null)
+                .toList();
+        if (keyed.isEmpty()) {
+            return Set.of();
+        }
+
+        List<Long> claimed = jdbcTemplate.query(CLAIM_BATCH_SQL, ps -> {
+            Connection connection = ps.getConnection();
+            ps.setArray(1, array(connection, "bigint", keyed.stream().map(Message::getSenderId).toArray()));
+            ps.setArray(2, array(connection, "varchar", keyed.stream().map(Message::getClientMsgId).toArray()));
+            ps.setArray(3, array(connection, "bigint", keyed.stream().map(Message::getId).toArray()));
+            ps.setArray(4, array(connection, "timestamptz",
+                    keyed.stream().map(message -> Timestamp.valueOf(message.getSentAt())).toArray()));
+        }, (rs, rowNum) -> rs.getLong(1));
+
+        Set<Long> rejected = new HashSet<>();
+        for (Message message : keyed) {
+            rejected.add(message.getId());
+        }
+        claimed.forEach(rejected::remove);
+        databaseHits.increment(rejected.size());
+        return rejected;
+    }
+
+    // Slow path after a key conflict: the original's id and timestamp from the claim table
+    public Optional<ChatMessageResponse> stored(ChatMessageRequest request) {
+        List<ChatMessageResponse> found = jdbcTemplate.query(FIND_SQL, (rs, rowNum) -> ChatMessageResponse.builder()
+                        .id(rs.getLong("message_id"))
+                        .senderId(request.getSenderId())
+                        .receiverId(request.getReceiverId())
+                        .content(request.getContent())
+                        .status(MessageStatus.SENT)
+                        .sentAt(rs.getTimestamp("sent_at").toLocalDateTime())
+                        .clientMsgId(request.getClientMsgId())
+                        .build(),
+                request.getSenderId(), request.getClientMsgId());
+        if (found.isEmpty()) {
+            return Optional.empty();
+        }
+
+        databaseHits.increment();
+        remember(found.get(0));
+        return Optional.of(found.get(0));
+    }
+
+    // Keys only need to outlive any realistic retry; the claim table is trimmed after retention-ms
+    @Scheduled(fixedDelayString = "${chat.messages.dedup.purge-interval-ms:3600000}")
+    public void purge() {
+        Timestamp cutoff = Timestamp.valueOf(LocalDateTime.now().minus(Duration.ofMillis(retentionMs)));
+        try {
+            int purged;
+            do {
+                purged = jdbcTemplate.update(PURGE_SQL, cutoff, purgeBatchSize);
+            } while (purged == purgeBatchSize);
+        } catch (RuntimeException e) {
+            log.error("Failed to purge expired client message ids", e);
+        }
+    }
+
+    public static void validate(ChatMessageRequest request) {
+        String clientMsgId = request.getClientMsgId();
+        if (clientMsgId != null && (clientMsgId.isBlank() || clientMsgId.length() > MAX_CLIENT_MSG_ID_LENGTH)) {
+            throw new IllegalArgumentException(
+                    "clientMsgId must be 1-" + MAX_CLIENT_MSG_ID_LENGTH + " characters");
+        }
+    }
+
+    private static String key(Long senderId, String clientMsgId) {
+        return clientMsgId == null ? null : senderId + ":" + clientMsgId;
+    }
+
+    private static Array array(Connection connection, String type, Object[] values) throws SQLException {
+        return connection.createArrayOf(type, values);
+    }
+}
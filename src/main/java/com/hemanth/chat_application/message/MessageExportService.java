@@ -0,0 +1,102 @@
+package com.hemanth.chat_application.message;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+// History export straight from a JDBC cursor to the response: rows are fetched fetch-size at
+// a time (needs the read-only transaction, Postgres only uses a cursor with autocommit off)
+// and written as they arrive. No entities and no persistence context, so heap stays flat.
+// Months already moved to the cold archive are streamed from there first, oldest first.
+@Service
+public class MessageExportService {
+    // One index range scan per conversation (idx_messages_conversation) instead of a sort
+    // over every message the user has
+    private static final String CONVERSATION_SQL = "SELECT id, sender_id, receiver_id, content, status, " +
+            "sent_at, delivered_at, read_at FROM messages " +
+            "WHERE conversation_id = ? AND is_deleted = false ORDER BY sent_at, id";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ConversationRepository conversationRepository;
+    private final ObjectMapper objectMapper;
+    private final MessageArchive messageArchive;
+
+    public MessageExportService(DataSource dataSource,
+                                PlatformTransactionManager transactionManager,
+                                ConversationRepository conversationRepository,
+                                ObjectMapper objectMapper,
+                                MessageArchive messageArchive,
+                                @Value("${chat.export.fetch-size:1000}") int fetchSize) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(fetchSize);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.conversationRepository = conversationRepository;
+        this.objectMapper = objectMapper;
+        this.messageArchive = messageArchive;
+    }
+
+    // partnerId null exports every conversation of the user, one after another
+    public long export(Long userId, Long partnerId, ExportFormat format, boolean gzip, OutputStream out)
+            throws IOException {
+        List<Long> partnerIds = partnerId != null
+                ? List.of(partnerId)
+                : conversationRepository.findPartnerIds(userId);
+
+        try (MessageExportWriter writer = new MessageExportWriter(format, out, gzip, objectMapper)) {
+            transactionTemplate.executeWithoutResult(status -> {
+                for (Long partner : partnerIds) {
+                    String conversationId = Message.conversationKey(userId, partner);
+                    messageArchive.forEachArchived(conversationId, message -> write(writer, message));
+                    jdbcTemplate.query(CONVERSATION_SQL,
+                            (RowCallbackHandler) rs -> write(writer, toResponse(rs)), conversationId);
+                }
+            });
+            return writer.count();
+        } catch (UncheckedIOException e) {
+            // Usually the client went away mid-download
+            throw e.getCause();
+        }
+    }
+
+    private static void write(MessageExportWriter writer, ChatMessageResponse message) {
+        try {
+            writer.write(message);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Also used by MessageArchive for the same column list
+    static ChatMessageResponse toResponse(ResultSet rs) throws SQLException {
+        return ChatMessageResponse.builder()
+                .id(rs.getLong("id"))
+                .senderId(rs.getLong("sender_id"))
+                .receiverId(rs.getLong("receiver_id"))
+                .content(rs.getString("content"))
+                .status(MessageStatus.valueOf(rs.getString("status")))
+                .sentAt(toLocalDateTime(rs.getTimestamp("sent_at")))
+                .deliveredAt(toLocalDateTime(rs.getTimestamp("delivered_at")))
+                .readAt(toLocalDateTime(rs.getTimestamp("read_at")))
+                .build();
+    }
+
+    private static LocalDateTime toLocalDateTime(Timestamp timestamp) {
+        return timestamp != null ? timestamp.toLocalDateTime() : null;
+    }
+}
@@ -0,0 +1,105 @@
+package com.hemanth.chat_application.message;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.zip.GZIPOutputStream;
+
+// Writes messages one at a time through fixed-size buffers, so memory use does not depend
+// on how many are exported. close() finishes the output but leaves the target stream open.
+class MessageExportWriter implements Closeable {
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final String CSV_HEADER = "id,sender_id,receiver_id,status,sent_at,delivered_at,read_at,content\n";
+
+    private final ExportFormat format;
+    private final OutputStream target;
+    private final GZIPOutputStream gzip;
+    private final Writer writer;
+    private final ObjectWriter jsonWriter;
+    private final JsonGenerator generator;
+    private long count;
+
+    MessageExportWriter(ExportFormat format, OutputStream target, boolean gzip, ObjectMapper objectMapper)
+            throws IOException {
+        this.format = format;
+        this.target = target;
+        this.gzip = gzip ? new GZIPOutputStream(target, BUFFER_SIZE) : null;
+        this.writer = new BufferedWriter(
+                new OutputStreamWriter(this.gzip != null ? this.gzip : target, StandardCharsets.UTF_8), BUFFER_SIZE);
+
+        if (format == ExportFormat.NDJSON) {
+            // No flush per row: the buffers decide when bytes go out
+            this.jsonWriter = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+            this.generator = objectMapper.getFactory().createGenerator(writer)
+                    .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        } else {
+            this.jsonWriter = null;
+            this.generator = null;
+            writer.write(CSV_HEADER);
+        }
+    }
+
+    void write(ChatMessageResponse message) throws IOException {
+        if (format == ExportFormat.NDJSON) {
+            jsonWriter.writeValue(generator, message);
+            generator.writeRaw('\n');
+        } else {
+            writer.write(String.valueOf(message.getId()));
+            writer.write(',');
+            writer.write(String.valueOf(message.getSenderId()));
+            writer.write(',');
+            writer.write(String.valueOf(message.getReceiverId()));
+            writer.write(',');
+            writer.write(message.getStatus() != null ? message.getStatus().name() : "");
+            writer.write(',');
+            writer.write(timestamp(message.getSentAt()));
+            writer.write(',');
+            writer.write(timestamp(message.getDeliveredAt()));
+            writer.write(',');
+            writer.write(timestamp(message.getReadAt()));
+            writer.write(',');
+            writeCsvField(message.getContent());
+            writer.write('\n');
+        }
+        count++;
+    }
+
+    long count() {
+        return count;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (generator != null) {
+            generator.close();
+        }
+        writer.flush();
+        if (gzip != null) {
+            gzip.finish();
+        }
+        target.flush();
+    }
+
+    // RFC 4180: quote every content field, double embedded quotes
+    private void writeCsvField(String value) throws IOException {
+        writer.write('"');
+        if (value != null) {
+            writer.write(value.replace("\"", "\"\""));
+        }
+        writer.write('"');
+    }
+
+    private static String timestamp(LocalDateTime value) {
+        return value != null ? value.toString() : "";
+    }
+}
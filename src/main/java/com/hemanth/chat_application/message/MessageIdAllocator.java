@@ -0,0 +1,32 @@
+package com.hemanth.chat_application.message;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+// Hands out message ids ahead of the INSERT so the write-behind path can fan out first
+// and batch the inserts later. Ids come from the same sequence the IDENTITY column uses,
+// fetched a block at a time so most calls never touch the database.
+@Component
+public class MessageIdAllocator {
+    private final JdbcTemplate jdbcTemplate;
+    private final int blockSize;
+    private final Deque<Long> pool = new ArrayDeque<>();
+
+    public MessageIdAllocator(JdbcTemplate jdbcTemplate,
+                              @Value("${chat.ingest.id-block-size:100}") int blockSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.blockSize = blockSize;
+    }
+
+    public synchronized long next() {
+        if (pool.isEmpty()) {
+            pool.addAll(jdbcTemplate.queryForList(
+                    "SELECT nextval('messages_id_seq') FROM generate_series(1, ?) ORDER BY 1", Long.class, blockSize));
+        }
+        return pool.removeFirst();
+    }
+}
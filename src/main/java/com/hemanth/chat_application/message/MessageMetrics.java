@@ -0,0 +1,44 @@
+package com.hemanth.chat_application.message;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+// chat.messages{event=sent|delivered|read|deleted|purged}: receipts count messages, not frames, so a
+// range receipt covering 50 messages adds 50
+@Component
+public class MessageMetrics {
+    private final Counter sentCounter;
+    private final Counter deliveredCounter;
+    private final Counter readCounter;
+    private final Counter deletedCounter;
+    private final Counter purgedCounter;
+
+    public MessageMetrics(MeterRegistry meterRegistry) {
+        this.sentCounter = meterRegistry.counter("chat.messages", "event", "sent");
+        this.deliveredCounter = meterRegistry.counter("chat.messages", "event", "delivered");
+        this.readCounter = meterRegistry.counter("chat.messages", "event", "read");
+        this.deletedCounter = meterRegistry.counter("chat.messages", "event", "deleted");
+        this.purgedCounter = meterRegistry.counter("chat.messages", "event", "purged");
+    }
+
+    public void sent() {
+        sentCounter.increment();
+    }
+
+    public void delivered(int count) {
+        deliveredCounter.increment(count);
+    }
+
+    public void read(int count) {
+        readCounter.increment(count);
+    }
+
+    public void deleted(int count) {
+        deletedCounter.increment(count);
+    }
+
+    public void purged(int count) {
+        purgedCounter.increment(count);
+    }
+}
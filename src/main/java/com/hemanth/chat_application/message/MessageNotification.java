@@ -13,6 +13,9 @@ import java.time.LocalDateTime;
 @NoArgsConstructor
 public class MessageNotification {
     private Long messageId;
+    // Range receipt: when set, covers every message from senderId to receiverId with id <= upToMessageId
+    private Long upToMessageId;
+    private Integer count;
     private Long senderId;
     private Long receiverId;
     private MessageStatus status;
@@ -0,0 +1,133 @@
+package com.hemanth.chat_application.message;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Path;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.regex.Pattern;
+
+// Keeps monthly partitions of messages created ahead of time and, when enabled, moves
+// partitions older than the retention window to MessageArchive: write the archive, detach
+// the partition without blocking writers, then drop it. Only one node runs it at a time.
+@Slf4j
+@Component
+public class MessagePartitionManager {
+    // Arbitrary key shared by every node for pg_try_advisory_lock
+    private static final long LOCK_KEY = 0x6d73675f70617274L;
+    private static final Pattern PARTITION_NAME = Pattern.compile("messages_(legacy|\\d{4}_\\d{2})");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final MessageArchive messageArchive;
+    private final int monthsAhead;
+    private final boolean archiveEnabled;
+    private final int archiveAfterMonths;
+
+    public MessagePartitionManager(JdbcTemplate jdbcTemplate,
+                                   MessageArchive messageArchive,
+                                   @Value("${chat.partitions.months-ahead:3}") int monthsAhead,
+                                   @Value("${chat.partitions.archive.enabled:false}") boolean archiveEnabled,
+                                   @Value("${chat.partitions.archive.after-months:12}") int archiveAfterMonths) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.messageArchive = messageArchive;
+        this.monthsAhead = monthsAhead;
+        this.archiveEnabled = archiveEnabled;
+        this.archiveAfterMonths = archiveAfterMonths;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        maintain();
+    }
+
+    @Scheduled(cron = "${chat.partitions.maintenance-cron:0 15 3 * * *}")
+    public void maintain() {
+        // The advisory lock is session-scoped, so take and release it on the same connection
+        jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+            try (Statement statement = connection.createStatement();
+                 ResultSet rs = statement.executeQuery("SELECT pg_try_advisory_lock(" + LOCK_KEY + ")")) {
+                rs.next();
+                if (!rs.getBoolean(1)) {
+                    log.debug("Partition maintenance already running on another node");
+                    return null;
+                }
+            }
+            try {
+                createPartitions();
+                if (archiveEnabled) {
+                    archivePartitions();
+                }
+            } catch (RuntimeException e) {
+                log.error("Message partition maintenance failed", e);
+            } finally {
+                try (PreparedStatement unlock = connection.prepareStatement("SELECT pg_advisory_unlock(?)")) {
+                    unlock.setLong(1, LOCK_KEY);
+                    unlock.execute();
+                }
+            }
+            return null;
+        });
+    }
+
+    void createPartitions() {
+        LocalDate month = LocalDate.now().withDayOfMonth(1);
+        for (int i = 0; i <= monthsAhead; i++) {
+            String created = jdbcTemplate.queryForObject("SELECT create_messages_partition(?)", String.class,
+                    Timestamp.valueOf(month.plusMonths(i).atStartOfDay()));
+            if (created != null) {
+                log.info("Created message partition {}", created);
+            }
+        }
+    }
+
+    void archivePartitions() {
+        LocalDateTime cutoff = LocalDate.now().withDayOfMonth(1).minusMonths(archiveAfterMonths).atStartOfDay();
+        List<String> partitions = jdbcTemplate.queryForList(
+                "SELECT name FROM message_partitions WHERE state = 'HOT' AND range_end <= ? ORDER BY range_end",
+                String.class, Timestamp.valueOf(cutoff));
+
+        for (String partition : partitions) {
+            if (!PARTITION_NAME.matcher(partition).matches()) {
+                log.warn("Skipping unexpected partition name {}", partition);
+                continue;
+            }
+            try {
+                archive(partition);
+            } catch (Exception e) {
+                // Leave it HOT; the next run retries from scratch
+                log.error("Failed to archive message partition {}", partition, e);
+                return;
+            }
+        }
+    }
+
+    private void archive(String partition) throws Exception {
+        long started = System.currentTimeMillis();
+        Path file = messageArchive.write(partition);
+        Long rows = jdbcTemplate.queryForObject(
+                "SELECT COALESCE(SUM(message_count), 0) FROM message_archive_index WHERE partition_name = ?",
+                Long.class, partition);
+
+        // CONCURRENTLY cannot run in a transaction block; JdbcTemplate runs it in autocommit
+        jdbcTemplate.execute("ALTER TABLE messages DETACH PARTITION " + partition + " CONCURRENTLY");
+        jdbcTemplate.update("UPDATE message_partitions SET state = 'ARCHIVED', archive_path = ?, row_count = ?, " +
+                "archived_at = now() WHERE name = ?", file.toAbsolutePath().toString(), rows, partition);
+        jdbcTemplate.execute("DROP TABLE " + partition);
+        messageArchive.refresh();
+
+        log.info("Archived message partition {} ({} messages) to {} in {} ms",
+                partition, rows, file, System.currentTimeMillis() - started);
+    }
+}
@@ -2,26 +2,66 @@ package com.hemanth.chat_application.message;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 public interface MessageRepository extends JpaRepository<Message, Long> {
 
-    @Query("SELECT m FROM Message m WHERE " +
-            "(m.senderId = :userId1 AND m.receiverId = :userId2) OR " +
-            "(m.senderId = :userId2 AND m.receiverId = :userId1) " +
-            "AND m.isDeleted = false ORDER BY m.sentAt DESC")
-    Page<Message> findConversationBetweenUsers(
-            @Param("userId1") Long userId1,
-            @Param("userId2") Long userId2,
+    @Query("SELECT m FROM Message m WHERE m.conversationId = :conversationId " +
+            "AND m.isDeleted = false ORDER BY m.sentAt DESC, m.id DESC")
+    Page<Message> findConversation(
+            @Param("conversationId") String conversationId,
+            Pageable pageable);
+
+    // Keyset pages walk idx_messages_conversation (conversation_id, sent_at DESC, id DESC)
+    @Query("SELECT m FROM Message m WHERE m.conversationId = :conversationId " +
+            "AND m.isDeleted = false ORDER BY m.sentAt DESC, m.id DESC")
+    Slice<Message> findLatest(
+            @Param("conversationId") String conversationId,
+            Pageable pageable);
+
+    @Query("SELECT m FROM Message m WHERE m.conversationId = :conversationId " +
+            "AND m.isDeleted = false " +
+            "AND (m.sentAt < :sentAt OR (m.sentAt = :sentAt AND m.id < :id)) " +
+            "ORDER BY m.sentAt DESC, m.id DESC")
+    Slice<Message> findBefore(
+            @Param("conversationId") String conversationId,
+            @Param("sentAt") LocalDateTime sentAt,
+            @Param("id") Long id,
+            Pageable pageable);
+
+    @Query("SELECT m FROM Message m WHERE m.conversationId = :conversationId " +
+            "AND m.isDeleted = false " +
+            "AND (m.sentAt > :sentAt OR (m.sentAt = :sentAt AND m.id > :id)) " +
+            "ORDER BY m.sentAt ASC, m.id ASC")
+    Slice<Message> findAfter(
+            @Param("conversationId") String conversationId,
+            @Param("sentAt") LocalDateTime sentAt,
+            @Param("id") Long id,
             Pageable pageable);
 
     @Query("SELECT m FROM Message m WHERE m.receiverId = :receiverId " +
-            "AND m.status != 'READ' AND m.isDeleted = false")
-    List<Message> findUnreadMessagesByReceiver(@Param("receiverId") Long receiverId);
+            "AND m.status != 'READ' AND m.isDeleted = false ORDER BY m.id")
+    List<Message> findUnreadMessagesByReceiver(@Param("receiverId") Long receiverId, Pageable pageable);
+
+    // Offline sync pages, keyset on id via idx_messages_receiver_sync
+    @Query("SELECT m FROM Message m WHERE m.receiverId = :receiverId AND m.id > :afterId " +
+            "AND m.isDeleted = false ORDER BY m.id")
+    Slice<Message> findForSync(@Param("receiverId") Long receiverId, @Param("afterId") Long afterId,
+                               Pageable pageable);
+
+    @Query("SELECT m FROM Message m WHERE m.receiverId = :receiverId AND m.id > :afterId " +
+            "AND m.status = com.hemanth.chat_application.message.MessageStatus.SENT " +
+            "AND m.isDeleted = false ORDER BY m.id")
+    Slice<Message> findUndeliveredForSync(@Param("receiverId") Long receiverId, @Param("afterId") Long afterId,
+                                          Pageable pageable);
 
     @Query("SELECT COUNT(m) FROM Message m WHERE m.receiverId = :receiverId " +
             "AND m.senderId = :senderId AND m.status != 'READ' AND m.isDeleted = false")
@@ -29,9 +69,63 @@ public interface MessageRepository extends JpaRepository<Message, Long> {
             @Param("receiverId") Long receiverId,
             @Param("senderId") Long senderId);
 
-    @Query("SELECT m FROM Message m WHERE m.receiverId = :receiverId " +
-            "AND m.senderId = :senderId AND m.status != 'READ' AND m.isDeleted = false")
-    List<Message> findUnreadMessagesBetweenUsers(
+    @Modifying
+    @Query("UPDATE Message m SET m.status = com.hemanth.chat_application.message.MessageStatus.DELIVERED, " +
+            "m.deliveredAt = :now WHERE m.id = :messageId AND m.receiverId = :receiverId " +
+            "AND m.status = com.hemanth.chat_application.message.MessageStatus.SENT")
+    int markDelivered(@Param("messageId") Long messageId, @Param("receiverId") Long receiverId,
+                      @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("UPDATE Message m SET m.status = com.hemanth.chat_application.message.MessageStatus.READ, " +
+            "m.readAt = :now, m.deliveredAt = COALESCE(m.deliveredAt, :now) " +
+            "WHERE m.id = :messageId AND m.receiverId = :receiverId " +
+            "AND m.status != com.hemanth.chat_application.message.MessageStatus.READ")
+    int markRead(@Param("messageId") Long messageId, @Param("receiverId") Long receiverId,
+                 @Param("now") LocalDateTime now);
+
+    // Who to notify after a single-message receipt: the stored sender, never one from the payload
+    @Query("SELECT m.senderId FROM Message m WHERE m.id = :messageId")
+    Optional<Long> findSenderId(@Param("messageId") Long messageId);
+
+    // Range receipts: everything from sender to receiver up to and including the watermark id
+    @Modifying
+    @Query("UPDATE Message m SET m.status = com.hemanth.chat_application.message.MessageStatus.DELIVERED, " +
+            "m.deliveredAt = :now WHERE m.receiverId = :receiverId AND m.senderId = :senderId " +
+            "AND m.id <= :upToMessageId AND m.isDeleted = false " +
+            "AND m.status = com.hemanth.chat_application.message.MessageStatus.SENT")
+    int markDeliveredUpTo(
             @Param("receiverId") Long receiverId,
-            @Param("senderId") Long senderId);
-}
\ No newline at end of file
+            @Param("senderId") Long senderId,
+            @Param("upToMessageId") Long upToMessageId,
+            @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("UPDATE Message m SET m.status = com.hemanth.chat_application.message.MessageStatus.READ, " +
+            "m.readAt = :now, m.deliveredAt = COALESCE(m.deliveredAt, :now) " +
+            "WHERE m.receiverId = :receiverId AND m.senderId = :senderId " +
+            "AND m.id <= :upToMessageId AND m.isDeleted = false " +
+            "AND m.status != com.hemanth.chat_application.message.MessageStatus.READ")
+    int markReadUpTo(
+            @Param("receiverId") Long receiverId,
+            @Param("senderId") Long senderId,
+            @Param("upToMessageId") Long upToMessageId,
+            @Param("now") LocalDateTime now);
+
+    // Unsend: only the sender can tombstone their own message
+    @Modifying
+    @Query("UPDATE Message m SET m.isDeleted = true, m.deletedAt = :now " +
+            "WHERE m.id = :messageId AND m.senderId = :senderId AND m.isDeleted = false")
+    int tombstone(
+            @Param("messageId") Long messageId,
+            @Param("senderId") Long senderId,
+            @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("UPDATE Message m SET m.isDeleted = true, m.deletedAt = :now " +
+            "WHERE m.conversationId = :conversationId AND m.id <= :upToMessageId AND m.isDeleted = false")
+    int tombstoneConversation(
+            @Param("conversationId") String conversationId,
+            @Param("upToMessageId") Long upToMessageId,
+            @Param("now") LocalDateTime now);
+}
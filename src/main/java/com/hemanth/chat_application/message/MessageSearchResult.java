@@ -0,0 +1,17 @@
+package com.hemanth.chat_application.message;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class MessageSearchResult {
+    private ChatMessageResponse message;
+    // Matching fragments as HTML: the message text is escaped and hits are wrapped in
+    // <mark>...</mark>, the only markup it contains
+    private String highlight;
+}
@@ -0,0 +1,94 @@
+package com.hemanth.chat_application.message;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.web.util.HtmlUtils;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Full-text search over the caller's own messages, newest first, paged by the same
+// (sentAt, id) cursor as conversation history. Backed by idx_messages_content_tsv.
+@Service
+@RequiredArgsConstructor
+public class MessageSearchService {
+    private static final int MAX_PAGE_SIZE = 100;
+
+    // Hits are delimited with STX/ETX (stripped from the content first, so a user cannot forge
+    // them); the fragment is then HTML-escaped and only the delimiters become <mark> tags
+    private static final String MARK_START = "\u0002";
+    private static final String MARK_STOP = "\u0003";
+
+    // ts_headline is the expensive part, so it runs only on the rows of the final page
+    private static final String SEARCH_SQL = "SELECT m.id, m.sender_id, m.receiver_id, m.content, m.status, " +
+            "m.sent_at, m.delivered_at, m.read_at, " +
+            "ts_headline('simple', translate(m.content, chr(2) || chr(3), ''), q.query, " +
+            "'StartSel=' || chr(2) || ', StopSel=' || chr(3) || ', MaxFragments=2, MaxWords=20, MinWords=5') AS highlight " +
+            "FROM (SELECT * FROM messages " +
+            "      WHERE content_tsv @@ websearch_to_tsquery('simple', :query) " +
+            "      AND (sender_id = :userId OR receiver_id = :userId) " +
+            "      AND (CAST(:conversationId AS VARCHAR) IS NULL OR conversation_id = :conversationId) " +
+            "      AND is_deleted = false " +
+            "      AND (CAST(:beforeTime AS TIMESTAMP) IS NULL OR (sent_at, id) < (:beforeTime, :beforeId)) " +
+            "      ORDER BY sent_at DESC, id DESC LIMIT :limit) m, " +
+            "     websearch_to_tsquery('simple', :query) AS q(query) " +
+            "ORDER BY m.sent_at DESC, m.id DESC";
+
+    private static final RowMapper<MessageSearchResult> ROW_MAPPER = (rs, rowNum) -> MessageSearchResult.builder()
+            .message(ChatMessageResponse.builder()
+                    .id(rs.getLong("id"))
+                    .senderId(rs.getLong("sender_id"))
+                    .receiverId(rs.getLong("receiver_id"))
+                    .content(rs.getString("content"))
+                    .status(MessageStatus.valueOf(rs.getString("status")))
+                    .sentAt(toLocalDateTime(rs.getTimestamp("sent_at")))
+                    .deliveredAt(toLocalDateTime(rs.getTimestamp("delivered_at")))
+                    .readAt(toLocalDateTime(rs.getTimestamp("read_at")))
+                    .build())
+            .highlight(toHighlightHtml(rs.getString("highlight")))
+            .build();
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    // partnerId narrows the search to one conversation; null searches all of the user's
+    public Slice<MessageSearchResult> search(Long userId, String query, Long partnerId,
+                                             MessageCursor before, int size) {
+        int pageSize = Math.min(Math.max(size, 1), MAX_PAGE_SIZE);
+        if (query == null || query.isBlank()) {
+            return new SliceImpl<>(List.of(), PageRequest.of(0, pageSize), false);
+        }
+
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("query", query.trim())
+                .addValue("userId", userId)
+                .addValue("conversationId", partnerId != null ? Message.conversationKey(userId, partnerId) : null)
+                .addValue("beforeTime", before != null ? Timestamp.valueOf(before.getSentAt()) : null)
+                .addValue("beforeId", before != null ? before.getId() : null)
+                // One extra row tells whether there is a next page
+                .addValue("limit", pageSize + 1);
+
+        List<MessageSearchResult> rows = jdbcTemplate.query(SEARCH_SQL, params, ROW_MAPPER);
+        boolean hasNext = rows.size() > pageSize;
+        return new SliceImpl<>(hasNext ? rows.subList(0, pageSize) : rows, PageRequest.of(0, pageSize), hasNext);
+    }
+
+    static String toHighlightHtml(String headline) {
+        if (headline == null) {
+            return null;
+        }
+        return HtmlUtils.htmlEscape(headline)
+                .replace(MARK_START, "<mark>")
+                .replace(MARK_STOP, "</mark>");
+    }
+
+    private static LocalDateTime toLocalDateTime(Timestamp timestamp) {
+        return timestamp != null ? timestamp.toLocalDateTime() : null;
+    }
+}
@@ -1,22 +1,78 @@
 package com.hemanth.chat_application.message;
 
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
-import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Optional;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
+@Timed(value = "chat.message.service", description = "MessageService calls, tagged by method")
 public class MessageService {
     private final MessageRepository messageRepository;
+    private final ConversationService conversationService;
+    private final MessageIdAllocator messageIdAllocator;
+    private final ObjectProvider<BatchingMessageWriter> batchingWriter;
+    private final MessageMetrics messageMetrics;
+    private final MessageArchive messageArchive;
+    private final ApplicationEventPublisher eventPublisher;
+    private final MessageDeduplicator messageDeduplicator;
+    private final TransactionTemplate transactionTemplate;
 
+    // Entry point for /app/chat.send. In batched ingest mode the message gets its id up front
+    // and is persisted asynchronously; empty means the ingest queue refused it. A retry with
+    // an already accepted clientMsgId returns the original message, flagged as a duplicate.
+    public Optional<AcceptedMessage> acceptMessage(ChatMessageRequest request) {
+        MessageDeduplicator.validate(request);
+        Optional<ChatMessageResponse> recent = messageDeduplicator.recent(request);
+        if (recent.isPresent()) {
+            return recent.map(AcceptedMessage::duplicate);
+        }
+
+        BatchingMessageWriter writer = batchingWriter.getIfAvailable();
+        if (writer == null) {
+            return Optional.of(saveIdempotently(request));
+        }
+
+        Message message = Message.builder()
+                .id(messageIdAllocator.next())
+                .senderId(request.getSenderId())
+                .receiverId(request.getReceiverId())
+                .conversationId(Message.conversationKey(request.getSenderId(), request.getReceiverId()))
+                .content(request.getContent())
+                .status(MessageStatus.SENT)
+                .sentAt(LocalDateTime.now())
+                .isDeleted(false)
+                .clientMsgId(request.getClientMsgId())
+                .build();
+
+        if (!writer.submit(message)) {
+            return Optional.empty();
+        }
+        messageMetrics.sent();
+        ChatMessageResponse response = toResponse(message);
+        // The writer forgets the key again if the row is not stored (FAILED/DUPLICATE ack)
+        messageDeduplicator.remember(response);
+        return Optional.of(AcceptedMessage.created(response));
+    }
+
+    // Throws DuplicateKeyException (and rolls back) when clientMsgId was already used by this sender
     @Transactional
     public ChatMessageResponse saveMessage(ChatMessageRequest request) {
         Message message = Message.builder()
@@ -25,62 +81,175 @@ public class MessageService {
                 .content(request.getContent())
                 .status(MessageStatus.SENT)
                 .isDeleted(false)
+                .clientMsgId(request.getClientMsgId())
                 .build();
 
         Message savedMessage = messageRepository.save(message);
+        messageDeduplicator.claim(savedMessage);
+        conversationService.recordMessage(savedMessage);
+        messageMetrics.sent();
         return toResponse(savedMessage);
     }
 
+    // A key missed by the in-memory window (other node, expired) is caught by the claim table;
+    // the duplicate insert rolls back and the stored original is returned instead
+    AcceptedMessage saveIdempotently(ChatMessageRequest request) {
+        ChatMessageResponse response;
+        try {
+            response = transactionTemplate.execute(status -> saveMessage(request));
+        } catch (DuplicateKeyException e) {
+            return AcceptedMessage.duplicate(messageDeduplicator.stored(request).orElseThrow(() -> e));
+        }
+        messageDeduplicator.remember(response);
+        return AcceptedMessage.created(response);
+    }
+
+    // Receipts are set-based UPDATEs: no entity load, no per-row dirty checking. A single-message
+    // receipt only applies to a message addressed to receiverId; returns its stored sender to notify.
     @Transactional
-    public void markAsDelivered(Long messageId) {
-        messageRepository.findById(messageId).ifPresent(message -> {
-            if (message.getStatus() == MessageStatus.SENT) {
-                message.setStatus(MessageStatus.DELIVERED);
-                message.setDeliveredAt(LocalDateTime.now());
-                messageRepository.save(message);
-            }
-        });
+    public Optional<Long> markAsDelivered(Long receiverId, Long messageId) {
+        if (messageRepository.markDelivered(messageId, receiverId, LocalDateTime.now()) == 0) {
+            return Optional.empty();
+        }
+        messageMetrics.delivered(1);
+        return messageRepository.findSenderId(messageId);
     }
 
     @Transactional
-    public void markAsRead(Long messageId) {
-        messageRepository.findById(messageId).ifPresent(message -> {
-            if (message.getStatus() != MessageStatus.READ) {
-                message.setStatus(MessageStatus.READ);
-                message.setReadAt(LocalDateTime.now());
-                if (message.getDeliveredAt() == null) {
-                    message.setDeliveredAt(LocalDateTime.now());
-                }
-                messageRepository.save(message);
-            }
-        });
+    public Optional<Long> markAsRead(Long receiverId, Long messageId) {
+        if (messageRepository.markRead(messageId, receiverId, LocalDateTime.now()) == 0) {
+            return Optional.empty();
+        }
+        conversationService.recordRead(messageId);
+        messageMetrics.read(1);
+        return messageRepository.findSenderId(messageId);
+    }
+
+    @Transactional
+    public int markDeliveredUpTo(Long receiverId, Long senderId, Long upToMessageId) {
+        int updated = messageRepository.markDeliveredUpTo(receiverId, senderId, upToMessageId, LocalDateTime.now());
+        messageMetrics.delivered(updated);
+        return updated;
+    }
+
+    @Transactional
+    public int markReadUpTo(Long receiverId, Long senderId, Long upToMessageId) {
+        int updated = messageRepository.markReadUpTo(receiverId, senderId, upToMessageId, LocalDateTime.now());
+        conversationService.recordRead(receiverId, senderId, updated);
+        messageMetrics.read(updated);
+        return updated;
     }
 
     @Transactional
     public void markConversationAsRead(Long receiverId, Long senderId) {
-        List<Message> unreadMessages = messageRepository
-                .findUnreadMessagesBetweenUsers(receiverId, senderId);
+        int updated = messageRepository.markReadUpTo(receiverId, senderId, Long.MAX_VALUE, LocalDateTime.now());
+        conversationService.recordConversationRead(receiverId, senderId);
+        messageMetrics.read(updated);
+    }
 
+    // Unsend: the sender removes their own message for both parties
+    @Transactional
+    public boolean unsendMessage(Long senderId, Long messageId) {
+        Optional<Message> message = messageRepository.findById(messageId);
         LocalDateTime now = LocalDateTime.now();
-        unreadMessages.forEach(message -> {
-            message.setStatus(MessageStatus.READ);
-            message.setReadAt(now);
-            if (message.getDeliveredAt() == null) {
-                message.setDeliveredAt(now);
-            }
-        });
+        if (message.isEmpty() || messageRepository.tombstone(messageId, senderId, now) == 0) {
+            return false;
+        }
 
-        messageRepository.saveAll(unreadMessages);
+        Long receiverId = message.get().getReceiverId();
+        conversationService.recordDelete(senderId, receiverId);
+        messageMetrics.deleted(1);
+        eventPublisher.publishEvent(MessageTombstone.builder()
+                .messageId(messageId)
+                .deletedBy(senderId)
+                .partnerId(receiverId)
+                .count(1)
+                .deletedAt(now)
+                .build());
+        return true;
+    }
+
+    // Clears the conversation for both parties, up to upToMessageId when given
+    @Transactional
+    public int deleteConversation(Long userId, Long partnerId, Long upToMessageId) {
+        LocalDateTime now = LocalDateTime.now();
+        int deleted = messageRepository.tombstoneConversation(Message.conversationKey(userId, partnerId),
+                upToMessageId != null ? upToMessageId : Long.MAX_VALUE, now);
+        if (deleted == 0) {
+            return 0;
+        }
+
+        conversationService.recordDelete(userId, partnerId);
+        messageMetrics.deleted(deleted);
+        eventPublisher.publishEvent(MessageTombstone.builder()
+                .upToMessageId(upToMessageId)
+                .deletedBy(userId)
+                .partnerId(partnerId)
+                .count(deleted)
+                .deletedAt(now)
+                .build());
+        return deleted;
     }
 
     public Page<ChatMessageResponse> getConversation(Long userId1, Long userId2, int page, int size) {
-        Pageable pageable = PageRequest.of(page, size, Sort.by("sentAt").descending());
-        Page<Message> messages = messageRepository.findConversationBetweenUsers(userId1, userId2, pageable);
+        Pageable pageable = PageRequest.of(page, size);
+        Page<Message> messages = messageRepository.findConversation(
+                Message.conversationKey(userId1, userId2), pageable);
         return messages.map(this::toResponse);
     }
 
-    public List<ChatMessageResponse> getUnreadMessages(Long receiverId) {
-        return messageRepository.findUnreadMessagesByReceiver(receiverId)
+    // Cursor-based history: no OFFSET scan and no COUNT query. Results are always newest first.
+    public Slice<ChatMessageResponse> getConversationHistory(Long userId1, Long userId2,
+                                                             MessageCursor before, MessageCursor after, int size) {
+        String conversationId = Message.conversationKey(userId1, userId2);
+        Pageable limit = PageRequest.of(0, size);
+
+        if (after != null) {
+            // Walk forward from the cursor, then flip so callers always see newest first
+            List<ChatMessageResponse> content = new ArrayList<>();
+            boolean hasNext;
+            if (messageArchive.covers(after.getSentAt())) {
+                content.addAll(messageArchive.findAfter(conversationId, after, size + 1));
+            }
+            if (content.size() > size) {
+                content.subList(size, content.size()).clear();
+                hasNext = true;
+            } else {
+                // Hot rows are all newer than archived ones, so the original cursor still applies
+                int remaining = size - content.size();
+                Slice<Message> newer = messageRepository.findAfter(
+                        conversationId, after.getSentAt(), after.getId(), PageRequest.of(0, Math.max(remaining, 1)));
+                if (remaining == 0) {
+                    hasNext = newer.hasContent();
+                } else {
+                    newer.forEach(message -> content.add(toResponse(message)));
+                    hasNext = newer.hasNext();
+                }
+            }
+            Collections.reverse(content);
+            return new SliceImpl<>(content, limit, hasNext);
+        }
+
+        Slice<Message> messages = before != null
+                ? messageRepository.findBefore(conversationId, before.getSentAt(), before.getId(), limit)
+                : messageRepository.findLatest(conversationId, limit);
+        Slice<ChatMessageResponse> hot = messages.map(this::toResponse);
+        if (hot.hasNext() || !messageArchive.hasArchives()) {
+            return hot;
+        }
+
+        // Hot rows ran out: continue seamlessly into detached months
+        List<ChatMessageResponse> content = new ArrayList<>(hot.getContent());
+        MessageCursor from = content.isEmpty() ? before : MessageCursor.of(content.get(content.size() - 1));
+        int remaining = size - content.size();
+        List<ChatMessageResponse> archived = messageArchive.findBefore(conversationId, from, remaining + 1);
+        content.addAll(archived.subList(0, Math.min(remaining, archived.size())));
+        return new SliceImpl<>(content, limit, archived.size() > remaining);
+    }
+
+    // Bounded: reconnecting clients get the full backlog through MessageSyncService instead
+    public List<ChatMessageResponse> getUnreadMessages(Long receiverId, int limit) {
+        return messageRepository.findUnreadMessagesByReceiver(receiverId, PageRequest.of(0, Math.min(Math.max(limit, 1), 500)))
                 .stream()
                 .map(this::toResponse)
                 .collect(Collectors.toList());
@@ -90,7 +259,7 @@ public class MessageService {
         return messageRepository.countUnreadMessagesBetweenUsers(receiverId, senderId);
     }
 
-    private ChatMessageResponse toResponse(Message message) {
+    ChatMessageResponse toResponse(Message message) {
         return ChatMessageResponse.builder()
                 .id(message.getId())
                 .senderId(message.getSenderId())
@@ -100,6 +269,7 @@ public class MessageService {
                 .sentAt(message.getSentAt())
                 .deliveredAt(message.getDeliveredAt())
                 .readAt(message.getReadAt())
+                .clientMsgId(message.getClientMsgId())
                 .build();
     }
 }
\ No newline at end of file
@@ -0,0 +1,215 @@
+package com.hemanth.chat_application.message;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+// Catch-up for reconnecting clients. The client names the last message id it has on CONNECT,
+// subscribes to /user/queue/sync and then sends /app/sync.start (a SUBSCRIBE event can fire
+// before the broker has registered the subscription, so it is not used as the trigger). The
+// missed messages are streamed to that session in bounded pages, one page in flight at a time;
+// a page that is not acked within ack-timeout-ms is sent again. Each ack marks its page
+// DELIVERED in one UPDATE and sends each sender a single range receipt.
+@Service
+public class MessageSyncService {
+    public static final String SYNC_DESTINATION = "/queue/sync";
+
+    // RETURNING gives the senders to notify without a second query
+    private static final String MARK_DELIVERED_SQL = "UPDATE messages SET status = 'DELIVERED', delivered_at = ? " +
+            "WHERE receiver_id = ? AND id > ? AND id <= ? AND status = 'SENT' AND is_deleted = false " +
+            "RETURNING sender_id, id";
+
+    private final MessageRepository messageRepository;
+    private final MessageService messageService;
+    private final MessageMetrics messageMetrics;
+    private final JdbcTemplate jdbcTemplate;
+    private final SimpMessagingTemplate messagingTemplate;
+    private final int batchSize;
+    private final long ackTimeoutMs;
+    private final int maxResends;
+
+    private final Map<String, SyncSession> sessions = new ConcurrentHashMap<>();
+
+    public MessageSyncService(MessageRepository messageRepository,
+                              MessageService messageService,
+                              MessageMetrics messageMetrics,
+                              JdbcTemplate jdbcTemplate,
+                              SimpMessagingTemplate messagingTemplate,
+                              @Value("${chat.sync.batch-size:200}") int batchSize,
+                              @Value("${chat.sync.ack-timeout-ms:10000}") long ackTimeoutMs,
+                              @Value("${chat.sync.max-resends:3}") int maxResends) {
+        this.messageRepository = messageRepository;
+        this.messageService = messageService;
+        this.messageMetrics = messageMetrics;
+        this.jdbcTemplate = jdbcTemplate;
+        this.messagingTemplate = messagingTemplate;
+        this.batchSize = batchSize;
+        this.ackTimeoutMs = ackTimeoutMs;
+        this.maxResends = maxResends;
+    }
+
+    // lastMessageId null: a fresh client, so only messages never delivered anywhere are sent
+    public void sessionConnected(Long userId, String sessionId, Long lastMessageId) {
+        sessions.put(sessionId, new SyncSession(userId, lastMessageId));
+    }
+
+    public void start(String sessionId) {
+        SyncSession session = sessions.get(sessionId);
+        if (session == null) {
+            return;
+        }
+
+        synchronized (session) {
+            if (!session.started) {
+                session.started = true;
+                sendNextBatch(sessionId, session);
+            }
+        }
+    }
+
+    @Transactional
+    public void acknowledge(String sessionId, Long upToMessageId) {
+        SyncSession session = sessions.get(sessionId);
+        if (session == null || upToMessageId == null) {
+            return;
+        }
+
+        synchronized (session) {
+            // Nothing in flight, or a late ack for a page that was resent and already acked
+            if (session.inFlightUpTo == null || upToMessageId <= session.ackedUpTo) {
+                return;
+            }
+
+            // Never mark more than was actually sent to this session
+            long ackedUpTo = Math.min(upToMessageId, session.inFlightUpTo);
+            markDelivered(session.userId, session.ackedUpTo, ackedUpTo);
+            session.ackedUpTo = ackedUpTo;
+            session.inFlightUpTo = null;
+            session.resends = 0;
+
+            if (session.hasMore) {
+                sendNextBatch(sessionId, session);
+            } else {
+                sessions.remove(sessionId);
+            }
+        }
+    }
+
+    public void sessionDisconnected(String sessionId) {
+        sessions.remove(sessionId);
+    }
+
+    // Resends pages whose ack is overdue (the page or its ack was lost); after max-resends the
+    // session is dropped and catches up again on its next connect
+    @Scheduled(fixedDelayString = "${chat.sync.ack-timeout-ms:10000}")
+    public void resendUnacked() {
+        long now = System.nanoTime();
+        sessions.forEach((sessionId, session) -> {
+            synchronized (session) {
+                if (session.inFlightUpTo == null || now - session.sentAt < TimeUnit.MILLISECONDS.toNanos(ackTimeoutMs)) {
+                    return;
+                }
+                if (session.resends >= maxResends) {
+                    sessions.remove(sessionId);
+                    return;
+                }
+                session.resends++;
+                sendNextBatch(sessionId, session);
+            }
+        });
+    }
+
+    private void sendNextBatch(String sessionId, SyncSession session) {
+        PageRequest page = PageRequest.of(0, batchSize);
+        Slice<Message> messages = session.undeliveredOnly
+                ? messageRepository.findUndeliveredForSync(session.userId, session.ackedUpTo, page)
+                : messageRepository.findForSync(session.userId, session.ackedUpTo, page);
+
+        List<ChatMessageResponse> content = messages.getContent().stream()
+                .map(messageService::toResponse)
+                .collect(Collectors.toList());
+        Long lastMessageId = content.isEmpty() ? session.ackedUpTo : content.get(content.size() - 1).getId();
+
+        session.hasMore = messages.hasNext();
+        session.inFlightUpTo = content.isEmpty() ? null : lastMessageId;
+        session.sentAt = System.nanoTime();
+        if (content.isEmpty()) {
+            sessions.remove(sessionId);
+        }
+
+        messagingTemplate.convertAndSendToUser(String.valueOf(session.userId), SYNC_DESTINATION,
+                SyncBatch.builder()
+                        .messages(content)
+                        .lastMessageId(lastMessageId)
+                        .hasMore(session.hasMore)
+                        .build(),
+                sessionHeaders(sessionId));
+    }
+
+    private void markDelivered(Long receiverId, long fromExclusive, long upToInclusive) {
+        LocalDateTime now = LocalDateTime.now();
+        // senderId -> [count, highest message id]
+        Map<Long, long[]> bySender = new LinkedHashMap<>();
+        jdbcTemplate.query(MARK_DELIVERED_SQL, rs -> {
+            long[] range = bySender.computeIfAbsent(rs.getLong("sender_id"), id -> new long[2]);
+            range[0]++;
+            range[1] = Math.max(range[1], rs.getLong("id"));
+        }, Timestamp.valueOf(now), receiverId, fromExclusive, upToInclusive);
+
+        bySender.forEach((senderId, range) -> {
+            messageMetrics.delivered((int) range[0]);
+            messagingTemplate.convertAndSendToUser(
+                    String.valueOf(senderId),
+                    "/queue/notifications",
+                    MessageNotification.builder()
+                            .upToMessageId(range[1])
+                            .senderId(senderId)
+                            .receiverId(receiverId)
+                            .count((int) range[0])
+                            .status(MessageStatus.DELIVERED)
+                            .timestamp(now)
+                            .build());
+        });
+    }
+
+    // Targets only the syncing session, not every session of the user
+    private static Map<String, Object> sessionHeaders(String sessionId) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        accessor.setSessionId(sessionId);
+        accessor.setLeaveMutable(true);
+        return accessor.getMessageHeaders();
+    }
+
+    private static class SyncSession {
+        private final Long userId;
+        private final boolean undeliveredOnly;
+        private long ackedUpTo;
+        private Long inFlightUpTo;
+        private boolean hasMore;
+        private boolean started;
+        private long sentAt;
+        private int resends;
+
+        private SyncSession(Long userId, Long lastMessageId) {
+            this.userId = userId;
+            this.undeliveredOnly = lastMessageId == null;
+            this.ackedUpTo = lastMessageId != null ? lastMessageId : 0L;
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.hemanth.chat_application.message;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// Pushed to both parties on /queue/tombstones, and the /app/chat.delete request body
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class MessageTombstone {
+    // Set when a single message was unsent
+    private Long messageId;
+    // Conversation delete: every message up to and including this id (null = all of them)
+    private Long upToMessageId;
+    private Long deletedBy;
+    private Long partnerId;
+    private Integer count;
+    private LocalDateTime deletedAt;
+}
@@ -0,0 +1,21 @@
+package com.hemanth.chat_application.message;
+
+import com.hemanth.chat_application.websocket.EncodedPayload;
+import com.hemanth.chat_application.websocket.PreEncodedMessagingTemplate;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+// Tombstones go out only after the delete commits, so clients never drop a message that is still there
+@Component
+@RequiredArgsConstructor
+public class MessageTombstoneListener {
+    private final PreEncodedMessagingTemplate messagingTemplate;
+
+    @TransactionalEventListener
+    public void onTombstone(MessageTombstone tombstone) {
+        EncodedPayload payload = messagingTemplate.encode(tombstone);
+        messagingTemplate.sendToUser(String.valueOf(tombstone.getDeletedBy()), "/queue/tombstones", payload);
+        messagingTemplate.sendToUser(String.valueOf(tombstone.getPartnerId()), "/queue/tombstones", payload);
+    }
+}
@@ -0,0 +1,20 @@
+package com.hemanth.chat_application.message;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+// One page of the catch-up stream on /user/queue/sync. The client acks lastMessageId on
+// /app/sync.ack to receive the next page; hasMore=false ends the sync.
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class SyncBatch {
+    private List<ChatMessageResponse> messages;
+    private Long lastMessageId;
+    private boolean hasMore;
+}
@@ -0,0 +1,178 @@
+package com.hemanth.chat_application.message;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Turns per-keystroke typing frames into start/stop transitions per (sender, receiver) pair.
+// Stops are debounced so a quick stop/start collapses to nothing, and pairs that go quiet
+// without an explicit stop are expired by the periodic sweep.
+@Component
+public class TypingAggregator {
+    private final SimpMessagingTemplate messagingTemplate;
+    private final long idleTimeoutMs;
+    private final long stopDebounceMs;
+    private final int maxFramesPerSecond;
+
+    private final Map<PairKey, PairState> states = new ConcurrentHashMap<>();
+    private final Map<String, SessionWindow> sessionWindows = new ConcurrentHashMap<>();
+
+    private final Counter forwardedCounter;
+    private final Counter coalescedCounter;
+    private final Counter droppedCounter;
+    private final Counter expiredCounter;
+
+    public TypingAggregator(SimpMessagingTemplate messagingTemplate,
+                            MeterRegistry meterRegistry,
+                            @Value("${chat.typing.idle-timeout-ms:5000}") long idleTimeoutMs,
+                            @Value("${chat.typing.stop-debounce-ms:500}") long stopDebounceMs,
+                            @Value("${chat.typing.max-frames-per-second:10}") int maxFramesPerSecond) {
+        this.messagingTemplate = messagingTemplate;
+        this.idleTimeoutMs = idleTimeoutMs;
+        this.stopDebounceMs = stopDebounceMs;
+        this.maxFramesPerSecond = maxFramesPerSecond;
+
+        this.forwardedCounter = meterRegistry.counter("chat.typing.frames", "outcome", "forwarded");
+        this.coalescedCounter = meterRegistry.counter("chat.typing.frames", "outcome", "coalesced");
+        this.droppedCounter = meterRegistry.counter("chat.typing.frames", "outcome", "dropped");
+        this.expiredCounter = meterRegistry.counter("chat.typing.frames", "outcome", "expired");
+    }
+
+    public void onTyping(TypingNotification notification, String sessionId) {
+        onTyping(notification, sessionId, System.currentTimeMillis());
+    }
+
+    void onTyping(TypingNotification notification, String sessionId, long now) {
+        if (sessionId != null && !allowFrame(sessionId, now)) {
+            droppedCounter.increment();
+            return;
+        }
+
+        PairKey key = new PairKey(notification.getSenderId(), notification.getReceiverId());
+        boolean typing = Boolean.TRUE.equals(notification.getIsTyping());
+
+        while (true) {
+            PairState state = states.computeIfAbsent(key, k -> new PairState());
+            boolean start;
+            synchronized (state) {
+                if (state.removed) {
+                    continue; // Swept concurrently, retry with a fresh entry
+                }
+
+                if (typing) {
+                    start = !state.typing;
+                    state.typing = true;
+                    state.lastActivity = now;
+                    state.stopDeadline = 0;
+                } else {
+                    start = false;
+                    if (state.typing && state.stopDeadline == 0) {
+                        state.stopDeadline = now + stopDebounceMs;
+                    }
+                }
+            }
+
+            if (start) {
+                forward(key, true);
+            } else {
+                coalescedCounter.increment();
+            }
+            return;
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${chat.typing.sweep-interval-ms:250}")
+    public void sweep() {
+        sweep(System.currentTimeMillis());
+    }
+
+    void sweep(long now) {
+        states.forEach((key, state) -> {
+            boolean stop = false;
+            synchronized (state) {
+                if (state.typing && state.stopDeadline == 0 && now - state.lastActivity < idleTimeoutMs) {
+                    return;
+                }
+                if (state.typing && state.stopDeadline != 0 && now < state.stopDeadline) {
+                    return;
+                }
+
+                if (state.typing) {
+                    stop = true;
+                    if (state.stopDeadline == 0) {
+                        expiredCounter.increment();
+                    }
+                }
+                state.removed = true;
+                states.remove(key, state);
+            }
+
+            if (stop) {
+                forward(key, false);
+            }
+        });
+
+        sessionWindows.entrySet().removeIf(entry -> now - entry.getValue().windowStart > 60_000);
+    }
+
+    @EventListener
+    public void handleSessionDisconnect(SessionDisconnectEvent event) {
+        sessionWindows.remove(event.getSessionId());
+    }
+
+    // Fixed one-second window per STOMP session
+    private boolean allowFrame(String sessionId, long now) {
+        SessionWindow window = sessionWindows.computeIfAbsent(sessionId, id -> new SessionWindow());
+        synchronized (window) {
+            if (now - window.windowStart >= 1000) {
+                window.windowStart = now;
+                window.count = 0;
+            }
+            return ++window.count <= maxFramesPerSecond;
+        }
+    }
+
+    private void forward(PairKey key, boolean typing) {
+        forwardedCounter.increment();
+        messagingTemplate.convertAndSendToUser(
+                String.valueOf(key.getReceiverId()),
+                "/queue/typing",
+                TypingNotification.builder()
+                        .senderId(key.getSenderId())
+                        .receiverId(key.getReceiverId())
+                        .isTyping(typing)
+                        .build()
+        );
+    }
+
+    @Getter
+    @EqualsAndHashCode
+    @AllArgsConstructor
+    private static class PairKey {
+        private final Long senderId;
+        private final Long receiverId;
+    }
+
+    private static class PairState {
+        boolean typing;
+        boolean removed;
+        long lastActivity;
+        long stopDeadline;
+    }
+
+    private static class SessionWindow {
+        long windowStart;
+        int count;
+    }
+}
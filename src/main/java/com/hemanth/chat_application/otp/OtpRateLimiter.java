@@ -0,0 +1,46 @@
+package com.hemanth.chat_application.otp;
+
+import com.hemanth.chat_application.ratelimit.RateLimit;
+import com.hemanth.chat_application.ratelimit.RateLimiter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+// Limits /api/auth/send-otp per client IP and per email before any user lookup, token insert
+// or mail is sent. The IP is checked first so one address cannot burn through many inboxes'
+// budgets; the email limit stops one inbox being flooded from many addresses.
+@Component
+public class OtpRateLimiter {
+    private final RateLimiter rateLimiter;
+    private final MeterRegistry meterRegistry;
+    private final RateLimit perIp;
+    private final RateLimit perEmail;
+
+    public OtpRateLimiter(RateLimiter rateLimiter,
+                          MeterRegistry meterRegistry,
+                          @Value("${chat.ratelimit.otp.ip.capacity:10}") int ipCapacity,
+                          @Value("${chat.ratelimit.otp.ip.refill-interval-ms:6000}") long ipRefillIntervalMs,
+                          @Value("${chat.ratelimit.otp.ip.window-limit:50}") int ipWindowLimit,
+                          @Value("${chat.ratelimit.otp.ip.window-ms:3600000}") long ipWindowMs,
+                          @Value("${chat.ratelimit.otp.email.capacity:2}") int emailCapacity,
+                          @Value("${chat.ratelimit.otp.email.refill-interval-ms:60000}") long emailRefillIntervalMs,
+                          @Value("${chat.ratelimit.otp.email.window-limit:5}") int emailWindowLimit,
+                          @Value("${chat.ratelimit.otp.email.window-ms:3600000}") long emailWindowMs) {
+        this.rateLimiter = rateLimiter;
+        this.meterRegistry = meterRegistry;
+        this.perIp = new RateLimit("otp.ip", ipCapacity, ipRefillIntervalMs, ipWindowLimit, ipWindowMs);
+        this.perEmail = new RateLimit("otp.email", emailCapacity, emailRefillIntervalMs, emailWindowLimit, emailWindowMs);
+    }
+
+    // 0 when allowed, otherwise ms until the client may ask again
+    public long tryAcquire(String email, String clientIp, Purpose purpose) {
+        long retryAfterMs = rateLimiter.tryAcquire(perIp, clientIp);
+        if (retryAfterMs == 0) {
+            retryAfterMs = rateLimiter.tryAcquire(perEmail, email);
+        }
+        if (retryAfterMs > 0) {
+            meterRegistry.counter("chat.otp.issued", "purpose", purpose.name(), "outcome", "rate_limited").increment();
+        }
+        return retryAfterMs;
+    }
+}
@@ -1,21 +1,23 @@
 package com.hemanth.chat_application.otp;
 
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
-import java.util.List;
 import java.util.Random;
 
 @Service
 @RequiredArgsConstructor
+@Timed(value = "chat.otp.service", description = "OtpService calls, tagged by method")
 public class OtpService {
     private final OtpTokenRepository otpTokenRepository;
+    private final MeterRegistry meterRegistry;
     private final Random random = new Random();
 
     private static final int OTP_LENGTH = 6;
     private static final int OTP_EXPIRY_MIN = 10;
-    private static final int MAX_OTPS_PER_HOUR = 5;
 
     public String generateOtpString() {
         int min = (int) Math.pow(10, OTP_LENGTH - 1);
@@ -24,13 +26,8 @@ public class OtpService {
         return String.valueOf(val);
     }
 
+    // Callers rate limit first (OtpRateLimiter); this only issues the token
     public OtpToken createAndSaveOtp(String email, Purpose purpose) {
-        LocalDateTime oneHourAgo = LocalDateTime.now().minusHours(1);
-        List<OtpToken> recent = otpTokenRepository.findByEmailAndCreatedAtAfter(email, oneHourAgo);
-        if(recent.size() >= MAX_OTPS_PER_HOUR) {
-            throw new IllegalStateException("Too many OTP requests. Try again later.");
-        }
-
         String otp = generateOtpString();
         OtpToken token = OtpToken.builder()
                 .email(email)
@@ -41,20 +38,27 @@ public class OtpService {
                 .used(false)
                 .build();
 
-        return otpTokenRepository.save(token);
+        OtpToken saved = otpTokenRepository.save(token);
+        meterRegistry.counter("chat.otp.issued", "purpose", purpose.name(), "outcome", "issued").increment();
+        return saved;
     }
 
     public boolean verifyOtp(String email, String otp, Purpose purpose) {
         // Fixed method call - corrected method name
         var opt = otpTokenRepository.findTopByEmailAndOtpAndPurposeOrderByCreatedAtDesc(email, otp, purpose);
-        if (opt.isEmpty()) return false;
+        if (opt.isEmpty()) return verified(purpose, "invalid");
         OtpToken token = opt.get();
 
-        if (token.isUsed()) return false;
-        if (token.getExpiresAt().isBefore(LocalDateTime.now())) return false;
+        if (token.isUsed()) return verified(purpose, "used");
+        if (token.getExpiresAt().isBefore(LocalDateTime.now())) return verified(purpose, "expired");
 
         token.setUsed(true);
         otpTokenRepository.save(token);
-        return true;
+        return verified(purpose, "success");
+    }
+
+    private boolean verified(Purpose purpose, String outcome) {
+        meterRegistry.counter("chat.otp.verified", "purpose", purpose.name(), "outcome", outcome).increment();
+        return "success".equals(outcome);
     }
 }
\ No newline at end of file
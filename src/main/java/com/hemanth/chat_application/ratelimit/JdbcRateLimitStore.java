@@ -0,0 +1,83 @@
+package com.hemanth.chat_application.ratelimit;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+// Shared state for chat.ratelimit.shared-store=jdbc, so a client spreading requests over
+// several nodes still hits one limit. Only consulted after the local store has allowed the
+// request. The row is locked for the read-modify-write; the table is UNLOGGED since losing
+// counters in a crash only resets limits. Fails open: if the database is unavailable the
+// local limit still applies.
+@Slf4j
+@Component
+@Order(1)
+@ConditionalOnProperty(name = "chat.ratelimit.shared-store", havingValue = "jdbc")
+public class JdbcRateLimitStore implements RateLimitStore {
+    private static final String INSERT_SQL = "INSERT INTO rate_limit_state " +
+            "(limit_key, tokens, refilled_at, window_start, window_count, previous_count, expires_at) " +
+            "VALUES (?, ?, ?, ?, 0, 0, to_timestamp(? / 1000.0)) ON CONFLICT (limit_key) DO NOTHING";
+    private static final String SELECT_SQL = "SELECT tokens, refilled_at, window_start, window_count, previous_count " +
+            "FROM rate_limit_state WHERE limit_key = ? FOR UPDATE";
+    private static final String UPDATE_SQL = "UPDATE rate_limit_state SET tokens = ?, refilled_at = ?, " +
+            "window_start = ?, window_count = ?, previous_count = ?, expires_at = to_timestamp(? / 1000.0) " +
+            "WHERE limit_key = ?";
+    private static final String PURGE_SQL = "DELETE FROM rate_limit_state WHERE expires_at < now()";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    public JdbcRateLimitStore(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    @Override
+    public long tryAcquire(RateLimit limit, String key, long now) {
+        String rowKey = limit.name() + ":" + key;
+        try {
+            Long retryAfterMs = transactionTemplate.execute(status -> {
+                RateLimitState fresh = RateLimitState.fresh(limit, now);
+                jdbcTemplate.update(INSERT_SQL, rowKey, fresh.tokens(), fresh.refilledAt(), fresh.windowStart(),
+                        now + limit.idleMs());
+
+                List<RateLimitState> rows = jdbcTemplate.query(SELECT_SQL, (rs, rowNum) -> new RateLimitState(
+                        rs.getDouble("tokens"), rs.getLong("refilled_at"), rs.getLong("window_start"),
+                        rs.getInt("window_count"), rs.getInt("previous_count")), rowKey);
+                RateLimitState advanced = rows.get(0).advance(limit, now);
+                if (!advanced.allows(limit, now)) {
+                    return advanced.retryAfterMs(limit, now);
+                }
+
+                RateLimitState next = advanced.consume();
+                jdbcTemplate.update(UPDATE_SQL, next.tokens(), next.refilledAt(), next.windowStart(),
+                        next.windowCount(), next.previousCount(), now + limit.idleMs(), rowKey);
+                return 0L;
+            });
+            return retryAfterMs == null ? 0 : retryAfterMs;
+        } catch (RuntimeException e) {
+            log.warn("Shared rate limit check failed for {}, allowing", limit.name(), e);
+            return 0;
+        }
+    }
+
+    @Override
+    public String name() {
+        return "jdbc";
+    }
+
+    @Scheduled(fixedDelayString = "${chat.ratelimit.jdbc.purge-interval-ms:600000}")
+    public void purgeExpired() {
+        try {
+            jdbcTemplate.update(PURGE_SQL);
+        } catch (RuntimeException e) {
+            log.error("Failed to purge expired rate limit state", e);
+        }
+    }
+}
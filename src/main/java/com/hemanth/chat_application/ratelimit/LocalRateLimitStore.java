@@ -0,0 +1,54 @@
+package com.hemanth.chat_application.ratelimit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+// In-process state, always checked first so abusive traffic is turned away without any I/O.
+// Each key's state is swapped with compareAndSet, so concurrent requests for the same key never
+// block each other; keys live in a bounded cache per limit and expire once idle long enough to
+// be indistinguishable from fresh.
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class LocalRateLimitStore implements RateLimitStore {
+    private final long maxKeys;
+    private final Map<String, Cache<String, AtomicReference<RateLimitState>>> states = new ConcurrentHashMap<>();
+
+    public LocalRateLimitStore(@Value("${chat.ratelimit.local.max-keys:100000}") long maxKeys) {
+        this.maxKeys = maxKeys;
+    }
+
+    @Override
+    public long tryAcquire(RateLimit limit, String key, long now) {
+        AtomicReference<RateLimitState> state = states
+                .computeIfAbsent(limit.name(), name -> Caffeine.newBuilder()
+                        .maximumSize(maxKeys)
+                        .expireAfterAccess(Duration.ofMillis(limit.idleMs()))
+                        .build())
+                .get(key, k -> new AtomicReference<>(RateLimitState.fresh(limit, now)));
+
+        while (true) {
+            RateLimitState current = state.get();
+            RateLimitState advanced = current.advance(limit, now);
+            if (!advanced.allows(limit, now)) {
+                return advanced.retryAfterMs(limit, now);
+            }
+            if (state.compareAndSet(current, advanced.consume())) {
+                return 0;
+            }
+        }
+    }
+
+    @Override
+    public String name() {
+        return "local";
+    }
+}
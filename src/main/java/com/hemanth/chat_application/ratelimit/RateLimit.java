@@ -0,0 +1,18 @@
+package com.hemanth.chat_application.ratelimit;
+
+// One named limit: a token bucket (burst of capacity, one token back every refillIntervalMs)
+// and a sliding-window counter (at most windowLimit requests in any windowMs). A request must
+// pass both.
+public record RateLimit(String name, int capacity, long refillIntervalMs, int windowLimit, long windowMs) {
+
+    public RateLimit {
+        if (capacity < 1 || refillIntervalMs < 1 || windowLimit < 1 || windowMs < 1) {
+            throw new IllegalArgumentException("Rate limit " + name + " needs positive capacity, refill, limit and window");
+        }
+    }
+
+    // After this long without requests a key's state is the same as a fresh one, so it can be dropped
+    public long idleMs() {
+        return Math.max(2 * windowMs, capacity * refillIntervalMs);
+    }
+}
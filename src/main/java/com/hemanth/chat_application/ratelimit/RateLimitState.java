@@ -0,0 +1,60 @@
+package com.hemanth.chat_application.ratelimit;
+
+// Immutable per-key state, so stores can swap it atomically (CAS locally, row lock when shared).
+// The window is approximated with two fixed windows: the previous one's count is weighted by
+// how much of it still overlaps the sliding window ending now.
+record RateLimitState(double tokens, long refilledAt, long windowStart, int windowCount, int previousCount) {
+
+    static RateLimitState fresh(RateLimit limit, long now) {
+        return new RateLimitState(limit.capacity(), now, windowStart(limit, now), 0, 0);
+    }
+
+    // Refills the bucket and rolls the window forward; a clock going backwards changes nothing
+    RateLimitState advance(RateLimit limit, long now) {
+        double refilled = Math.min(limit.capacity(),
+                tokens + (double) Math.max(0, now - refilledAt) / limit.refillIntervalMs());
+
+        long start = windowStart(limit, now);
+        if (start <= windowStart) {
+            return new RateLimitState(refilled, Math.max(now, refilledAt), windowStart, windowCount, previousCount);
+        }
+        int previous = start - windowStart == limit.windowMs() ? windowCount : 0;
+        return new RateLimitState(refilled, now, start, 0, previous);
+    }
+
+    boolean allows(RateLimit limit, long now) {
+        return tokens >= 1 && windowEstimate(limit, now) + 1 <= limit.windowLimit();
+    }
+
+    RateLimitState consume() {
+        return new RateLimitState(tokens - 1, refilledAt, windowStart, windowCount + 1, previousCount);
+    }
+
+    // Lower bound on the wait before allows() can be true again, at least 1ms
+    long retryAfterMs(RateLimit limit, long now) {
+        long bucketWait = tokens >= 1 ? 0 : (long) Math.ceil((1 - tokens) * limit.refillIntervalMs());
+
+        long windowWait = 0;
+        if (windowEstimate(limit, now) + 1 > limit.windowLimit()) {
+            long windowEnd = windowStart + limit.windowMs();
+            int room = limit.windowLimit() - 1 - windowCount;
+            if (room < 0 || previousCount == 0) {
+                windowWait = windowEnd - now;
+            } else {
+                // The previous window's weight has to fall to room / previousCount
+                double overlap = (double) room / previousCount;
+                windowWait = windowStart + (long) Math.ceil(limit.windowMs() * (1 - overlap)) - now;
+            }
+        }
+        return Math.max(1, Math.max(bucketWait, windowWait));
+    }
+
+    private double windowEstimate(RateLimit limit, long now) {
+        double overlap = 1.0 - (double) Math.max(0, now - windowStart) / limit.windowMs();
+        return windowCount + previousCount * Math.max(0, overlap);
+    }
+
+    private static long windowStart(RateLimit limit, long now) {
+        return now - Math.floorMod(now, limit.windowMs());
+    }
+}
@@ -0,0 +1,12 @@
+package com.hemanth.chat_application.ratelimit;
+
+// Where rate limit state lives. RateLimiter consults every store bean in @Order, stopping at
+// the first rejection: the local store first, then an optional shared one for clusters.
+public interface RateLimitStore {
+
+    // Applies one request for key; 0 when allowed, otherwise ms until it may be retried
+    long tryAcquire(RateLimit limit, String key, long now);
+
+    // Metrics tag
+    String name();
+}
@@ -0,0 +1,33 @@
+package com.hemanth.chat_application.ratelimit;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+// Runs a request through every RateLimitStore in order; rejections are counted as
+// chat.ratelimit.rejected{limit, store}
+@Component
+public class RateLimiter {
+    private final List<RateLimitStore> stores;
+    private final MeterRegistry meterRegistry;
+
+    public RateLimiter(List<RateLimitStore> stores, MeterRegistry meterRegistry) {
+        this.stores = stores;
+        this.meterRegistry = meterRegistry;
+    }
+
+    // 0 when allowed, otherwise ms until key may try again
+    public long tryAcquire(RateLimit limit, String key) {
+        long now = System.currentTimeMillis();
+        for (RateLimitStore store : stores) {
+            long retryAfterMs = store.tryAcquire(limit, key, now);
+            if (retryAfterMs > 0) {
+                meterRegistry.counter("chat.ratelimit.rejected", "limit", limit.name(), "store", store.name())
+                        .increment();
+                return retryAfterMs;
+            }
+        }
+        return 0;
+    }
+}
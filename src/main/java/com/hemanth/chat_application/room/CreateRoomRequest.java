@@ -0,0 +1,18 @@
+package com.hemanth.chat_application.room;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class CreateRoomRequest {
+    private String name;
+    private Long createdBy;
+    private List<Long> memberIds;
+}
@@ -0,0 +1,33 @@
+package com.hemanth.chat_application.room;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Entity
+@Table(name = "rooms")
+public class Room {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, length = 100)
+    private String name;
+
+    @Column(nullable = false)
+    private Long createdBy;
+
+    @CreationTimestamp
+    private LocalDateTime createdAt;
+
+    private Long lastMessageId;
+
+    private LocalDateTime lastMessageAt;
+}
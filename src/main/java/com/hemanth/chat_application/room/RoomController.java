@@ -0,0 +1,109 @@
+package com.hemanth.chat_application.room;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("/api/rooms")
+public class RoomController {
+    private final RoomService roomService;
+    private final RoomFanout roomFanout;
+
+    @PostMapping
+    public ResponseEntity<RoomResponse> createRoom(@RequestBody CreateRoomRequest request) {
+        try {
+            return ResponseEntity.ok(roomService.createRoom(request));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @GetMapping
+    public ResponseEntity<List<RoomSummary>> getRooms(@RequestParam Long userId) {
+        return ResponseEntity.ok(roomService.getRooms(userId));
+    }
+
+    @GetMapping("/{roomId}/members")
+    public ResponseEntity<List<RoomMemberResponse>> getMembers(
+            @PathVariable Long roomId,
+            @RequestParam Long userId) {
+        try {
+            return ResponseEntity.ok(roomService.getMembers(roomId, userId));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+    }
+
+    @PostMapping("/{roomId}/members")
+    public ResponseEntity<Integer> addMembers(
+            @PathVariable Long roomId,
+            @RequestParam Long userId,
+            @RequestBody List<Long> memberIds) {
+        try {
+            return ResponseEntity.ok(roomService.addMembers(roomId, userId, memberIds));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+    }
+
+    @DeleteMapping("/{roomId}/members/{memberId}")
+    public ResponseEntity<Void> removeMember(
+            @PathVariable Long roomId,
+            @PathVariable Long memberId,
+            @RequestParam Long userId) {
+        try {
+            return roomService.removeMember(roomId, userId, memberId)
+                    ? ResponseEntity.noContent().build()
+                    : ResponseEntity.notFound().build();
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+    }
+
+    // Newest first; page back with before=<id of the oldest message seen>
+    @GetMapping("/{roomId}/messages")
+    public ResponseEntity<Slice<RoomMessageResponse>> getHistory(
+            @PathVariable Long roomId,
+            @RequestParam Long userId,
+            @RequestParam(required = false) Long before,
+            @RequestParam(defaultValue = "50") int size) {
+        try {
+            return ResponseEntity.ok(roomService.getHistory(roomId, userId, before, size));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+    }
+
+    @PostMapping("/{roomId}/messages")
+    public ResponseEntity<RoomMessageResponse> sendMessage(
+            @PathVariable Long roomId,
+            @RequestParam Long userId,
+            @RequestBody RoomMessageRequest request) {
+        try {
+            RoomMessageResponse response = roomService.sendMessage(roomId, userId, request.getContent());
+            roomFanout.publish(roomId, RoomWebSocketController.ROOM_QUEUE, response);
+            return ResponseEntity.ok(response);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+    }
+
+    @PutMapping("/{roomId}/read")
+    public ResponseEntity<Void> markRead(
+            @PathVariable Long roomId,
+            @RequestParam Long userId,
+            @RequestParam Long upToMessageId) {
+        roomService.markRead(roomId, userId, upToMessageId);
+        return ResponseEntity.ok().build();
+    }
+}
@@ -0,0 +1,46 @@
+package com.hemanth.chat_application.room;
+
+import com.hemanth.chat_application.websocket.EncodedPayload;
+import com.hemanth.chat_application.websocket.PreEncodedMessagingTemplate;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.messaging.simp.user.SimpUserRegistry;
+import org.springframework.stereotype.Component;
+
+// Delivers a room event to every online member's user queue. The payload is encoded once per
+// wire format and the same bytes go into every member's frame, so a 500-member room costs one
+// Jackson pass instead of 500. Offline members are skipped; they pick the message up from
+// history and their read cursor on the next load.
+@Component
+public class RoomFanout {
+    private final PreEncodedMessagingTemplate messagingTemplate;
+    private final SimpUserRegistry userRegistry;
+    private final RoomMembershipCache membershipCache;
+    private final DistributionSummary recipients;
+
+    public RoomFanout(PreEncodedMessagingTemplate messagingTemplate,
+                      SimpUserRegistry userRegistry,
+                      RoomMembershipCache membershipCache,
+                      MeterRegistry meterRegistry) {
+        this.messagingTemplate = messagingTemplate;
+        this.userRegistry = userRegistry;
+        this.membershipCache = membershipCache;
+        this.recipients = DistributionSummary.builder("chat.rooms.fanout.recipients")
+                .description("Online members each room event was delivered to")
+                .register(meterRegistry);
+    }
+
+    public void publish(Long roomId, String destination, Object payload) {
+        EncodedPayload encoded = messagingTemplate.encode(payload);
+        int delivered = 0;
+        for (Long memberId : membershipCache.members(roomId)) {
+            String user = String.valueOf(memberId);
+            // The STOMP user registry also knows users on other nodes in relay mode
+            if (userRegistry.getUser(user) != null) {
+                messagingTemplate.sendToUser(user, destination, encoded);
+                delivered++;
+            }
+        }
+        recipients.record(delivered);
+    }
+}
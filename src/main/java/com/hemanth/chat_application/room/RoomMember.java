@@ -0,0 +1,37 @@
+package com.hemanth.chat_application.room;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Entity
+@IdClass(RoomMemberId.class)
+@Table(name = "room_members", indexes = {
+        @Index(name = "idx_room_members_user", columnList = "userId, roomId")
+})
+public class RoomMember {
+    @Id
+    private Long roomId;
+
+    @Id
+    private Long userId;
+
+    @Enumerated(EnumType.STRING)
+    @Builder.Default
+    private RoomRole role = RoomRole.MEMBER;
+
+    @CreationTimestamp
+    private LocalDateTime joinedAt;
+
+    // Read cursor: everything in the room with id <= this has been read by the member
+    @Builder.Default
+    @Column(nullable = false)
+    private Long lastReadMessageId = 0L;
+}
@@ -0,0 +1,19 @@
+package com.hemanth.chat_application.room;
+
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.io.Serializable;
+
+@Getter
+@Setter
+@EqualsAndHashCode
+@AllArgsConstructor
+@NoArgsConstructor
+public class RoomMemberId implements Serializable {
+    private Long roomId;
+    private Long userId;
+}
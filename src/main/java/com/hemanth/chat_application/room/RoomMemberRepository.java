@@ -0,0 +1,35 @@
+package com.hemanth.chat_application.room;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+
+public interface RoomMemberRepository extends JpaRepository<RoomMember, RoomMemberId> {
+
+    // Batched through NamedParameterJdbcTemplate; re-adding an existing member is a no-op
+    String INSERT_MEMBER_SQL = "INSERT INTO room_members (room_id, user_id, role) " +
+            "VALUES (:roomId, :userId, :role) ON CONFLICT (room_id, user_id) DO NOTHING";
+
+    @Query("SELECT m.userId FROM RoomMember m WHERE m.roomId = :roomId")
+    List<Long> findUserIds(@Param("roomId") Long roomId);
+
+    List<RoomMember> findByRoomIdOrderByJoinedAt(Long roomId);
+
+    long countByRoomId(Long roomId);
+
+    // Cursors only move forward, so late or duplicate read frames are harmless
+    @Modifying
+    @Query("UPDATE RoomMember m SET m.lastReadMessageId = :upToMessageId " +
+            "WHERE m.roomId = :roomId AND m.userId = :userId AND m.lastReadMessageId < :upToMessageId")
+    int advanceReadCursor(
+            @Param("roomId") Long roomId,
+            @Param("userId") Long userId,
+            @Param("upToMessageId") Long upToMessageId);
+
+    @Modifying
+    @Query("DELETE FROM RoomMember m WHERE m.roomId = :roomId AND m.userId = :userId")
+    int deleteMember(@Param("roomId") Long roomId, @Param("userId") Long userId);
+}
@@ -0,0 +1,19 @@
+package com.hemanth.chat_application.room;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class RoomMemberResponse {
+    private Long userId;
+    private RoomRole role;
+    private LocalDateTime joinedAt;
+    private Long lastReadMessageId;
+}
@@ -0,0 +1,49 @@
+package com.hemanth.chat_application.room;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.Set;
+
+// Member ids per room for send checks and fan-out, so a message to a busy room does not
+// re-read room_members. Local changes evict once they commit; the TTL bounds how long another
+// node's membership changes take to show up here.
+@Component
+public class RoomMembershipCache {
+    private final LoadingCache<Long, Set<Long>> cache;
+
+    public RoomMembershipCache(RoomMemberRepository roomMemberRepository,
+                               MeterRegistry meterRegistry,
+                               @Value("${chat.rooms.membership-cache.max-size:10000}") long maxSize,
+                               @Value("${chat.rooms.membership-cache.ttl-ms:60000}") long ttlMs) {
+        this.cache = CaffeineCacheMetrics.monitor(meterRegistry, Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofMillis(ttlMs))
+                .recordStats()
+                .build(roomId -> Set.copyOf(roomMemberRepository.findUserIds(roomId))), "room_members");
+    }
+
+    public Set<Long> members(Long roomId) {
+        return cache.get(roomId);
+    }
+
+    public boolean isMember(Long roomId, Long userId) {
+        return members(roomId).contains(userId);
+    }
+
+    public void evict(Long roomId) {
+        cache.invalidate(roomId);
+    }
+
+    // Evicting before commit would let a concurrent send reload the old member set and keep it for the TTL
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onMembershipChanged(RoomMembershipChanged event) {
+        evict(event.roomId());
+    }
+}
@@ -0,0 +1,5 @@
+package com.hemanth.chat_application.room;
+
+// Published inside the transaction that changed room_members; RoomMembershipCache evicts on commit
+public record RoomMembershipChanged(Long roomId) {
+}
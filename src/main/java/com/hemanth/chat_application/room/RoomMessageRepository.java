@@ -0,0 +1,18 @@
+package com.hemanth.chat_application.room;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+public interface RoomMessageRepository extends JpaRepository<RoomMessage, Long> {
+
+    // Keyset pages on idx_room_messages_room (room_id, id DESC)
+    @Query("SELECT m FROM RoomMessage m WHERE m.roomId = :roomId AND m.isDeleted = false ORDER BY m.id DESC")
+    Slice<RoomMessage> findLatest(@Param("roomId") Long roomId, Pageable pageable);
+
+    @Query("SELECT m FROM RoomMessage m WHERE m.roomId = :roomId AND m.id < :beforeId " +
+            "AND m.isDeleted = false ORDER BY m.id DESC")
+    Slice<RoomMessage> findBefore(@Param("roomId") Long roomId, @Param("beforeId") Long beforeId, Pageable pageable);
+}
@@ -0,0 +1,15 @@
+package com.hemanth.chat_application.room;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class RoomMessageRequest {
+    private Long roomId;
+    private String content;
+}
@@ -0,0 +1,20 @@
+package com.hemanth.chat_application.room;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class RoomMessageResponse {
+    private Long id;
+    private Long roomId;
+    private Long senderId;
+    private String content;
+    private LocalDateTime sentAt;
+}
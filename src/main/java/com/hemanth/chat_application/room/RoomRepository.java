@@ -0,0 +1,20 @@
+package com.hemanth.chat_application.room;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+
+public interface RoomRepository extends JpaRepository<Room, Long> {
+
+    // Newer messages win, so concurrent senders cannot move the room's last message backwards
+    @Modifying
+    @Query("UPDATE Room r SET r.lastMessageId = :messageId, r.lastMessageAt = :sentAt " +
+            "WHERE r.id = :roomId AND (r.lastMessageId IS NULL OR r.lastMessageId < :messageId)")
+    int recordMessage(
+            @Param("roomId") Long roomId,
+            @Param("messageId") Long messageId,
+            @Param("sentAt") LocalDateTime sentAt);
+}
@@ -0,0 +1,20 @@
+package com.hemanth.chat_application.room;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class RoomResponse {
+    private Long id;
+    private String name;
+    private Long createdBy;
+    private LocalDateTime createdAt;
+    private int memberCount;
+}
@@ -0,0 +1,5 @@
+package com.hemanth.chat_application.room;
+
+public enum RoomRole {
+    OWNER, MEMBER
+}
@@ -0,0 +1,209 @@
+package com.hemanth.chat_application.room;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+@Service
+public class RoomService {
+    public static final int UNREAD_COUNT_CAP = 100;
+    private static final int MAX_PAGE_SIZE = 100;
+
+    // Unread = messages past the member's cursor, counted through idx_room_messages_room and capped
+    private static final String ROOMS_SQL = "SELECT r.id, r.name, r.last_message_id, r.last_message_at, " +
+            "m.last_read_message_id, (SELECT COUNT(*) FROM (SELECT 1 FROM room_messages rm " +
+            "WHERE rm.room_id = r.id AND rm.id > m.last_read_message_id AND rm.is_deleted = false " +
+            "LIMIT " + UNREAD_COUNT_CAP + ") u) AS unread_count " +
+            "FROM room_members m JOIN rooms r ON r.id = m.room_id WHERE m.user_id = :userId " +
+            "ORDER BY r.last_message_at DESC NULLS LAST, r.id DESC";
+
+    private final RoomRepository roomRepository;
+    private final RoomMemberRepository roomMemberRepository;
+    private final RoomMessageRepository roomMessageRepository;
+    private final RoomMembershipCache membershipCache;
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int maxMembers;
+
+    public RoomService(RoomRepository roomRepository,
+                       RoomMemberRepository roomMemberRepository,
+                       RoomMessageRepository roomMessageRepository,
+                       RoomMembershipCache membershipCache,
+                       NamedParameterJdbcTemplate jdbcTemplate,
+                       ApplicationEventPublisher eventPublisher,
+                       @Value("${chat.rooms.max-members:1000}") int maxMembers) {
+        this.roomRepository = roomRepository;
+        this.roomMemberRepository = roomMemberRepository;
+        this.roomMessageRepository = roomMessageRepository;
+        this.membershipCache = membershipCache;
+        this.jdbcTemplate = jdbcTemplate;
+        this.eventPublisher = eventPublisher;
+        this.maxMembers = maxMembers;
+    }
+
+    @Transactional
+    public RoomResponse createRoom(CreateRoomRequest request) {
+        if (request.getName() == null || request.getName().isBlank() || request.getCreatedBy() == null) {
+            throw new IllegalArgumentException("Room name and creator are required");
+        }
+
+        Set<Long> memberIds = new LinkedHashSet<>();
+        if (request.getMemberIds() != null) {
+            memberIds.addAll(request.getMemberIds());
+        }
+        memberIds.remove(request.getCreatedBy());
+        if (memberIds.size() + 1 > maxMembers) {
+            throw new IllegalArgumentException("A room can have at most " + maxMembers + " members");
+        }
+
+        Room room = roomRepository.save(Room.builder()
+                .name(request.getName().trim())
+                .createdBy(request.getCreatedBy())
+                .build());
+        insertMembers(room.getId(), List.of(request.getCreatedBy()), RoomRole.OWNER);
+        insertMembers(room.getId(), memberIds, RoomRole.MEMBER);
+        eventPublisher.publishEvent(new RoomMembershipChanged(room.getId()));
+
+        return RoomResponse.builder()
+                .id(room.getId())
+                .name(room.getName())
+                .createdBy(room.getCreatedBy())
+                .createdAt(room.getCreatedAt())
+                .memberCount(memberIds.size() + 1)
+                .build();
+    }
+
+    @Transactional(readOnly = true)
+    public List<RoomSummary> getRooms(Long userId) {
+        return jdbcTemplate.query(ROOMS_SQL, new MapSqlParameterSource("userId", userId), (rs, rowNum) -> {
+            Timestamp lastMessageAt = rs.getTimestamp("last_message_at");
+            return RoomSummary.builder()
+                    .roomId(rs.getLong("id"))
+                    .name(rs.getString("name"))
+                    .lastMessageId((Long) rs.getObject("last_message_id"))
+                    .lastMessageAt(lastMessageAt != null ? lastMessageAt.toLocalDateTime() : null)
+                    .lastReadMessageId(rs.getLong("last_read_message_id"))
+                    .unreadCount(rs.getInt("unread_count"))
+                    .build();
+        });
+    }
+
+    @Transactional(readOnly = true)
+    public List<RoomMemberResponse> getMembers(Long roomId, Long userId) {
+        requireMember(roomId, userId);
+        return roomMemberRepository.findByRoomIdOrderByJoinedAt(roomId).stream()
+                .map(member -> RoomMemberResponse.builder()
+                        .userId(member.getUserId())
+                        .role(member.getRole())
+                        .joinedAt(member.getJoinedAt())
+                        .lastReadMessageId(member.getLastReadMessageId())
+                        .build())
+                .collect(Collectors.toList());
+    }
+
+    // Any member can invite; returns how many of the given users were not members yet
+    @Transactional
+    public int addMembers(Long roomId, Long actorId, Collection<Long> userIds) {
+        requireMember(roomId, actorId);
+        Set<Long> newIds = new LinkedHashSet<>(userIds);
+        newIds.removeAll(membershipCache.members(roomId));
+        if (roomMemberRepository.countByRoomId(roomId) + newIds.size() > maxMembers) {
+            throw new IllegalArgumentException("A room can have at most " + maxMembers + " members");
+        }
+
+        insertMembers(roomId, newIds, RoomRole.MEMBER);
+        eventPublisher.publishEvent(new RoomMembershipChanged(roomId));
+        return newIds.size();
+    }
+
+    // Members can leave; only the owner can remove someone else
+    @Transactional
+    public boolean removeMember(Long roomId, Long actorId, Long userId) {
+        if (!actorId.equals(userId)) {
+            RoomMember actor = roomMemberRepository.findById(new RoomMemberId(roomId, actorId))
+                    .orElseThrow(() -> new IllegalStateException("Not a member of room " + roomId));
+            if (actor.getRole() != RoomRole.OWNER) {
+                throw new IllegalStateException("Only the room owner can remove members");
+            }
+        }
+
+        boolean removed = roomMemberRepository.deleteMember(roomId, userId) > 0;
+        eventPublisher.publishEvent(new RoomMembershipChanged(roomId));
+        return removed;
+    }
+
+    @Transactional
+    public RoomMessageResponse sendMessage(Long roomId, Long senderId, String content) {
+        requireMember(roomId, senderId);
+        if (content == null || content.isBlank()) {
+            throw new IllegalArgumentException("Message content is required");
+        }
+
+        RoomMessage message = roomMessageRepository.save(RoomMessage.builder()
+                .roomId(roomId)
+                .senderId(senderId)
+                .content(content)
+                .build());
+        roomRepository.recordMessage(roomId, message.getId(), message.getSentAt());
+        // Your own message is read by definition
+        roomMemberRepository.advanceReadCursor(roomId, senderId, message.getId());
+        return toResponse(message);
+    }
+
+    @Transactional(readOnly = true)
+    public Slice<RoomMessageResponse> getHistory(Long roomId, Long userId, Long beforeId, int size) {
+        requireMember(roomId, userId);
+        Pageable limit = PageRequest.of(0, Math.min(Math.max(size, 1), MAX_PAGE_SIZE));
+        Slice<RoomMessage> messages = beforeId != null
+                ? roomMessageRepository.findBefore(roomId, beforeId, limit)
+                : roomMessageRepository.findLatest(roomId, limit);
+        return messages.map(this::toResponse);
+    }
+
+    // One cursor update per member, however many messages it covers
+    @Transactional
+    public boolean markRead(Long roomId, Long userId, Long upToMessageId) {
+        return roomMemberRepository.advanceReadCursor(roomId, userId, upToMessageId) > 0;
+    }
+
+    private void requireMember(Long roomId, Long userId) {
+        if (!membershipCache.isMember(roomId, userId)) {
+            throw new IllegalStateException("Not a member of room " + roomId);
+        }
+    }
+
+    private void insertMembers(Long roomId, Collection<Long> userIds, RoomRole role) {
+        SqlParameterSource[] rows = userIds.stream()
+                .map(userId -> new MapSqlParameterSource()
+                        .addValue("roomId", roomId)
+                        .addValue("userId", userId)
+                        .addValue("role", role.name()))
+                .toArray(SqlParameterSource[]::new);
+        jdbcTemplate.batchUpdate(RoomMemberRepository.INSERT_MEMBER_SQL, rows);
+    }
+
+    private RoomMessageResponse toResponse(RoomMessage message) {
+        return RoomMessageResponse.builder()
+                .id(message.getId())
+                .roomId(message.getRoomId())
+                .senderId(message.getSenderId())
+                .content(message.getContent())
+                .sentAt(message.getSentAt())
+                .build();
+    }
+}
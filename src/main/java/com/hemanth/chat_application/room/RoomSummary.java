@@ -0,0 +1,23 @@
+package com.hemanth.chat_application.room;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// One row of the user's room list
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class RoomSummary {
+    private Long roomId;
+    private String name;
+    private Long lastMessageId;
+    private LocalDateTime lastMessageAt;
+    private Long lastReadMessageId;
+    // Capped at RoomService.UNREAD_COUNT_CAP; clients show "99+" style badges past it
+    private int unreadCount;
+}
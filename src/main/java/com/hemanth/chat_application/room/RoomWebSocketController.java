@@ -0,0 +1,43 @@
+package com.hemanth.chat_application.room;
+
+import io.micrometer.core.annotation.Timed;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.messaging.handler.annotation.MessageMapping;
+import org.springframework.messaging.handler.annotation.Payload;
+import org.springframework.stereotype.Controller;
+
+import java.security.Principal;
+
+@Slf4j
+@Controller
+@RequiredArgsConstructor
+@Timed(value = "chat.stomp.handler", description = "@MessageMapping handler time, tagged by method")
+public class RoomWebSocketController {
+    // Members subscribe to /user/{id}/queue/rooms for messages from all their rooms
+    static final String ROOM_QUEUE = "/queue/rooms";
+
+    private final RoomService roomService;
+    private final RoomFanout roomFanout;
+
+    @MessageMapping("/room.send")
+    public void sendMessage(@Payload RoomMessageRequest request, Principal principal) {
+        Long senderId = Long.valueOf(principal.getName());
+        RoomMessageResponse response;
+        try {
+            response = roomService.sendMessage(request.getRoomId(), senderId, request.getContent());
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            log.debug("Rejected room message from {} to room {}: {}", senderId, request.getRoomId(), e.getMessage());
+            return;
+        }
+
+        // Stored once, serialized once, delivered to every online member (the sender included)
+        roomFanout.publish(request.getRoomId(), ROOM_QUEUE, response);
+    }
+
+    // Moves the member's read cursor; no per-message status rows are touched
+    @MessageMapping("/room.read")
+    public void markRead(@Payload RoomReadRequest request, Principal principal) {
+        roomService.markRead(request.getRoomId(), Long.valueOf(principal.getName()), request.getUpToMessageId());
+    }
+}
@@ -0,0 +1,71 @@
+package com.hemanth.chat_application.user;
+
+import com.github.benmanes.caffeine.cache.CacheLoader;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.hemanth.chat_application.websocket.UserStatusNotification;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Read-through cache of user profiles for inbox rendering and fan-out. Bounded by size
+// (W-TinyLFU eviction) and TTL; misses are loaded in bulk with one IN query.
+// Hit/miss/eviction counts are published as cache.*{cache=users}.
+@Component
+public class UserCache {
+    private final UserRepository userRepository;
+    private final LoadingCache<Long, UserResponse> cache;
+
+    public UserCache(UserRepository userRepository,
+                     MeterRegistry meterRegistry,
+                     @Value("${chat.users.cache.max-size:100000}") long maxSize,
+                     @Value("${chat.users.cache.ttl-ms:600000}") long ttlMs) {
+        this.userRepository = userRepository;
+        this.cache = CaffeineCacheMetrics.monitor(meterRegistry, Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofMillis(ttlMs))
+                .recordStats()
+                .build(new CacheLoader<Long, UserResponse>() {
+                    @Override
+                    public UserResponse load(Long id) {
+                        return userRepository.findById(id).map(UserResponse::from).orElse(null);
+                    }
+
+                    @Override
+                    public Map<Long, UserResponse> loadAll(Set<? extends Long> ids) {
+                        Map<Long, UserResponse> loaded = new HashMap<>();
+                        userRepository.findAllById(List.copyOf(ids)).forEach(user -> loaded.put(user.getId(), UserResponse.from(user)));
+                        return loaded;
+                    }
+                }), "users");
+    }
+
+    // Null when the user does not exist; misses are not cached
+    public UserResponse get(Long id) {
+        return cache.get(id);
+    }
+
+    // Ids with no user row are absent from the result
+    public Map<Long, UserResponse> getAll(Collection<Long> ids) {
+        return cache.getAll(ids);
+    }
+
+    // The users.status column is written back lazily by PresenceRegistry, so reloading here
+    // would read a stale value: patch the cached copy from the event instead
+    @EventListener
+    public void onStatusChange(UserStatusNotification notification) {
+        cache.asMap().computeIfPresent(notification.getUserId(), (id, user) -> user.toBuilder()
+                .status(notification.getStatus().name())
+                .lastSeen(notification.getTimestamp())
+                .build());
+    }
+}
@@ -1,8 +1,11 @@
 package com.hemanth.chat_application.user;
 
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
-import java.util.List;
 import java.util.Optional;
 
 public interface UserRepository extends JpaRepository<User, Long> {
@@ -10,5 +13,22 @@ public interface UserRepository extends JpaRepository<User, Long> {
 
     boolean existsByEmail(String email);
 
-    List<User> findByUsernameContainingIgnoreCase(String username);
+    // Substring match via idx_users_username_trgm, ranked exact > prefix > trigram similarity.
+    // :pattern is the lower-cased query with LIKE wildcards escaped.
+    @Query(value = "SELECT * FROM users WHERE LOWER(username) LIKE '%' || :pattern || '%' " +
+            "ORDER BY (LOWER(username) = :query) DESC, (LOWER(username) LIKE :pattern || '%') DESC, " +
+            "similarity(LOWER(username), :query) DESC, id", nativeQuery = true)
+    Slice<User> searchByUsername(@Param("query") String query, @Param("pattern") String pattern, Pageable pageable);
+
+    // Prefix range scans via idx_users_username_prefix / idx_users_email_prefix:
+    // :from <= value < :to where :to is :from with its last character incremented
+    @Query(value = "SELECT * FROM users WHERE LOWER(username) COLLATE \"C\" >= :from " +
+            "AND LOWER(username) COLLATE \"C\" < :to " +
+            "ORDER BY LOWER(username) COLLATE \"C\", id", nativeQuery = true)
+    Slice<User> searchByUsernamePrefix(@Param("from") String from, @Param("to") String to, Pageable pageable);
+
+    @Query(value = "SELECT * FROM users WHERE LOWER(email) COLLATE \"C\" >= :from " +
+            "AND LOWER(email) COLLATE \"C\" < :to " +
+            "ORDER BY LOWER(email) COLLATE \"C\", id", nativeQuery = true)
+    Slice<User> searchByEmailPrefix(@Param("from") String from, @Param("to") String to, Pageable pageable);
 }
@@ -8,7 +8,7 @@ import java.time.LocalDateTime;
 
 @Getter
 @Setter
-@Builder
+@Builder(toBuilder = true)
 public class UserResponse {
     private Long id;
     private String email;
@@ -19,4 +19,18 @@ public class UserResponse {
     private Boolean isActive;
     private LocalDateTime createdAt;
     private LocalDateTime lastSeen;
+
+    public static UserResponse from(User user) {
+        return UserResponse.builder()
+                .id(user.getId())
+                .email(user.getEmail())
+                .username(user.getUsername())
+                .profilePicture(user.getProfilePicture())
+                .bio(user.getBio())
+                .status(user.getStatus() != null ? user.getStatus().toString() : null)
+                .isActive(user.getIsActive())
+                .createdAt(user.getCreatedAt())
+                .lastSeen(user.getLastSeen())
+                .build();
+    }
 }
@@ -1,19 +1,39 @@
 package com.hemanth.chat_application.user;
 
 import com.hemanth.chat_application.otp.OtpService;
-import lombok.AllArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.stereotype.Service;
 
 import java.util.Optional;
 
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
 import java.util.stream.Collectors;
 
 @Service
-@AllArgsConstructor
 public class UserService {
+    private static final int MIN_TRIGRAM_QUERY_LENGTH = 3;
+
     private final UserRepository userRepository;
     private final OtpService otpService;
+    private final UserCache userCache;
+    private final int maxSearchPageSize;
+
+    public UserService(UserRepository userRepository,
+                       OtpService otpService,
+                       UserCache userCache,
+                       @Value("${chat.users.search.max-page-size:50}") int maxSearchPageSize) {
+        this.userRepository = userRepository;
+        this.otpService = otpService;
+        this.userCache = userCache;
+        this.maxSearchPageSize = maxSearchPageSize;
+    }
 
     public boolean emailExists(String email) {
         return userRepository.existsByEmail(email);
@@ -37,24 +57,46 @@ public class UserService {
         return userRepository.findByEmail(email);
     }
 
-    public List<UserResponse> searchUsers(String query) {
-        return userRepository.findByUsernameContainingIgnoreCase(query)
-                .stream()
-                .map(this::mapToUserResponse)
-                .collect(Collectors.toList());
+    // Queries containing '@' are email prefixes; shorter than 3 characters is too short
+    // for trigrams, so those are username prefixes; anything else is a ranked substring search
+    public Slice<UserResponse> searchUsers(String query, int page, int size) {
+        String q = query == null ? "" : query.trim().toLowerCase(Locale.ROOT);
+        Pageable pageable = PageRequest.of(page, Math.min(Math.max(size, 1), maxSearchPageSize));
+        if (q.isEmpty()) {
+            return new SliceImpl<>(List.of(), pageable, false);
+        }
+
+        Slice<User> users;
+        if (q.contains("@")) {
+            users = userRepository.searchByEmailPrefix(q, prefixUpperBound(q), pageable);
+        } else if (q.length() < MIN_TRIGRAM_QUERY_LENGTH) {
+            users = userRepository.searchByUsernamePrefix(q, prefixUpperBound(q), pageable);
+        } else {
+            users = userRepository.searchByUsername(q, escapeLike(q), pageable);
+        }
+        return users.map(UserResponse::from);
     }
 
-    private UserResponse mapToUserResponse(User user) {
-        return UserResponse.builder()
-                .id(user.getId())
-                .email(user.getEmail())
-                .username(user.getUsername())
-                .profilePicture(user.getProfilePicture())
-                .bio(user.getBio())
-                .status(user.getStatus() != null ? user.getStatus().toString() : null)
-                .isActive(user.getIsActive())
-                .createdAt(user.getCreatedAt())
-                .lastSeen(user.getLastSeen())
-                .build();
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
+    // Smallest string greater than every string starting with prefix (code point order)
+    private static String prefixUpperBound(String prefix) {
+        int last = prefix.codePointBefore(prefix.length());
+        return prefix.substring(0, prefix.length() - Character.charCount(last))
+                + new String(Character.toChars(last + 1));
+    }
+
+    public Optional<UserResponse> getUser(Long id) {
+        return Optional.ofNullable(userCache.get(id));
+    }
+
+    public List<UserResponse> getUsers(List<Long> ids) {
+        Map<Long, UserResponse> users = userCache.getAll(ids);
+        return ids.stream()
+                .map(users::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
     }
 }
@@ -0,0 +1,88 @@
+package com.hemanth.chat_application.websocket;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.websocket.Endpoint;
+import jakarta.websocket.Extension;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.lang.Nullable;
+import org.springframework.web.socket.WebSocketExtension;
+import org.springframework.web.socket.server.HandshakeFailureException;
+import org.springframework.web.socket.server.standard.ServerEndpointRegistration;
+import org.springframework.web.socket.server.standard.StandardWebSocketUpgradeStrategy;
+import org.springframework.web.socket.server.support.DefaultHandshakeHandler;
+
+import java.util.List;
+import java.util.Map;
+
+// Tomcat accepts permessage-deflate whenever the client offers it (browsers always do).
+// When compression is switched off the offer is dropped here and the upgrade negotiates no
+// extensions at all, so frames go uncompressed.
+public class CompressionHandshakeHandler extends DefaultHandshakeHandler {
+    private static final String PERMESSAGE_DEFLATE = "permessage-deflate";
+
+    private final boolean compressionEnabled;
+
+    public CompressionHandshakeHandler(boolean compressionEnabled) {
+        super(new ExtensionControlUpgradeStrategy(compressionEnabled));
+        this.compressionEnabled = compressionEnabled;
+    }
+
+    @Override
+    protected List<WebSocketExtension> filterRequestedExtensions(ServerHttpRequest request,
+                                                                 List<WebSocketExtension> requestedExtensions,
+                                                                 List<WebSocketExtension> supportedExtensions) {
+        List<WebSocketExtension> accepted = super.filterRequestedExtensions(
+                request, requestedExtensions, supportedExtensions);
+        if (compressionEnabled) {
+            return accepted;
+        }
+        return accepted.stream()
+                .filter(extension -> !PERMESSAGE_DEFLATE.equalsIgnoreCase(extension.getName()))
+                .toList();
+    }
+
+    // Filtering the offer alone is not enough: Tomcat's UpgradeUtil treats an empty selected list
+    // as "negotiate from the installed extensions" and turns deflate back on. With compression off
+    // the endpoint's configurator negotiates nothing, whatever the container has installed.
+    private static class ExtensionControlUpgradeStrategy extends StandardWebSocketUpgradeStrategy {
+        private final boolean compressionEnabled;
+
+        ExtensionControlUpgradeStrategy(boolean compressionEnabled) {
+            this.compressionEnabled = compressionEnabled;
+        }
+
+        @Override
+        protected void upgradeInternal(ServerHttpRequest request, ServerHttpResponse response,
+                                       @Nullable String selectedProtocol, List<Extension> selectedExtensions,
+                                       Endpoint endpoint) throws HandshakeFailureException {
+            if (compressionEnabled) {
+                super.upgradeInternal(request, response, selectedProtocol, selectedExtensions, endpoint);
+                return;
+            }
+
+            HttpServletRequest servletRequest = getHttpServletRequest(request);
+            HttpServletResponse servletResponse = getHttpServletResponse(response);
+            ServerEndpointRegistration endpointConfig =
+                    new ServerEndpointRegistration(servletRequest.getRequestURI(), endpoint) {
+                        @Override
+                        public List<Extension> getNegotiatedExtensions(List<Extension> installed,
+                                                                       List<Extension> requested) {
+                            return List.of();
+                        }
+                    };
+            if (selectedProtocol != null) {
+                endpointConfig.setSubprotocols(List.of(selectedProtocol));
+            }
+
+            try {
+                getContainer(servletRequest).upgradeHttpToWebSocket(
+                        servletRequest, servletResponse, endpointConfig, Map.of());
+            } catch (Exception e) {
+                throw new HandshakeFailureException(
+                        "Servlet request failed to upgrade to WebSocket: " + servletRequest.getRequestURL(), e);
+            }
+        }
+    }
+}
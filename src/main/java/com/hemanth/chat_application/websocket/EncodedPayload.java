@@ -0,0 +1,32 @@
+package com.hemanth.chat_application.websocket;
+
+import org.springframework.messaging.Message;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+// A payload plus its encoded bodies, filled in lazily by PreEncodedMessagingTemplate: each
+// format is encoded at most once however many destinations the payload goes to.
+// Meant for one fan-out on one thread, not for sharing across threads.
+public class EncodedPayload {
+    private final Object payload;
+    private final Map<PayloadFormat, byte[]> bodies = new EnumMap<>(PayloadFormat.class);
+    // User-level frames carry no per-recipient headers, so the whole Message is reusable
+    private final Map<PayloadFormat, Message<byte[]>> frames = new EnumMap<>(PayloadFormat.class);
+
+    EncodedPayload(Object payload) {
+        this.payload = payload;
+    }
+
+    public Object getPayload() {
+        return payload;
+    }
+
+    Map<PayloadFormat, byte[]> bodies() {
+        return bodies;
+    }
+
+    Map<PayloadFormat, Message<byte[]>> frames() {
+        return frames;
+    }
+}
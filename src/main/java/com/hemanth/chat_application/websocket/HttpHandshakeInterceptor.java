@@ -10,6 +10,16 @@ import java.util.Map;
 
 @Slf4j
 public class HttpHandshakeInterceptor implements HandshakeInterceptor {
+    private static final LogSampler SAMPLER = new LogSampler(log, 100);
+
+    // Session attribute: true for /ws (SockJS), whose transports can only carry text frames
+    public static final String SOCKJS_ATTRIBUTE = "sockJs";
+
+    private final boolean sockJs;
+
+    public HttpHandshakeInterceptor(boolean sockJs) {
+        this.sockJs = sockJs;
+    }
 
     @Override
     public boolean beforeHandshake(
@@ -24,7 +34,10 @@ public class HttpHandshakeInterceptor implements HandshakeInterceptor {
             String userId = extractUserId(query);
             if (userId != null && !userId.isEmpty()) {
                 attributes.put("userId", userId);
-                log.info("WebSocket handshake: userId={}", userId);
+                attributes.put(SOCKJS_ATTRIBUTE, sockJs);
+                if (SAMPLER.sample()) {
+                    log.debug("WebSocket handshake: userId={}", userId);
+                }
                 return true;
             }
         }
@@ -0,0 +1,22 @@
+package com.hemanth.chat_application.websocket;
+
+import org.slf4j.Logger;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+// Connect/handshake logging runs once per session, which at load is thousands of lines a
+// second. Only every Nth event is logged, and only at debug; the metrics carry the totals.
+final class LogSampler {
+    private final Logger logger;
+    private final long rate;
+    private final AtomicLong events = new AtomicLong();
+
+    LogSampler(Logger logger, long rate) {
+        this.logger = logger;
+        this.rate = Math.max(1, rate);
+    }
+
+    boolean sample() {
+        return logger.isDebugEnabled() && events.getAndIncrement() % rate == 0;
+    }
+}
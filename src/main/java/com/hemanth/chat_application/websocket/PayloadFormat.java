@@ -0,0 +1,48 @@
+package com.hemanth.chat_application.websocket;
+
+import org.springframework.util.MimeType;
+import org.springframework.util.MimeTypeUtils;
+
+import java.util.Locale;
+
+// Wire encoding of outbound frame bodies, chosen per session with the payload-format CONNECT header.
+// Spring only writes a binary WebSocket frame for an application/octet-stream body (and never over
+// SockJS), so CBOR goes out as octet-stream and the payload-format frame header names the encoding.
+public enum PayloadFormat {
+    JSON(MimeTypeUtils.APPLICATION_JSON),
+    CBOR(MimeTypeUtils.APPLICATION_OCTET_STREAM);
+
+    public static final String HEADER = "payload-format";
+
+    private final MimeType contentType;
+
+    PayloadFormat(MimeType contentType) {
+        this.contentType = contentType;
+    }
+
+    public MimeType getContentType() {
+        return contentType;
+    }
+
+    // True when frames need a binary transport, i.e. a raw WebSocket session
+    public boolean isBinary() {
+        return this != JSON;
+    }
+
+    public String headerValue() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+
+    // Unknown or missing values fall back to JSON so old clients keep working
+    public static PayloadFormat parse(String value) {
+        if (value == null) {
+            return JSON;
+        }
+        for (PayloadFormat format : values()) {
+            if (format.name().equalsIgnoreCase(value.trim())) {
+                return format;
+            }
+        }
+        return JSON;
+    }
+}
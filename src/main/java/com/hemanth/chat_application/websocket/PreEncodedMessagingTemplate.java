@@ -0,0 +1,134 @@
+package com.hemanth.chat_application.websocket;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.user.SimpSession;
+import org.springframework.messaging.simp.user.SimpUser;
+import org.springframework.messaging.simp.user.SimpUserRegistry;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Sends one payload to several user destinations while running the encoder once per wire
+// format instead of once per recipient: SimpMessagingTemplate.convertAndSendToUser would run
+// Jackson for every call. The byte[] body is shared by all frames; only headers are per send.
+//
+// Raw WebSocket sessions may negotiate CBOR at CONNECT (payload-format: cbor). Users whose sessions
+// are all JSON get one user-level send; a user with a CBOR session gets session-targeted sends so
+// each session receives its own format. CBOR frames carry payload-format: cbor, so clients decode
+// by header.
+@Component
+public class PreEncodedMessagingTemplate {
+    private final SimpMessagingTemplate messagingTemplate;
+    private final SimpUserRegistry userRegistry;
+    private final Map<PayloadFormat, ObjectMapper> mappers;
+    private final Map<PayloadFormat, Counter> encodeCounters;
+
+    // Only sessions that asked for something other than JSON are tracked
+    private final Map<String, PayloadFormat> sessionFormats = new ConcurrentHashMap<>();
+    private final Map<String, Set<String>> binarySessionsByUser = new ConcurrentHashMap<>();
+
+    public PreEncodedMessagingTemplate(SimpMessagingTemplate messagingTemplate,
+                                       SimpUserRegistry userRegistry,
+                                       ObjectMapper objectMapper,
+                                       MeterRegistry meterRegistry) {
+        this.messagingTemplate = messagingTemplate;
+        this.userRegistry = userRegistry;
+        // Same modules and settings as the JSON mapper (java.time, ISO dates), CBOR output
+        this.mappers = Map.of(
+                PayloadFormat.JSON, objectMapper,
+                PayloadFormat.CBOR, objectMapper.copyWith(new CBORFactory()));
+        this.encodeCounters = Map.of(
+                PayloadFormat.JSON, meterRegistry.counter("chat.websocket.payload.encodes", "format", "json"),
+                PayloadFormat.CBOR, meterRegistry.counter("chat.websocket.payload.encodes", "format", "cbor"));
+    }
+
+    public EncodedPayload encode(Object payload) {
+        return new EncodedPayload(payload);
+    }
+
+    public void convertAndSendToUser(String user, String destination, Object payload) {
+        sendToUser(user, destination, encode(payload));
+    }
+
+    public void sendToUser(String user, String destination, EncodedPayload payload) {
+        String userDestination = "/user/" + user + destination;
+        Set<String> binarySessions = binarySessionsByUser.get(user);
+        SimpUser simpUser = binarySessions != null ? userRegistry.getUser(user) : null;
+        if (simpUser == null) {
+            messagingTemplate.send(userDestination, frame(payload, PayloadFormat.JSON));
+            return;
+        }
+
+        for (SimpSession session : simpUser.getSessions()) {
+            PayloadFormat format = sessionFormats.getOrDefault(session.getId(), PayloadFormat.JSON);
+            messagingTemplate.send(userDestination,
+                    MessageBuilder.createMessage(body(payload, format), sessionHeaders(session.getId(), format)));
+        }
+    }
+
+    public void sessionConnected(String user, String sessionId, PayloadFormat format) {
+        if (format == PayloadFormat.JSON) {
+            return;
+        }
+        sessionFormats.put(sessionId, format);
+        binarySessionsByUser.computeIfAbsent(user, u -> ConcurrentHashMap.newKeySet()).add(sessionId);
+    }
+
+    public void sessionDisconnected(String user, String sessionId) {
+        if (sessionFormats.remove(sessionId) == null) {
+            return;
+        }
+        binarySessionsByUser.computeIfPresent(user, (u, sessions) -> {
+            sessions.remove(sessionId);
+            return sessions.isEmpty() ? null : sessions;
+        });
+    }
+
+    private Message<byte[]> frame(EncodedPayload payload, PayloadFormat format) {
+        return payload.frames().computeIfAbsent(format, f -> {
+            SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+            describe(accessor, f);
+            // getMessageHeaders() freezes the accessor, so every send copies the headers
+            // and sets its own destination instead of mutating this shared frame
+            return MessageBuilder.createMessage(body(payload, f), accessor.getMessageHeaders());
+        });
+    }
+
+    private byte[] body(EncodedPayload payload, PayloadFormat format) {
+        return payload.bodies().computeIfAbsent(format, f -> {
+            try {
+                encodeCounters.get(f).increment();
+                return mappers.get(f).writeValueAsBytes(payload.getPayload());
+            } catch (JsonProcessingException e) {
+                throw new IllegalStateException("Failed to encode " + payload.getPayload().getClass().getSimpleName(), e);
+            }
+        });
+    }
+
+    private static MessageHeaders sessionHeaders(String sessionId, PayloadFormat format) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        accessor.setSessionId(sessionId);
+        describe(accessor, format);
+        accessor.setLeaveMutable(true);
+        return accessor.getMessageHeaders();
+    }
+
+    private static void describe(SimpMessageHeaderAccessor accessor, PayloadFormat format) {
+        accessor.setContentType(format.getContentType());
+        if (format.isBinary()) {
+            accessor.setNativeHeader(PayloadFormat.HEADER, format.headerValue());
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.hemanth.chat_application.websocket;
+
+import io.micrometer.core.annotation.Timed;
+import lombok.RequiredArgsConstructor;
+import org.springframework.messaging.handler.annotation.MessageMapping;
+import org.springframework.messaging.handler.annotation.Payload;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Controller;
+
+import java.security.Principal;
+import java.util.List;
+import java.util.Objects;
+
+@Controller
+@RequiredArgsConstructor
+@Timed(value = "chat.stomp.handler", description = "@MessageMapping handler time, tagged by method")
+public class PresenceController {
+    private final PresenceFanout presenceFanout;
+    private final SimpMessagingTemplate messagingTemplate;
+
+    @MessageMapping("/presence.watch")
+    public void watch(@Payload PresenceSubscription subscription, Principal principal) {
+        Long watcherId = Long.valueOf(principal.getName());
+        PresenceUpdate snapshot = presenceFanout.watch(watcherId, userIds(subscription));
+
+        // Send current status of the watched users right away
+        messagingTemplate.convertAndSendToUser(principal.getName(), "/queue/presence", snapshot);
+    }
+
+    @MessageMapping("/presence.unwatch")
+    public void unwatch(@Payload PresenceSubscription subscription, Principal principal) {
+        presenceFanout.unwatch(Long.valueOf(principal.getName()), userIds(subscription));
+    }
+
+    // A frame without userIds (or with null entries) is treated as an empty list
+    private static List<Long> userIds(PresenceSubscription subscription) {
+        if (subscription == null || subscription.getUserIds() == null) {
+            return List.of();
+        }
+        return subscription.getUserIds().stream()
+                .filter(Objects::nonNull)
+                .toList();
+    }
+}
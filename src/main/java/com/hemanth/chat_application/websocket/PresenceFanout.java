@@ -0,0 +1,194 @@
+package com.hemanth.chat_application.websocket;
+
+import com.hemanth.chat_application.message.ConversationRepository;
+import com.hemanth.chat_application.user.Status;
+import lombok.AllArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.user.SimpUserRegistry;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+// Delivers presence changes only to the users who care about them: conversation partners
+// (from the conversations projection, cached per user) plus anyone who explicitly watches
+// the user. Changes are collected and sent as one PresenceUpdate per recipient per tick.
+@Component
+public class PresenceFanout {
+    private final SimpMessagingTemplate messagingTemplate;
+    private final PresenceRegistry presenceRegistry;
+    private final SimpUserRegistry userRegistry;
+    private final ConversationRepository conversationRepository;
+    private final long audienceTtlMs;
+    private final int maxWatchedPerUser;
+
+    private final Queue<UserStatusNotification> changes = new ConcurrentLinkedQueue<>();
+    private final Map<Long, Set<Long>> watchers = new ConcurrentHashMap<>();  // watched -> watchers
+    private final Map<Long, Set<Long>> watching = new ConcurrentHashMap<>();  // watcher -> watched
+    private final Map<Long, CachedAudience> partnerCache;
+
+    public PresenceFanout(SimpMessagingTemplate messagingTemplate,
+                          PresenceRegistry presenceRegistry,
+                          SimpUserRegistry userRegistry,
+                          ConversationRepository conversationRepository,
+                          @Value("${chat.presence.audience-cache-size:10000}") int audienceCacheSize,
+                          @Value("${chat.presence.audience-ttl-ms:60000}") long audienceTtlMs,
+                          @Value("${chat.presence.max-watched-per-user:500}") int maxWatchedPerUser) {
+        this.messagingTemplate = messagingTemplate;
+        this.presenceRegistry = presenceRegistry;
+        this.userRegistry = userRegistry;
+        this.conversationRepository = conversationRepository;
+        this.audienceTtlMs = audienceTtlMs;
+        this.maxWatchedPerUser = maxWatchedPerUser;
+
+        // Access-ordered LRU
+        this.partnerCache = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, CachedAudience> eldest) {
+                return size() > audienceCacheSize;
+            }
+        });
+    }
+
+    @EventListener
+    public void onStatusChange(UserStatusNotification notification) {
+        changes.add(notification);
+    }
+
+    // Keeps cached partner sets current when two users talk for the first time
+    public void addContact(Long userId1, Long userId2) {
+        CachedAudience audience1 = partnerCache.get(userId1);
+        if (audience1 != null) {
+            audience1.partners.add(userId2);
+        }
+        CachedAudience audience2 = partnerCache.get(userId2);
+        if (audience2 != null) {
+            audience2.partners.add(userId1);
+        }
+    }
+
+    // Returns the current status of every newly watched user so the client starts from a snapshot
+    public PresenceUpdate watch(Long watcherId, Collection<Long> userIds) {
+        Set<Long> watched = watching.computeIfAbsent(watcherId, id -> ConcurrentHashMap.newKeySet());
+        List<UserStatusNotification> snapshot = new ArrayList<>();
+        LocalDateTime now = LocalDateTime.now();
+
+        for (Long userId : userIds) {
+            if (watched.size() >= maxWatchedPerUser) {
+                break;
+            }
+            if (watched.add(userId)) {
+                watchers.computeIfAbsent(userId, id -> ConcurrentHashMap.newKeySet()).add(watcherId);
+            }
+            snapshot.add(UserStatusNotification.builder()
+                    .userId(userId)
+                    .status(presenceRegistry.statusOf(userId))
+                    .timestamp(now)
+                    .build());
+        }
+
+        return new PresenceUpdate(snapshot);
+    }
+
+    public void unwatch(Long watcherId, Collection<Long> userIds) {
+        Set<Long> watched = watching.get(watcherId);
+        if (watched == null) {
+            return;
+        }
+
+        for (Long userId : userIds) {
+            watched.remove(userId);
+            removeWatcher(userId, watcherId);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${chat.presence.fanout-interval-ms:500}")
+    public void flush() {
+        if (changes.isEmpty()) {
+            return;
+        }
+
+        // Latest change per (recipient, user) wins
+        Map<Long, Map<Long, UserStatusNotification>> byRecipient = new HashMap<>();
+        UserStatusNotification change;
+        while ((change = changes.poll()) != null) {
+            Long userId = change.getUserId();
+            for (Long recipient : audienceOf(userId)) {
+                byRecipient.computeIfAbsent(recipient, r -> new LinkedHashMap<>()).put(userId, change);
+            }
+
+            if (change.getStatus() == Status.OFFLINE) {
+                dropWatches(userId);
+            }
+        }
+
+        byRecipient.forEach((recipient, diff) -> {
+            // The STOMP user registry also knows users on other nodes in relay mode
+            if (userRegistry.getUser(String.valueOf(recipient)) != null) {
+                messagingTemplate.convertAndSendToUser(
+                        String.valueOf(recipient),
+                        "/queue/presence",
+                        new PresenceUpdate(new ArrayList<>(diff.values()))
+                );
+            }
+        });
+    }
+
+    private Set<Long> audienceOf(Long userId) {
+        Set<Long> audience = new HashSet<>(partnersOf(userId));
+        Set<Long> userWatchers = watchers.get(userId);
+        if (userWatchers != null) {
+            audience.addAll(userWatchers);
+        }
+        audience.remove(userId);
+        return audience;
+    }
+
+    private Set<Long> partnersOf(Long userId) {
+        long now = System.currentTimeMillis();
+        CachedAudience cached = partnerCache.get(userId);
+        if (cached != null && now - cached.loadedAt < audienceTtlMs) {
+            return cached.partners;
+        }
+
+        Set<Long> partners = ConcurrentHashMap.newKeySet();
+        partners.addAll(conversationRepository.findPartnerIds(userId));
+        partnerCache.put(userId, new CachedAudience(partners, now));
+        return partners;
+    }
+
+    // A watcher that went offline has no one to deliver to
+    private void dropWatches(Long watcherId) {
+        Set<Long> watched = watching.remove(watcherId);
+        if (watched != null) {
+            watched.forEach(userId -> removeWatcher(userId, watcherId));
+        }
+    }
+
+    private void removeWatcher(Long userId, Long watcherId) {
+        watchers.computeIfPresent(userId, (id, set) -> {
+            set.remove(watcherId);
+            return set.isEmpty() ? null : set;
+        });
+    }
+
+    @AllArgsConstructor
+    private static class CachedAudience {
+        private final Set<Long> partners;
+        private final long loadedAt;
+    }
+}
@@ -0,0 +1,204 @@
+package com.hemanth.chat_application.websocket;
+
+import com.hemanth.chat_application.user.Status;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.messaging.simp.user.SimpUserRegistry;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// In-memory source of truth for who is online. A user is online while at least one STOMP
+// session is open; the last session closing starts a grace period so a quick reconnect
+// (page reload, flaky mobile network) never shows up as offline. Status and lastSeen are
+// written back to the users table lazily in batches.
+@Slf4j
+@Component
+public class PresenceRegistry {
+    private static final int STRIPES = 64;
+
+    private final ApplicationEventPublisher eventPublisher;
+    private final JdbcTemplate jdbcTemplate;
+    private final SimpUserRegistry userRegistry;
+    private final long gracePeriodMs;
+
+    private final Map<Long, UserPresence> presence = new ConcurrentHashMap<>();
+    private final Map<Long, PendingWrite> pendingWrites = new ConcurrentHashMap<>();
+    private final Object[] locks = new Object[STRIPES];
+
+    private final AtomicInteger activeSessions = new AtomicInteger();
+    private final AtomicInteger onlineUsers = new AtomicInteger();
+    private final DistributionSummary sessionsPerUser;
+
+    public PresenceRegistry(ApplicationEventPublisher eventPublisher,
+                            JdbcTemplate jdbcTemplate,
+                            SimpUserRegistry userRegistry,
+                            MeterRegistry meterRegistry,
+                            @Value("${chat.presence.grace-period-ms:5000}") long gracePeriodMs) {
+        this.eventPublisher = eventPublisher;
+        this.jdbcTemplate = jdbcTemplate;
+        this.userRegistry = userRegistry;
+        this.gracePeriodMs = gracePeriodMs;
+        for (int i = 0; i < STRIPES; i++) {
+            locks[i] = new Object();
+        }
+
+        Gauge.builder("chat.presence.sessions", activeSessions, AtomicInteger::get)
+                .description("Open STOMP sessions on this node")
+                .register(meterRegistry);
+        Gauge.builder("chat.presence.users.online", onlineUsers, AtomicInteger::get)
+                .description("Users currently shown as online by this node")
+                .register(meterRegistry);
+        // A distribution rather than a per-user gauge: one time series per user id would not scale
+        this.sessionsPerUser = DistributionSummary.builder("chat.presence.sessions.per.user")
+                .description("Open sessions of a user, sampled each time one connects")
+                .register(meterRegistry);
+    }
+
+    public void sessionConnected(Long userId, String sessionId) {
+        synchronized (lockFor(userId)) {
+            UserPresence userPresence = presence.computeIfAbsent(userId, id -> new UserPresence());
+            if (userPresence.sessions.add(sessionId)) {
+                activeSessions.incrementAndGet();
+            }
+            userPresence.offlineDeadline = 0;
+            if (!userPresence.online) {
+                userPresence.online = true;
+                onlineUsers.incrementAndGet();
+                transition(userId, Status.ONLINE);
+            }
+            sessionsPerUser.record(userPresence.sessions.size());
+        }
+    }
+
+    public void sessionDisconnected(Long userId, String sessionId) {
+        sessionDisconnected(userId, sessionId, System.currentTimeMillis());
+    }
+
+    void sessionDisconnected(Long userId, String sessionId, long now) {
+        synchronized (lockFor(userId)) {
+            UserPresence userPresence = presence.get(userId);
+            if (userPresence == null) {
+                return;
+            }
+
+            if (userPresence.sessions.remove(sessionId)) {
+                activeSessions.decrementAndGet();
+            }
+            if (userPresence.sessions.isEmpty() && userPresence.online) {
+                userPresence.offlineDeadline = now + gracePeriodMs;
+            }
+        }
+    }
+
+    public boolean isUserOnline(Long userId) {
+        UserPresence userPresence = presence.get(userId);
+        return userPresence != null && userPresence.online;
+    }
+
+    public Status statusOf(Long userId) {
+        return isUserOnline(userId) ? Status.ONLINE : Status.OFFLINE;
+    }
+
+    public int sessionCount(Long userId) {
+        UserPresence userPresence = presence.get(userId);
+        return userPresence != null ? userPresence.sessions.size() : 0;
+    }
+
+    @Scheduled(fixedDelayString = "${chat.presence.sweep-interval-ms:1000}")
+    public void expireGracePeriods() {
+        expireGracePeriods(System.currentTimeMillis());
+    }
+
+    void expireGracePeriods(long now) {
+        for (Long userId : presence.keySet()) {
+            synchronized (lockFor(userId)) {
+                UserPresence userPresence = presence.get(userId);
+                if (userPresence != null && userPresence.sessions.isEmpty()
+                        && userPresence.offlineDeadline != 0 && now >= userPresence.offlineDeadline) {
+                    if (userRegistry.getUser(String.valueOf(userId)) != null) {
+                        // Still connected to another node (relay mode): stay online here too and
+                        // check again after another grace period, until the user has left everywhere
+                        userPresence.offlineDeadline = now + gracePeriodMs;
+                        continue;
+                    }
+                    userPresence.online = false;
+                    presence.remove(userId);
+                    onlineUsers.decrementAndGet();
+                    transition(userId, Status.OFFLINE);
+                }
+            }
+        }
+    }
+
+    // One batched UPDATE for every user whose status changed since the last flush
+    @Scheduled(fixedDelayString = "${chat.presence.flush-interval-ms:2000}")
+    public void flush() {
+        if (pendingWrites.isEmpty()) {
+            return;
+        }
+
+        List<Object[]> batch = new ArrayList<>();
+        for (Long userId : pendingWrites.keySet()) {
+            PendingWrite write = pendingWrites.remove(userId);
+            if (write != null) {
+                batch.add(new Object[]{write.status.name(), Timestamp.valueOf(write.at), userId});
+            }
+        }
+
+        try {
+            jdbcTemplate.batchUpdate("UPDATE users SET status = ?, last_seen = ? WHERE id = ?", batch);
+        } catch (RuntimeException e) {
+            log.error("Failed to persist presence for {} users", batch.size(), e);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        flush();
+    }
+
+    // Called under the user's stripe lock so transitions are recorded and published in order
+    private void transition(Long userId, Status status) {
+        LocalDateTime now = LocalDateTime.now();
+        pendingWrites.put(userId, new PendingWrite(status, now));
+
+        // Delivered to interested users by PresenceFanout
+        eventPublisher.publishEvent(UserStatusNotification.builder()
+                .userId(userId)
+                .status(status)
+                .timestamp(now)
+                .build());
+    }
+
+    private Object lockFor(Long userId) {
+        return locks[(int) Math.floorMod(userId, (long) STRIPES)];
+    }
+
+    private static class UserPresence {
+        private final Set<String> sessions = ConcurrentHashMap.newKeySet();
+        private volatile boolean online;
+        private long offlineDeadline;
+    }
+
+    @AllArgsConstructor
+    private static class PendingWrite {
+        private final Status status;
+        private final LocalDateTime at;
+    }
+}
@@ -0,0 +1,16 @@
+package com.hemanth.chat_application.websocket;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class PresenceSubscription {
+    private List<Long> userIds;
+}
@@ -0,0 +1,17 @@
+package com.hemanth.chat_application.websocket;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+// Batched presence diff delivered on /user/queue/presence
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class PresenceUpdate {
+    private List<UserStatusNotification> changes;
+}
@@ -10,6 +10,7 @@ import org.springframework.messaging.support.MessageHeaderAccessor;
 
 @Slf4j
 public class UserInterceptor implements ChannelInterceptor {
+    private static final LogSampler SAMPLER = new LogSampler(log, 100);
 
     @Override
     public Message<?> preSend(Message<?> message, MessageChannel channel) {
@@ -22,7 +23,9 @@ public class UserInterceptor implements ChannelInterceptor {
             if (userId != null) {
                 UserPrincipal principal = new UserPrincipal(userId.toString());
                 accessor.setUser(principal);
-                log.info("User principal set for userId: {}", userId);
+                if (SAMPLER.sample()) {
+                    log.debug("User principal set for userId: {}", userId);
+                }
             } else {
                 log.warn("No userId found in session attributes");
             }
@@ -1,29 +1,29 @@
 package com.hemanth.chat_application.websocket;
 
-import com.hemanth.chat_application.user.Status;
-import com.hemanth.chat_application.user.UserRepository;
+import com.hemanth.chat_application.message.MessageSyncService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.event.EventListener;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
 import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
 import org.springframework.stereotype.Component;
 import org.springframework.web.socket.messaging.SessionConnectedEvent;
 import org.springframework.web.socket.messaging.SessionDisconnectEvent;
 
-import java.time.LocalDateTime;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
 
 @Component
 @RequiredArgsConstructor
 @Slf4j
 public class WebSocketEventListener {
-    private final SimpMessagingTemplate messagingTemplate;
-    private final UserRepository userRepository;
+    private static final LogSampler SAMPLER = new LogSampler(log, 100);
 
-    // Track active sessions: userId -> sessionId
-    private final Map<Long, String> activeSessions = new ConcurrentHashMap<>();
+    private static final String LAST_MESSAGE_ID_HEADER = "last-message-id";
+
+    private final PresenceRegistry presenceRegistry;
+    private final MessageSyncService messageSyncService;
+    private final PreEncodedMessagingTemplate preEncodedTemplate;
 
     @EventListener
     public void handleWebSocketConnectListener(SessionConnectedEvent event) {
@@ -35,15 +35,17 @@ public class WebSocketEventListener {
             UserPrincipal principal = (UserPrincipal) headerAccessor.getUser();
             Long userId = principal.getUserIdAsLong();
 
-            activeSessions.put(userId, sessionId);
+            // Track the session; goes ONLINE only on the user's first open session
+            presenceRegistry.sessionConnected(userId, sessionId);
 
-            // Update user status to ONLINE
-            updateUserStatus(userId, Status.ONLINE);
+            preEncodedTemplate.sessionConnected(principal.getName(), sessionId, payloadFormat(headerAccessor));
 
-            // Broadcast user online status
-            broadcastUserStatus(userId, Status.ONLINE);
+            // Catch-up starts when the client sends /app/sync.start after subscribing to /user/queue/sync
+            messageSyncService.sessionConnected(userId, sessionId, lastMessageId(headerAccessor));
 
-            log.info("User {} connected with session {}", userId, sessionId);
+            if (SAMPLER.sample()) {
+                log.debug("User {} connected with session {}", userId, sessionId);
+            }
         } else {
             log.warn("Connected without principal - sessionId: {}", sessionId);
         }
@@ -52,43 +54,57 @@ public class WebSocketEventListener {
     @EventListener
     public void handleWebSocketDisconnectListener(SessionDisconnectEvent event) {
         StompHeaderAccessor headerAccessor = StompHeaderAccessor.wrap(event.getMessage());
+        messageSyncService.sessionDisconnected(event.getSessionId());
 
         // Get Principal
         if (headerAccessor.getUser() != null) {
             UserPrincipal principal = (UserPrincipal) headerAccessor.getUser();
             Long userId = principal.getUserIdAsLong();
 
-            activeSessions.remove(userId);
-
-            // Update user status to OFFLINE
-            updateUserStatus(userId, Status.OFFLINE);
+            // Goes OFFLINE after the grace period if this was the last session
+            presenceRegistry.sessionDisconnected(userId, event.getSessionId());
+            preEncodedTemplate.sessionDisconnected(principal.getName(), event.getSessionId());
 
-            // Broadcast user offline status
-            broadcastUserStatus(userId, Status.OFFLINE);
-
-            log.info("User {} disconnected", userId);
+            if (SAMPLER.sample()) {
+                log.debug("User {} disconnected", userId);
+            }
         }
     }
 
-    private void updateUserStatus(Long userId, Status status) {
-        userRepository.findById(userId).ifPresent(user -> {
-            user.setStatus(status);
-            user.setLastSeen(LocalDateTime.now());
-            userRepository.save(user);
-        });
+    // The client's CONNECT frame carries the last message id it has stored locally
+    private Long lastMessageId(StompHeaderAccessor connectedAccessor) {
+        String value = connectHeader(connectedAccessor, LAST_MESSAGE_ID_HEADER);
+        try {
+            return value != null && !value.isBlank() ? Long.valueOf(value.trim()) : null;
+        } catch (NumberFormatException e) {
+            return null;
+        }
     }
 
-    private void broadcastUserStatus(Long userId, Status status) {
-        UserStatusNotification notification = UserStatusNotification.builder()
-                .userId(userId)
-                .status(status)
-                .timestamp(LocalDateTime.now())
-                .build();
+    // SockJS only carries text frames, so a binary format asked for over /ws is refused and the
+    // session stays on JSON
+    private PayloadFormat payloadFormat(StompHeaderAccessor connectedAccessor) {
+        PayloadFormat format = PayloadFormat.parse(connectHeader(connectedAccessor, PayloadFormat.HEADER));
+        if (!format.isBinary()) {
+            return format;
+        }
+        Message<?> connect = (Message<?>) connectedAccessor.getHeader(SimpMessageHeaderAccessor.CONNECT_MESSAGE_HEADER);
+        Map<String, Object> attributes = connect != null
+                ? SimpMessageHeaderAccessor.getSessionAttributes(connect.getHeaders())
+                : null;
+        if (attributes == null || Boolean.TRUE.equals(attributes.get(HttpHandshakeInterceptor.SOCKJS_ATTRIBUTE))) {
+            log.debug("Refusing {} payloads on SockJS session {}", format, connectedAccessor.getSessionId());
+            return PayloadFormat.JSON;
+        }
+        return format;
+    }
 
-        messagingTemplate.convertAndSend("/topic/user-status", notification);
+    private String connectHeader(StompHeaderAccessor connectedAccessor, String name) {
+        Message<?> connect = (Message<?>) connectedAccessor.getHeader(SimpMessageHeaderAccessor.CONNECT_MESSAGE_HEADER);
+        return connect != null ? StompHeaderAccessor.wrap(connect).getFirstNativeHeader(name) : null;
     }
 
     public boolean isUserOnline(Long userId) {
-        return activeSessions.containsKey(userId);
+        return presenceRegistry.isUserOnline(userId);
     }
-}
\ No newline at end of file
+}
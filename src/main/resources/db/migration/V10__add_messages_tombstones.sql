@@ -0,0 +1,16 @@
+-- Unsend/delete marks rows is_deleted with a deleted_at; MessageCompactor hard-deletes them
+-- later in small batches. Index builds on the partitioned parent cannot run CONCURRENTLY, so
+-- this takes a SHARE lock on each partition while it builds (reads continue, writes wait).
+
+ALTER TABLE messages ADD COLUMN IF NOT EXISTS deleted_at TIMESTAMPTZ;
+
+UPDATE messages SET deleted_at = now() WHERE is_deleted = true AND deleted_at IS NULL;
+
+-- Compaction queue: only tombstones, so it stays tiny however large messages gets
+CREATE INDEX IF NOT EXISTS idx_messages_tombstones ON messages (deleted_at) WHERE is_deleted = true;
+
+-- History pages only ever read live rows: keep tombstones out of the conversation index
+CREATE INDEX IF NOT EXISTS idx_messages_conversation_live
+  ON messages (conversation_id, sent_at DESC, id DESC) WHERE is_deleted = false;
+DROP INDEX IF EXISTS idx_messages_conversation;
+ALTER INDEX idx_messages_conversation_live RENAME TO idx_messages_conversation;
@@ -0,0 +1,41 @@
+-- Group conversations. A room message is stored once (room_messages), not once per member;
+-- what each member has read is a single cursor on room_members instead of per-row status.
+CREATE TABLE IF NOT EXISTS rooms (
+  id BIGSERIAL PRIMARY KEY,
+  name VARCHAR(100) NOT NULL,
+  created_by BIGINT NOT NULL,
+  created_at TIMESTAMPTZ NOT NULL DEFAULT now(),
+  last_message_id BIGINT,
+  last_message_at TIMESTAMPTZ,
+  CONSTRAINT fk_rooms_created_by FOREIGN KEY (created_by) REFERENCES users(id) ON DELETE CASCADE
+);
+
+CREATE TABLE IF NOT EXISTS room_members (
+  room_id BIGINT NOT NULL,
+  user_id BIGINT NOT NULL,
+  role VARCHAR(20) NOT NULL DEFAULT 'MEMBER',
+  joined_at TIMESTAMPTZ NOT NULL DEFAULT now(),
+  last_read_message_id BIGINT NOT NULL DEFAULT 0,
+  PRIMARY KEY (room_id, user_id),
+  CONSTRAINT chk_room_members_role CHECK (role IN ('OWNER', 'MEMBER')),
+  CONSTRAINT fk_room_members_room FOREIGN KEY (room_id) REFERENCES rooms(id) ON DELETE CASCADE,
+  CONSTRAINT fk_room_members_user FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE
+);
+
+-- "My rooms" lookups
+CREATE INDEX IF NOT EXISTS idx_room_members_user ON room_members (user_id, room_id);
+
+CREATE TABLE IF NOT EXISTS room_messages (
+  id BIGSERIAL PRIMARY KEY,
+  room_id BIGINT NOT NULL,
+  sender_id BIGINT NOT NULL,
+  content TEXT NOT NULL,
+  sent_at TIMESTAMPTZ NOT NULL DEFAULT now(),
+  is_deleted BOOLEAN NOT NULL DEFAULT false,
+  CONSTRAINT fk_room_messages_room FOREIGN KEY (room_id) REFERENCES rooms(id) ON DELETE CASCADE,
+  CONSTRAINT fk_room_messages_sender FOREIGN KEY (sender_id) REFERENCES users(id) ON DELETE CASCADE
+);
+
+-- Keyset history pages and unread counts (id > member's cursor)
+CREATE INDEX IF NOT EXISTS idx_room_messages_room ON room_messages (room_id, id DESC) WHERE is_deleted = false;
+CREATE INDEX IF NOT EXISTS idx_room_messages_sender ON room_messages (sender_id);
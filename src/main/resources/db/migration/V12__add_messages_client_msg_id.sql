@@ -0,0 +1,16 @@
+-- Client-generated idempotency keys for /app/chat.send, so a retry after a reconnect returns
+-- the stored message instead of inserting it again. messages is partitioned on sent_at and a
+-- unique index there must include sent_at, which a retry never shares with the original; the
+-- key is therefore claimed in its own table, in the same transaction as the message.
+ALTER TABLE messages ADD COLUMN IF NOT EXISTS client_msg_id VARCHAR(64);
+
+CREATE TABLE IF NOT EXISTS message_client_ids (
+  sender_id BIGINT NOT NULL,
+  client_msg_id VARCHAR(64) NOT NULL,
+  message_id BIGINT NOT NULL,
+  sent_at TIMESTAMPTZ NOT NULL,
+  PRIMARY KEY (sender_id, client_msg_id)
+);
+
+-- Retention purge (MessageDeduplicator)
+CREATE INDEX IF NOT EXISTS idx_message_client_ids_sent_at ON message_client_ids (sent_at);
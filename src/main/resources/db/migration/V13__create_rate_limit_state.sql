@@ -0,0 +1,13 @@
+-- Shared rate limit state for chat.ratelimit.shared-store=jdbc (JdbcRateLimitStore); unused
+-- otherwise. UNLOGGED: no WAL for counters that are fine to lose in a crash.
+CREATE UNLOGGED TABLE IF NOT EXISTS rate_limit_state (
+  limit_key VARCHAR(320) PRIMARY KEY,
+  tokens DOUBLE PRECISION NOT NULL,
+  refilled_at BIGINT NOT NULL,
+  window_start BIGINT NOT NULL,
+  window_count INT NOT NULL,
+  previous_count INT NOT NULL,
+  expires_at TIMESTAMPTZ NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_rate_limit_state_expires_at ON rate_limit_state (expires_at);
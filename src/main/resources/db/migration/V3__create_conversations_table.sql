@@ -0,0 +1,32 @@
+-- Per-user inbox projection: one row per (user, partner) pair
+CREATE TABLE IF NOT EXISTS conversations (
+  user_id BIGINT NOT NULL,
+  partner_id BIGINT NOT NULL,
+  last_message_id BIGINT NOT NULL,
+  last_message_content TEXT NOT NULL,
+  last_message_at TIMESTAMPTZ NOT NULL,
+  unread_count BIGINT NOT NULL DEFAULT 0,
+  PRIMARY KEY (user_id, partner_id),
+  CONSTRAINT fk_conversations_user FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE,
+  CONSTRAINT fk_conversations_partner FOREIGN KEY (partner_id) REFERENCES users(id) ON DELETE CASCADE
+);
+
+-- Inbox ordering / keyset pagination
+CREATE INDEX IF NOT EXISTS idx_conversations_inbox ON conversations (user_id, last_message_at DESC, partner_id DESC);
+
+-- Backfill from existing messages
+INSERT INTO conversations (user_id, partner_id, last_message_id, last_message_content, last_message_at, unread_count)
+SELECT l.user_id, l.partner_id, l.id, l.content, l.sent_at,
+       (SELECT COUNT(*) FROM messages u
+        WHERE u.receiver_id = l.user_id AND u.sender_id = l.partner_id
+          AND u.status != 'READ' AND u.is_deleted = false)
+FROM (
+  SELECT DISTINCT ON (p.user_id, p.partner_id) p.user_id, p.partner_id, p.id, p.content, p.sent_at
+  FROM (
+    SELECT sender_id AS user_id, receiver_id AS partner_id, id, content, sent_at FROM messages WHERE is_deleted = false
+    UNION ALL
+    SELECT receiver_id AS user_id, sender_id AS partner_id, id, content, sent_at FROM messages WHERE is_deleted = false
+  ) p
+  ORDER BY p.user_id, p.partner_id, p.sent_at DESC, p.id DESC
+) l
+ON CONFLICT (user_id, partner_id) DO NOTHING;
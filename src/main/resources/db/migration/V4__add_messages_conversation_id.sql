@@ -0,0 +1,25 @@
+-- Canonical, direction-independent key for a 1:1 conversation: '<low user id>:<high user id>'
+ALTER TABLE messages ADD COLUMN IF NOT EXISTS conversation_id VARCHAR(64);
+
+-- Backfill in batches so a large table is not rewritten in a single transaction
+DO $$
+DECLARE
+  batch_size CONSTANT BIGINT := 10000;
+  max_id BIGINT;
+  from_id BIGINT := 0;
+BEGIN
+  SELECT COALESCE(MAX(id), 0) INTO max_id FROM messages;
+  WHILE from_id <= max_id LOOP
+    UPDATE messages
+    SET conversation_id = LEAST(sender_id, receiver_id) || ':' || GREATEST(sender_id, receiver_id)
+    WHERE id > from_id AND id <= from_id + batch_size AND conversation_id IS NULL;
+    COMMIT;
+    from_id := from_id + batch_size;
+  END LOOP;
+END $$;
+
+ALTER TABLE messages ALTER COLUMN conversation_id SET NOT NULL;
+
+-- Single ordered range scan for history in both directions
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_messages_conversation
+  ON messages (conversation_id, sent_at DESC, id DESC);
@@ -0,0 +1,15 @@
+-- Indexes for user search (UserRepository.search*). Built CONCURRENTLY so registration
+-- keeps working while they build; see the .conf file for executeInTransaction=false.
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+-- Substring match on usernames: LOWER(username) LIKE '%q%' for queries of 3+ characters
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_users_username_trgm
+  ON users USING gin (LOWER(username) gin_trgm_ops);
+
+-- Prefix range scans for short queries and email search. COLLATE "C" makes the range
+-- predicate usable with bind parameters and lets the index also satisfy the ORDER BY.
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_users_username_prefix
+  ON users ((LOWER(username) COLLATE "C"), id);
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_users_email_prefix
+  ON users ((LOWER(email) COLLATE "C"), id);
@@ -0,0 +1,38 @@
+-- Full-text search over message content. The 'simple' configuration (no stemming, no stop
+-- words) since chat history is multilingual and full of names, handles and short words.
+ALTER TABLE messages ADD COLUMN IF NOT EXISTS content_tsv tsvector;
+
+-- Maintained by the database so both the JPA and the batched JDBC insert paths are covered
+CREATE OR REPLACE FUNCTION messages_content_tsv_update() RETURNS trigger AS $$
+BEGIN
+  NEW.content_tsv := to_tsvector('simple', COALESCE(NEW.content, ''));
+  RETURN NEW;
+END
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS trg_messages_content_tsv ON messages;
+CREATE TRIGGER trg_messages_content_tsv
+  BEFORE INSERT OR UPDATE OF content ON messages
+  FOR EACH ROW EXECUTE FUNCTION messages_content_tsv_update();
+
+-- Backfill in batches so a large table is not rewritten in a single transaction
+DO $$
+DECLARE
+  batch_size CONSTANT BIGINT := 10000;
+  max_id BIGINT;
+  from_id BIGINT := 0;
+BEGIN
+  SELECT COALESCE(MAX(id), 0) INTO max_id FROM messages;
+  WHILE from_id <= max_id LOOP
+    UPDATE messages
+    SET content_tsv = to_tsvector('simple', COALESCE(content, ''))
+    WHERE id > from_id AND id <= from_id + batch_size AND content_tsv IS NULL;
+    COMMIT;
+    from_id := from_id + batch_size;
+  END LOOP;
+END $$;
+
+-- fastupdate queues new entries in a pending list that is merged in bulk (by vacuum or
+-- when the list fills), so inserts do not pay for a GIN posting tree update each
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_messages_content_tsv
+  ON messages USING gin (content_tsv) WITH (fastupdate = on, gin_pending_list_limit = 4096);
@@ -0,0 +1,6 @@
+-- Keyset pages of a receiver's messages by id for offline sync (MessageSyncService).
+-- Also serves every receiver_id lookup, so the single-column index is dropped.
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_messages_receiver_sync
+  ON messages (receiver_id, id);
+
+DROP INDEX CONCURRENTLY IF EXISTS idx_messages_receiver_id;
@@ -0,0 +1,60 @@
+-- Step 1 of moving messages to monthly range partitions on sent_at (V9 does the switch).
+-- The existing table becomes the first partition as-is, without copying rows. To make the
+-- attach instant it needs the parent's key and a validated upper bound beforehand, both
+-- built here without blocking writes (hence executeInTransaction=false).
+
+-- Bookkeeping for MessagePartitionManager: one row per partition, hot or archived
+CREATE TABLE IF NOT EXISTS message_partitions (
+  name VARCHAR(63) PRIMARY KEY,
+  range_start TIMESTAMPTZ,
+  range_end TIMESTAMPTZ NOT NULL,
+  state VARCHAR(20) NOT NULL DEFAULT 'HOT',
+  archive_path VARCHAR(1024),
+  row_count BIGINT,
+  archived_at TIMESTAMPTZ,
+  CONSTRAINT chk_message_partitions_state CHECK (state IN ('HOT', 'ARCHIVED'))
+);
+
+-- Where each conversation's slice of an archive file starts: archives are written as one
+-- gzip member per conversation, so history can read just that member
+CREATE TABLE IF NOT EXISTS message_archive_index (
+  conversation_id VARCHAR(64) NOT NULL,
+  partition_name VARCHAR(63) NOT NULL REFERENCES message_partitions (name),
+  byte_offset BIGINT NOT NULL,
+  byte_length BIGINT NOT NULL,
+  message_count INT NOT NULL,
+  PRIMARY KEY (conversation_id, partition_name)
+);
+
+-- The legacy partition holds everything up to the end of the current month (null start = MINVALUE)
+INSERT INTO message_partitions (name, range_start, range_end)
+VALUES ('messages_legacy', NULL, date_trunc('month', now()) + interval '1 month')
+ON CONFLICT (name) DO NOTHING;
+
+-- Matches the parent's PRIMARY KEY (id, sent_at). ATTACH only reuses an index for a parent
+-- constraint if it backs a constraint itself; a bare unique index would be rebuilt over the
+-- whole table under V9's ACCESS EXCLUSIVE lock. Promoting it is a catalog-only change.
+CREATE UNIQUE INDEX CONCURRENTLY IF NOT EXISTS messages_legacy_id_sent_at_key
+  ON messages (id, sent_at);
+
+DO $$
+BEGIN
+  IF NOT EXISTS (SELECT 1 FROM pg_constraint WHERE conname = 'messages_legacy_id_sent_at_key') THEN
+    ALTER TABLE messages ADD CONSTRAINT messages_legacy_id_sent_at_key
+      UNIQUE USING INDEX messages_legacy_id_sent_at_key;
+  END IF;
+END $$;
+
+-- A validated CHECK equal to the partition bound lets ATTACH skip its full-table scan
+DO $$
+DECLARE
+  upper_bound TIMESTAMPTZ;
+BEGIN
+  SELECT range_end INTO upper_bound FROM message_partitions WHERE name = 'messages_legacy';
+  IF NOT EXISTS (SELECT 1 FROM pg_constraint WHERE conname = 'messages_legacy_range') THEN
+    EXECUTE format('ALTER TABLE messages ADD CONSTRAINT messages_legacy_range CHECK (sent_at < %L) NOT VALID',
+                   upper_bound);
+  END IF;
+END $$;
+
+ALTER TABLE messages VALIDATE CONSTRAINT messages_legacy_range;
@@ -0,0 +1,78 @@
+-- Step 2: swap in a parent partitioned by month on sent_at and attach the old table as its
+-- first partition. Runs in one transaction; the only heavy lock is held for the renames
+-- and the attach, which reuses the indexes, foreign keys and CHECK built earlier.
+-- Requires PostgreSQL 14+ (BEFORE ROW triggers on the parent, DETACH CONCURRENTLY later).
+
+ALTER TABLE messages RENAME TO messages_legacy;
+
+-- Free the canonical names for the parent's indexes
+ALTER INDEX IF EXISTS messages_pkey RENAME TO messages_legacy_pkey;
+ALTER INDEX IF EXISTS idx_messages_sender_id RENAME TO messages_legacy_sender_id_idx;
+ALTER INDEX IF EXISTS idx_messages_sent_at RENAME TO messages_legacy_sent_at_idx;
+ALTER INDEX IF EXISTS idx_messages_sender_receiver RENAME TO messages_legacy_sender_receiver_idx;
+ALTER INDEX IF EXISTS idx_messages_unread RENAME TO messages_legacy_unread_idx;
+ALTER INDEX IF EXISTS idx_messages_conversation RENAME TO messages_legacy_conversation_idx;
+ALTER INDEX IF EXISTS idx_messages_receiver_sync RENAME TO messages_legacy_receiver_sync_idx;
+ALTER INDEX IF EXISTS idx_messages_content_tsv RENAME TO messages_legacy_content_tsv_idx;
+
+-- Same columns and defaults (including nextval('messages_id_seq')); constraints are added
+-- explicitly so the legacy range CHECK is not copied to the parent
+CREATE TABLE messages (LIKE messages_legacy INCLUDING DEFAULTS) PARTITION BY RANGE (sent_at);
+
+ALTER TABLE messages ADD PRIMARY KEY (id, sent_at);
+ALTER TABLE messages ADD CONSTRAINT chk_messages_status CHECK (status IN ('SENT', 'DELIVERED', 'READ'));
+ALTER TABLE messages ADD CONSTRAINT fk_messages_sender
+  FOREIGN KEY (sender_id) REFERENCES users(id) ON DELETE CASCADE;
+ALTER TABLE messages ADD CONSTRAINT fk_messages_receiver
+  FOREIGN KEY (receiver_id) REFERENCES users(id) ON DELETE CASCADE;
+
+CREATE INDEX idx_messages_sender_id ON messages (sender_id);
+CREATE INDEX idx_messages_sent_at ON messages (sent_at DESC);
+CREATE INDEX idx_messages_sender_receiver ON messages (sender_id, receiver_id, sent_at DESC);
+CREATE INDEX idx_messages_unread ON messages (receiver_id, status) WHERE status != 'READ' AND is_deleted = false;
+CREATE INDEX idx_messages_conversation ON messages (conversation_id, sent_at DESC, id DESC);
+CREATE INDEX idx_messages_receiver_sync ON messages (receiver_id, id);
+CREATE INDEX idx_messages_content_tsv ON messages USING gin (content_tsv)
+  WITH (fastupdate = on, gin_pending_list_limit = 4096);
+
+-- The parent's trigger is cloned onto every partition, including the legacy one
+DROP TRIGGER IF EXISTS trg_messages_content_tsv ON messages_legacy;
+CREATE TRIGGER trg_messages_content_tsv
+  BEFORE INSERT OR UPDATE OF content ON messages
+  FOR EACH ROW EXECUTE FUNCTION messages_content_tsv_update();
+
+ALTER SEQUENCE messages_id_seq OWNED BY messages.id;
+
+DO $$
+DECLARE
+  upper_bound TIMESTAMPTZ;
+BEGIN
+  SELECT range_end INTO upper_bound FROM message_partitions WHERE name = 'messages_legacy';
+  EXECUTE format('ALTER TABLE messages ATTACH PARTITION messages_legacy FOR VALUES FROM (MINVALUE) TO (%L)',
+                 upper_bound);
+END $$;
+
+ALTER TABLE messages_legacy DROP CONSTRAINT messages_legacy_range;
+
+-- Creates the partition for the month containing month_start unless an existing (or
+-- archived) partition already covers it. Used here and by MessagePartitionManager.
+CREATE OR REPLACE FUNCTION create_messages_partition(month_start TIMESTAMPTZ) RETURNS TEXT AS $$
+DECLARE
+  from_ts TIMESTAMPTZ := date_trunc('month', month_start);
+  to_ts TIMESTAMPTZ := date_trunc('month', month_start) + interval '1 month';
+  partition_name TEXT := 'messages_' || to_char(date_trunc('month', month_start), 'YYYY_MM');
+BEGIN
+  IF EXISTS (SELECT 1 FROM message_partitions
+             WHERE (range_start IS NULL OR range_start < to_ts) AND range_end > from_ts) THEN
+    RETURN NULL;
+  END IF;
+
+  EXECUTE format('CREATE TABLE %I PARTITION OF messages FOR VALUES FROM (%L) TO (%L)',
+                 partition_name, from_ts, to_ts);
+  INSERT INTO message_partitions (name, range_start, range_end) VALUES (partition_name, from_ts, to_ts);
+  RETURN partition_name;
+END
+$$ LANGUAGE plpgsql;
+
+SELECT create_messages_partition(date_trunc('month', now()) + make_interval(months => m))
+FROM generate_series(1, 3) AS m;
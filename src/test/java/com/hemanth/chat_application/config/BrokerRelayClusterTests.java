@@ -0,0 +1,129 @@
+package com.hemanth.chat_application.config;
+
+import com.hemanth.chat_application.ChatApplication;
+import com.hemanth.chat_application.support.EmbeddedPostgresTests;
+import org.apache.activemq.artemis.core.config.impl.ConfigurationImpl;
+import org.apache.activemq.artemis.core.server.embedded.EmbeddedActiveMQ;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.messaging.converter.MappingJackson2MessageConverter;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.stomp.StompFrameHandler;
+import org.springframework.messaging.simp.stomp.StompHeaders;
+import org.springframework.messaging.simp.stomp.StompSession;
+import org.springframework.messaging.simp.stomp.StompSessionHandlerAdapter;
+import org.springframework.web.socket.client.standard.StandardWebSocketClient;
+import org.springframework.web.socket.messaging.WebSocketStompClient;
+import org.springframework.web.socket.sockjs.client.SockJsClient;
+import org.springframework.web.socket.sockjs.client.WebSocketTransport;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.net.ServerSocket;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Two app nodes on one machine sharing an embedded Artemis broker as the STOMP relay target
+// and the embedded Postgres of the other database tests
+class BrokerRelayClusterTests {
+
+	private static EmbeddedActiveMQ broker;
+	private static int stompPort;
+
+	@BeforeAll
+	static void startBroker() throws Exception {
+		stompPort = freePort();
+		broker = new EmbeddedActiveMQ();
+		broker.setConfiguration(new ConfigurationImpl()
+				.setPersistenceEnabled(false)
+				.setSecurityEnabled(false)
+				.addAcceptorConfiguration("stomp", "tcp://localhost:" + stompPort + "?protocols=STOMP"));
+		broker.start();
+	}
+
+	@AfterAll
+	static void stopBroker() throws Exception {
+		broker.stop();
+	}
+
+	@Test
+	void userDestinationReachesSessionOnAnotherNode() throws Exception {
+		try (ConfigurableApplicationContext nodeA = startNode();
+			 ConfigurableApplicationContext nodeB = startNode()) {
+
+			BlockingQueue<Map<?, ?>> received = new LinkedBlockingQueue<>();
+			StompSession session = connect(port(nodeA), "1", received);
+
+			// Sent from node B, user 1 only has a session on node A
+			nodeB.getBean(SimpMessagingTemplate.class)
+					.convertAndSendToUser("1", "/queue/messages", Map.of("content", "hello from B"));
+
+			Map<?, ?> payload = received.poll(10, TimeUnit.SECONDS);
+			assertThat(payload).isNotNull();
+			assertThat(payload.get("content")).isEqualTo("hello from B");
+
+			session.disconnect();
+		}
+	}
+
+	// Both nodes share the embedded Postgres; the second one finds the schema already migrated
+	private ConfigurableApplicationContext startNode() {
+		return new SpringApplicationBuilder(ChatApplication.class)
+				.properties(
+						"server.port=0",
+						"spring.main.banner-mode=off",
+						"spring.datasource.url=" + EmbeddedPostgresTests.jdbcUrl(),
+						"spring.datasource.username=postgres",
+						"spring.datasource.password=",
+						"chat.broker.mode=relay",
+						"chat.broker.relay.port=" + stompPort)
+				.run();
+	}
+
+	private StompSession connect(int port, String userId, BlockingQueue<Map<?, ?>> received) throws Exception {
+		WebSocketStompClient client = new WebSocketStompClient(
+				new SockJsClient(List.of(new WebSocketTransport(new StandardWebSocketClient()))));
+		client.setMessageConverter(new MappingJackson2MessageConverter());
+
+		StompSession session = client
+				.connectAsync("http://localhost:" + port + "/ws?userId=" + userId, new StompSessionHandlerAdapter() {
+				})
+				.get(10, TimeUnit.SECONDS);
+		session.setAutoReceipt(true);
+
+		CountDownLatch subscribed = new CountDownLatch(1);
+		session.subscribe("/user/queue/messages", new StompFrameHandler() {
+			@Override
+			public Type getPayloadType(StompHeaders headers) {
+				return Map.class;
+			}
+
+			@Override
+			public void handleFrame(StompHeaders headers, Object payload) {
+				received.add((Map<?, ?>) payload);
+			}
+		}).addReceiptTask(subscribed::countDown);
+
+		assertThat(subscribed.await(10, TimeUnit.SECONDS)).isTrue();
+		return session;
+	}
+
+	private static int port(ConfigurableApplicationContext context) {
+		return Integer.parseInt(context.getEnvironment().getProperty("local.server.port"));
+	}
+
+	private static int freePort() throws IOException {
+		try (ServerSocket socket = new ServerSocket(0)) {
+			return socket.getLocalPort();
+		}
+	}
+}
@@ -0,0 +1,107 @@
+package com.hemanth.chat_application.message;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class BatchingMessageWriterTests {
+
+	private static final long UNKNOWN_RECEIVER = 999L;
+
+	private JdbcTemplate jdbcTemplate;
+	private SimpMessagingTemplate messagingTemplate;
+	private SimpleMeterRegistry meterRegistry;
+	private MessageDeduplicator deduplicator;
+	private BatchingMessageWriter writer;
+	private final List<Message> inserted = new ArrayList<>();
+	private final Map<Long, MessageAck.Status> acks = new HashMap<>();
+
+	@BeforeEach
+	@SuppressWarnings("unchecked")
+	void setUp() {
+		jdbcTemplate = mock(JdbcTemplate.class);
+		messagingTemplate = mock(SimpMessagingTemplate.class);
+		meterRegistry = new SimpleMeterRegistry();
+		deduplicator = mock(MessageDeduplicator.class);
+		when(deduplicator.claimAll(any())).thenReturn(Set.of());
+
+		// Stands in for the FK violation a nonexistent receiver causes: the whole statement fails
+		when(jdbcTemplate.batchUpdate(anyString(), any(Collection.class), anyInt(), any(ParameterizedPreparedStatementSetter.class)))
+				.thenAnswer(invocation -> {
+					Collection<Message> rows = invocation.getArgument(1);
+					if (rows.stream().anyMatch(message -> message.getReceiverId() == UNKNOWN_RECEIVER)) {
+						throw new DataIntegrityViolationException("fk_messages_receiver");
+					}
+					inserted.addAll(rows);
+					return new int[0][];
+				});
+		doAnswer(invocation -> {
+			MessageAck ack = invocation.getArgument(2);
+			acks.put(ack.getMessageId(), ack.getStatus());
+			return null;
+		}).when(messagingTemplate).convertAndSendToUser(anyString(), eq("/queue/acks"), any(Object.class));
+
+		writer = new BatchingMessageWriter(jdbcTemplate,
+				new TransactionTemplate(mock(PlatformTransactionManager.class)),
+				mock(ConversationService.class), deduplicator, messagingTemplate, meterRegistry,
+				1000, 500, 50, 50);
+	}
+
+	@Test
+	void oneBadRowFailsAloneAndTheRestOfTheBatchPersists() throws Exception {
+		writer.start();
+		for (long id = 1; id <= 100; id++) {
+			writer.submit(message(id, id == 37 ? UNKNOWN_RECEIVER : 2L));
+		}
+		writer.stop();
+
+		assertThat(inserted).hasSize(99).noneMatch(message -> message.getId() == 37);
+		assertThat(acks).hasSize(100);
+		assertThat(acks.get(37L)).isEqualTo(MessageAck.Status.FAILED);
+		assertThat(acks.entrySet()).filteredOn(ack -> ack.getKey() != 37L)
+				.allMatch(ack -> ack.getValue() == MessageAck.Status.PERSISTED);
+		assertThat(meterRegistry.counter("chat.ingest.failed").count()).isEqualTo(1);
+		// Only the failed message's key is released for the client's retry
+		verify(deduplicator).forget(argThat(message -> message.getId() == 37));
+		verify(deduplicator, times(1)).forget(any());
+	}
+
+	private static Message message(long id, long receiverId) {
+		return Message.builder()
+				.id(id)
+				.senderId(1L)
+				.receiverId(receiverId)
+				.conversationId(Message.conversationKey(1L, receiverId))
+				.content("message " + id)
+				.status(MessageStatus.SENT)
+				.sentAt(LocalDateTime.now())
+				.isDeleted(false)
+				.build();
+	}
+}
@@ -0,0 +1,99 @@
+package com.hemanth.chat_application.message;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hemanth.chat_application.support.EmbeddedPostgresTests;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// History pages must be a LIMIT over ordered scans of idx_messages_conversation, one per partition,
+// never a scan-and-sort of the whole conversation. The SQL mirrors MessageRepository.findLatest and
+// findBefore; 500 messages six hours apart from last month on reach every partition, so each one
+// has realistic statistics.
+class ConversationQueryPlanTests extends EmbeddedPostgresTests {
+
+	private static final String LATEST_SQL = "SELECT * FROM messages " +
+			"WHERE conversation_id = ? AND is_deleted = false " +
+			"ORDER BY sent_at DESC, id DESC LIMIT 51";
+	private static final String BEFORE_SQL = "SELECT * FROM messages " +
+			"WHERE conversation_id = ? AND is_deleted = false " +
+			"AND (sent_at < ? OR (sent_at = ? AND id < ?)) " +
+			"ORDER BY sent_at DESC, id DESC LIMIT 51";
+
+	private final ObjectMapper objectMapper = new ObjectMapper();
+
+	private String conversationId;
+
+	@BeforeEach
+	void seed() {
+		List<Long> users = new ArrayList<>();
+		for (int i = 0; i < 40; i++) {
+			users.add(createUser());
+		}
+
+		for (int i = 0; i + 1 < users.size(); i++) {
+			jdbcTemplate.update("INSERT INTO messages " +
+					"(sender_id, receiver_id, conversation_id, content, status, sent_at, is_deleted) " +
+					"SELECT CASE WHEN m % 2 = 0 THEN ? ELSE ? END, CASE WHEN m % 2 = 0 THEN ? ELSE ? END, ?, " +
+					"'plan message ' || m, 'READ', " +
+					"date_trunc('month', now()) - interval '1 month' + make_interval(hours => m * 6), false " +
+					"FROM generate_series(1, 500) m",
+					users.get(i), users.get(i + 1), users.get(i + 1), users.get(i),
+					Message.conversationKey(users.get(i), users.get(i + 1)));
+		}
+		jdbcTemplate.execute("ANALYZE messages");
+
+		conversationId = Message.conversationKey(users.get(0), users.get(1));
+	}
+
+	@Test
+	void latestPageIsAnOrderedIndexScan() throws Exception {
+		assertOrderedConversationIndexScan(explain(LATEST_SQL, conversationId));
+	}
+
+	@Test
+	void olderPageIsAnOrderedIndexScan() throws Exception {
+		Timestamp cursor = Timestamp.valueOf(LocalDateTime.now());
+		assertOrderedConversationIndexScan(explain(BEFORE_SQL, conversationId, cursor, cursor, Long.MAX_VALUE));
+	}
+
+	private JsonNode explain(String sql, Object... args) throws Exception {
+		String plan = jdbcTemplate.queryForObject("EXPLAIN (FORMAT JSON) " + sql, String.class, args);
+		return objectMapper.readTree(plan).get(0).get("Plan");
+	}
+
+	private void assertOrderedConversationIndexScan(JsonNode plan) {
+		List<String> nodeTypes = new ArrayList<>();
+		List<String> indexNames = new ArrayList<>();
+		collect(plan, nodeTypes, indexNames);
+
+		List<String> conversationIndexes = jdbcTemplate.queryForList(
+				"SELECT relid::regclass::text FROM pg_partition_tree('idx_messages_conversation')", String.class);
+
+		assertThat(nodeTypes).as(plan.toPrettyString())
+				.first().isEqualTo("Limit");
+		assertThat(nodeTypes).as(plan.toPrettyString())
+				.doesNotContain("Sort", "Incremental Sort", "Seq Scan", "Bitmap Heap Scan")
+				.containsAnyOf("Index Scan", "Index Only Scan");
+		assertThat(indexNames).as(plan.toPrettyString())
+				.isNotEmpty()
+				.allSatisfy(name -> assertThat(conversationIndexes).contains(name));
+	}
+
+	private static void collect(JsonNode node, List<String> nodeTypes, List<String> indexNames) {
+		nodeTypes.add(node.get("Node Type").asText());
+		if (node.has("Index Name")) {
+			indexNames.add(node.get("Index Name").asText());
+		}
+		if (node.has("Plans")) {
+			node.get("Plans").forEach(child -> collect(child, nodeTypes, indexNames));
+		}
+	}
+}
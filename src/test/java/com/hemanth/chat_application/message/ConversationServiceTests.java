@@ -0,0 +1,60 @@
+package com.hemanth.chat_application.message;
+
+import com.hemanth.chat_application.support.EmbeddedPostgresTests;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ConversationServiceTests extends EmbeddedPostgresTests {
+
+	@Autowired
+	private ConversationService conversationService;
+
+	@Autowired
+	private MessageService messageService;
+
+	private long alice;
+	private long bob;
+	private long carol;
+
+	@BeforeEach
+	void setUp() {
+		alice = createUser();
+		bob = createUser();
+		carol = createUser();
+	}
+
+	@Test
+	void inboxPagesNewestConversationFirst() {
+		send(bob, alice);
+		send(carol, alice);
+
+		List<ConversationDTO> first = conversationService.getUserConversations(alice, null, null, 1);
+		assertThat(first).extracting(ConversationDTO::getOtherUserId).containsExactly(carol);
+
+		ConversationDTO last = first.get(0);
+		assertThat(conversationService.getUserConversations(
+				alice, last.getLastMessageTime(), last.getOtherUserId(), 1))
+				.extracting(ConversationDTO::getOtherUserId)
+				.containsExactly(bob);
+	}
+
+	@Test
+	void sizeBelowOneIsRejected() {
+		assertThatThrownBy(() -> conversationService.getUserConversations(alice, null, null, 0))
+				.isInstanceOf(IllegalArgumentException.class);
+	}
+
+	private void send(long senderId, long receiverId) {
+		messageService.saveMessage(ChatMessageRequest.builder()
+				.senderId(senderId)
+				.receiverId(receiverId)
+				.content("hi")
+				.build());
+	}
+}
@@ -0,0 +1,123 @@
+package com.hemanth.chat_application.message;
+
+import com.hemanth.chat_application.support.EmbeddedPostgresTests;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// The database half of idempotent sends: the claim table, not the in-memory window
+class IdempotentSendTests extends EmbeddedPostgresTests {
+
+	@Autowired
+	private MessageService messageService;
+
+	@Autowired
+	private MessageDeduplicator messageDeduplicator;
+
+	@Autowired
+	private ConversationRepository conversationRepository;
+
+	private long alice;
+	private long bob;
+
+	@BeforeEach
+	void setUp() {
+		alice = createUser();
+		bob = createUser();
+	}
+
+	@Test
+	void retryIsFlaggedAsDuplicateOfTheOriginal() {
+		ChatMessageRequest request = request("retry-" + UUID.randomUUID());
+
+		AcceptedMessage first = messageService.acceptMessage(request).orElseThrow();
+		AcceptedMessage retry = messageService.acceptMessage(request).orElseThrow();
+
+		assertThat(first.duplicate()).isFalse();
+		assertThat(retry.duplicate()).isTrue();
+		assertThat(retry.response().getId()).isEqualTo(first.response().getId());
+	}
+
+	// Bypasses the window, as a retry landing on another node would
+	@Test
+	void conflictingClaimRollsBackTheSecondInsert() {
+		ChatMessageRequest request = request("conflict-" + UUID.randomUUID());
+
+		AcceptedMessage original = messageService.saveIdempotently(request);
+		AcceptedMessage retry = messageService.saveIdempotently(request);
+
+		assertThat(retry.duplicate()).isTrue();
+		assertThat(retry.response().getId()).isEqualTo(original.response().getId());
+		assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM messages WHERE conversation_id = ?",
+				Long.class, Message.conversationKey(alice, bob))).isEqualTo(1L);
+		assertThat(conversationRepository.findById(new ConversationId(bob, alice)))
+				.get()
+				.satisfies(row -> assertThat(row.getUnreadCount()).isEqualTo(1L));
+	}
+
+	@Test
+	void claimAllRejectsKeysAlreadyClaimedAndRepeatsWithinTheBatch() {
+		String prefix = UUID.randomUUID() + "-";
+
+		assertThat(messageDeduplicator.claimAll(List.of(
+				message(1, prefix + "a"),
+				message(2, prefix + "b"),
+				message(3, null)))).isEmpty();
+
+		assertThat(messageDeduplicator.claimAll(List.of(
+				message(4, prefix + "a"),
+				message(5, prefix + "c"),
+				message(6, prefix + "c"))))
+				.containsExactlyInAnyOrder(4L, 6L);
+
+		assertThat(jdbcTemplate.queryForList("SELECT message_id FROM message_client_ids " +
+						"WHERE sender_id = ? ORDER BY message_id", Long.class, alice))
+				.containsExactly(1L, 2L, 5L);
+	}
+
+	@Test
+	void forgottenKeyIsNoLongerAnsweredFromTheWindow() {
+		ChatMessageRequest request = request("lost-" + UUID.randomUUID());
+		Message queued = message(10, request.getClientMsgId());
+		messageDeduplicator.remember(ChatMessageResponse.builder()
+				.id(queued.getId())
+				.senderId(alice)
+				.receiverId(bob)
+				.clientMsgId(queued.getClientMsgId())
+				.build());
+
+		// A stale failure for another message must not release the key
+		messageDeduplicator.forget(message(11, request.getClientMsgId()));
+		assertThat(messageDeduplicator.recent(request)).isPresent();
+
+		messageDeduplicator.forget(queued);
+		assertThat(messageDeduplicator.recent(request)).isEmpty();
+	}
+
+	private ChatMessageRequest request(String clientMsgId) {
+		return ChatMessageRequest.builder()
+				.senderId(alice)
+				.receiverId(bob)
+				.content("hello")
+				.clientMsgId(clientMsgId)
+				.build();
+	}
+
+	private Message message(long id, String clientMsgId) {
+		return Message.builder()
+				.id(id)
+				.senderId(alice)
+				.receiverId(bob)
+				.content("hello")
+				.status(MessageStatus.SENT)
+				.sentAt(LocalDateTime.now())
+				.clientMsgId(clientMsgId)
+				.build();
+	}
+}
@@ -0,0 +1,59 @@
+package com.hemanth.chat_application.message;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static com.hemanth.chat_application.message.MessageFixtures.EPOCH;
+import static com.hemanth.chat_application.message.MessageFixtures.message;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MessageArchiveTests {
+
+	private final ObjectMapper objectMapper = MessageFixtures.objectMapper();
+
+	@TempDir
+	Path dir;
+
+	@Test
+	void readsOnlyTheRequestedMemberOfAnArchive() throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		writeMember(out, 1, 3);
+		int secondStart = out.size();
+		writeMember(out, 10, 2);
+		int secondLength = out.size() - secondStart;
+		writeMember(out, 20, 4);
+
+		Path file = dir.resolve("messages_2025_01.ndjson.gz");
+		Files.write(file, out.toByteArray());
+
+		List<ChatMessageResponse> messages = MessageArchive.readMember(file, secondStart, secondLength, objectMapper);
+		assertThat(messages).extracting(ChatMessageResponse::getId).containsExactly(11L, 10L);
+		assertThat(messages.get(0).getSentAt()).isEqualTo(EPOCH.plusSeconds(11));
+	}
+
+	@Test
+	void cursorComparesBySentAtThenId() {
+		MessageCursor cursor = new MessageCursor(EPOCH.plusSeconds(5), 5L);
+
+		assertThat(cursor.follows(message(4))).isTrue();
+		assertThat(cursor.precedes(message(6))).isTrue();
+		assertThat(cursor.follows(message(5))).isFalse();
+		assertThat(cursor.precedes(message(5))).isFalse();
+	}
+
+	// Newest first, like MessageArchive.write
+	private void writeMember(ByteArrayOutputStream out, long firstId, int count) throws IOException {
+		try (MessageExportWriter writer = new MessageExportWriter(ExportFormat.NDJSON, out, true, objectMapper)) {
+			for (long id = firstId + count - 1; id >= firstId; id--) {
+				writer.write(message(id));
+			}
+		}
+	}
+}
@@ -0,0 +1,88 @@
+package com.hemanth.chat_application.message;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+class MessageDeduplicatorTests {
+
+	private JdbcTemplate jdbcTemplate;
+	private SimpleMeterRegistry meterRegistry;
+	private MessageDeduplicator deduplicator;
+
+	@BeforeEach
+	void setUp() {
+		jdbcTemplate = mock(JdbcTemplate.class);
+		meterRegistry = new SimpleMeterRegistry();
+		deduplicator = new MessageDeduplicator(jdbcTemplate, meterRegistry, 60_000, 100, 86_400_000, 1000);
+	}
+
+	@Test
+	void retryWithinWindowReturnsOriginalWithoutDatabase() {
+		deduplicator.remember(response(1L, "c-1", 42L));
+
+		assertThat(deduplicator.recent(request(1L, "c-1")))
+				.get()
+				.satisfies(original -> assertThat(original.getId()).isEqualTo(42L));
+		assertThat(meterRegistry.counter("chat.messages.duplicates", "source", "window").count()).isEqualTo(1);
+		verifyNoInteractions(jdbcTemplate);
+	}
+
+	@Test
+	void keysAreScopedToTheSender() {
+		deduplicator.remember(response(1L, "c-1", 42L));
+
+		assertThat(deduplicator.recent(request(2L, "c-1"))).isEmpty();
+	}
+
+	@Test
+	void requestsWithoutClientMsgIdAreNeverDuplicates() {
+		deduplicator.remember(response(1L, null, 42L));
+
+		assertThat(deduplicator.recent(request(1L, null))).isEmpty();
+	}
+
+	@Test
+	void claimSkipsMessagesWithoutClientMsgId() {
+		deduplicator.claim(Message.builder().id(42L).senderId(1L).sentAt(LocalDateTime.now()).build());
+
+		verifyNoInteractions(jdbcTemplate);
+	}
+
+	@Test
+	void oversizedClientMsgIdIsRejected() {
+		assertThatThrownBy(() -> MessageDeduplicator.validate(request(1L, "x".repeat(65))))
+				.isInstanceOf(IllegalArgumentException.class);
+		assertThatThrownBy(() -> MessageDeduplicator.validate(request(1L, " ")))
+				.isInstanceOf(IllegalArgumentException.class);
+	}
+
+	private static ChatMessageRequest request(Long senderId, String clientMsgId) {
+		return ChatMessageRequest.builder()
+				.senderId(senderId)
+				.receiverId(99L)
+				.content("hello")
+				.clientMsgId(clientMsgId)
+				.build();
+	}
+
+	private static ChatMessageResponse response(Long senderId, String clientMsgId, Long id) {
+		return ChatMessageResponse.builder()
+				.id(id)
+				.senderId(senderId)
+				.receiverId(99L)
+				.content("hello")
+				.status(MessageStatus.SENT)
+				.sentAt(LocalDateTime.now())
+				.clientMsgId(clientMsgId)
+				.build();
+	}
+}
@@ -0,0 +1,117 @@
+package com.hemanth.chat_application.message;
+
+import com.hemanth.chat_application.support.EmbeddedPostgresTests;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MessageDeleteTests extends EmbeddedPostgresTests {
+
+	@Autowired
+	private MessageService messageService;
+
+	@Autowired
+	private ConversationRepository conversationRepository;
+
+	@Autowired
+	private MessageCompactor messageCompactor;
+
+	private long alice;
+	private long bob;
+
+	@BeforeEach
+	void setUp() {
+		alice = createUser();
+		bob = createUser();
+	}
+
+	@Test
+	void unsendRefreshesBothInboxRowsToThePreviousMessage() {
+		ChatMessageResponse first = send(alice, bob, "first");
+		ChatMessageResponse second = send(alice, bob, "second");
+
+		assertThat(messageService.unsendMessage(alice, second.getId())).isTrue();
+
+		assertThat(inbox(alice, bob)).get().satisfies(row -> {
+			assertThat(row.getLastMessageId()).isEqualTo(first.getId());
+			assertThat(row.getLastMessageContent()).isEqualTo("first");
+		});
+		assertThat(inbox(bob, alice)).get().satisfies(row -> {
+			assertThat(row.getLastMessageId()).isEqualTo(first.getId());
+			assertThat(row.getUnreadCount()).isEqualTo(1L);
+		});
+		assertThat(messageService.getConversationHistory(alice, bob, null, null, 10))
+				.extracting(ChatMessageResponse::getId)
+				.containsExactly(first.getId());
+	}
+
+	@Test
+	void onlyTheSenderCanUnsend() {
+		ChatMessageResponse message = send(alice, bob, "hello");
+
+		assertThat(messageService.unsendMessage(bob, message.getId())).isFalse();
+		assertThat(messageService.unsendMessage(alice, message.getId())).isTrue();
+		assertThat(messageService.unsendMessage(alice, message.getId())).isFalse();
+	}
+
+	@Test
+	void deletingTheWholeConversationRemovesBothInboxRows() {
+		send(alice, bob, "one");
+		send(bob, alice, "two");
+
+		assertThat(messageService.deleteConversation(bob, alice, null)).isEqualTo(2);
+
+		assertThat(inbox(alice, bob)).isEmpty();
+		assertThat(inbox(bob, alice)).isEmpty();
+		assertThat(messageService.getConversationHistory(alice, bob, null, null, 10)).isEmpty();
+	}
+
+	@Test
+	void deletingUpToAMessageKeepsNewerOnesAndRecountsUnread() {
+		send(alice, bob, "one");
+		ChatMessageResponse second = send(alice, bob, "two");
+		ChatMessageResponse third = send(alice, bob, "three");
+
+		assertThat(messageService.deleteConversation(bob, alice, second.getId())).isEqualTo(2);
+
+		assertThat(inbox(bob, alice)).get().satisfies(row -> {
+			assertThat(row.getLastMessageId()).isEqualTo(third.getId());
+			assertThat(row.getUnreadCount()).isEqualTo(1L);
+		});
+		assertThat(inbox(alice, bob)).get()
+				.satisfies(row -> assertThat(row.getLastMessageId()).isEqualTo(third.getId()));
+	}
+
+	@Test
+	void compactionPurgesOnlyTombstonesPastTheGracePeriod() {
+		ChatMessageResponse expired = send(alice, bob, "expired");
+		ChatMessageResponse recent = send(alice, bob, "recent");
+		ChatMessageResponse live = send(alice, bob, "live");
+		messageService.unsendMessage(alice, expired.getId());
+		messageService.unsendMessage(alice, recent.getId());
+		jdbcTemplate.update("UPDATE messages SET deleted_at = now() - interval '2 hours' WHERE id = ?",
+				expired.getId());
+
+		messageCompactor.compact();
+
+		assertThat(jdbcTemplate.queryForList("SELECT id FROM messages WHERE conversation_id = ? ORDER BY id",
+				Long.class, Message.conversationKey(alice, bob)))
+				.containsExactly(recent.getId(), live.getId());
+	}
+
+	private ChatMessageResponse send(long senderId, long receiverId, String content) {
+		return messageService.saveMessage(ChatMessageRequest.builder()
+				.senderId(senderId)
+				.receiverId(receiverId)
+				.content(content)
+				.build());
+	}
+
+	private Optional<Conversation> inbox(long userId, long partnerId) {
+		return conversationRepository.findById(new ConversationId(userId, partnerId));
+	}
+}
@@ -0,0 +1,103 @@
+package com.hemanth.chat_application.message;
+
+import com.hemanth.chat_application.support.EmbeddedPostgresTests;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MessageExportServiceTests extends EmbeddedPostgresTests {
+
+	private static final long ONE_MILLION = 1_000_000;
+	private static final long MAX_HEAP_GROWTH_BYTES = 32L * 1024 * 1024;
+	private static final long SAMPLE_EVERY_BYTES = 1024 * 1024;
+
+	@Autowired
+	private MessageExportService messageExportService;
+
+	@Test
+	void exportsLiveMessagesOldestFirst() throws IOException {
+		long alice = createUser();
+		long bob = createUser();
+		seed(alice, bob, 3);
+		jdbcTemplate.update("UPDATE messages SET is_deleted = true, deleted_at = now() " +
+				"WHERE conversation_id = ? AND content = 'message 2'", Message.conversationKey(alice, bob));
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		assertThat(messageExportService.export(alice, bob, ExportFormat.NDJSON, true, out)).isEqualTo(2);
+
+		String ndjson;
+		try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(out.toByteArray()))) {
+			ndjson = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+		}
+		String[] lines = ndjson.split("\n");
+		assertThat(lines).hasSize(2);
+		assertThat(MessageFixtures.objectMapper().readTree(lines[0]).get("content").asText()).isEqualTo("message 1");
+		assertThat(MessageFixtures.objectMapper().readTree(lines[1]).get("content").asText()).isEqualTo("message 3");
+	}
+
+	// Streams a million rows from Postgres through the JDBC cursor; heap is sampled while the
+	// export is running, not only after it
+	@Test
+	void heapStaysFlatWhileExportingOneMillionMessages() throws IOException {
+		long alice = createUser();
+		long bob = createUser();
+		seed(alice, bob, ONE_MILLION);
+
+		HeapSamplingOutputStream out = new HeapSamplingOutputStream(usedHeapAfterGc());
+		long exported = messageExportService.export(alice, bob, ExportFormat.NDJSON, true, out);
+
+		assertThat(exported).isEqualTo(ONE_MILLION);
+		assertThat(out.samples).isPositive();
+		assertThat(out.peakGrowth).isLessThan(MAX_HEAP_GROWTH_BYTES);
+	}
+
+	private void seed(long senderId, long receiverId, long count) {
+		jdbcTemplate.update("INSERT INTO messages " +
+				"(sender_id, receiver_id, conversation_id, content, status, sent_at, is_deleted) " +
+				"SELECT ?, ?, ?, 'message ' || m, 'READ', now() - interval '20 days' + make_interval(secs => m), false " +
+				"FROM generate_series(1, ?) m",
+				senderId, receiverId, Message.conversationKey(senderId, receiverId), count);
+	}
+
+	private static long usedHeapAfterGc() {
+		Runtime runtime = Runtime.getRuntime();
+		System.gc();
+		return runtime.totalMemory() - runtime.freeMemory();
+	}
+
+	// Discards the export, measuring heap growth every SAMPLE_EVERY_BYTES of output
+	private static class HeapSamplingOutputStream extends OutputStream {
+		private final long baseline;
+		private long bytes;
+		private long nextSample = SAMPLE_EVERY_BYTES;
+		private long samples;
+		private long peakGrowth;
+
+		HeapSamplingOutputStream(long baseline) {
+			this.baseline = baseline;
+		}
+
+		@Override
+		public void write(int b) {
+			write(new byte[]{(byte) b}, 0, 1);
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) {
+			bytes += len;
+			if (bytes >= nextSample) {
+				nextSample += SAMPLE_EVERY_BYTES;
+				samples++;
+				peakGrowth = Math.max(peakGrowth, usedHeapAfterGc() - baseline);
+			}
+		}
+	}
+}
@@ -0,0 +1,48 @@
+package com.hemanth.chat_application.message;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+
+import static com.hemanth.chat_application.message.MessageFixtures.message;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MessageExportWriterTests {
+
+	private final ObjectMapper objectMapper = MessageFixtures.objectMapper();
+
+	@Test
+	void csvQuotesContentAndWritesOneRowPerMessage() throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		try (MessageExportWriter writer = new MessageExportWriter(ExportFormat.CSV, out, false, objectMapper)) {
+			writer.write(message(1, "say \"hi\", then\nleave"));
+		}
+
+		String csv = out.toString(StandardCharsets.UTF_8);
+		assertThat(csv).startsWith("id,sender_id,receiver_id,status,sent_at,delivered_at,read_at,content\n");
+		assertThat(csv).endsWith(",\"say \"\"hi\"\", then\nleave\"\n");
+	}
+
+	@Test
+	void gzippedNdjsonHasOneObjectPerLine() throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		try (MessageExportWriter writer = new MessageExportWriter(ExportFormat.NDJSON, out, true, objectMapper)) {
+			for (int i = 1; i <= 3; i++) {
+				writer.write(message(i, "message " + i));
+			}
+		}
+
+		String ndjson;
+		try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(out.toByteArray()))) {
+			ndjson = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+		}
+		String[] lines = ndjson.split("\n");
+		assertThat(lines).hasSize(3);
+		assertThat(objectMapper.readTree(lines[2]).get("content").asText()).isEqualTo("message 3");
+	}
+}
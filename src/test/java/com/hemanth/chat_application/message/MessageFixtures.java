@@ -0,0 +1,40 @@
+package com.hemanth.chat_application.message;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+
+import java.time.LocalDateTime;
+
+// Shared by the export and archive tests: the ObjectMapper they serialize with (ISO dates, like
+// the application's) and messages between users 1 and 2, one second apart from 2025-01-01
+final class MessageFixtures {
+
+	static final LocalDateTime EPOCH = LocalDateTime.of(2025, 1, 1, 0, 0);
+
+	private MessageFixtures() {
+	}
+
+	static ObjectMapper objectMapper() {
+		return JsonMapper.builder()
+				.addModule(new JavaTimeModule())
+				.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+				.build();
+	}
+
+	static ChatMessageResponse message(long id) {
+		return message(id, "message " + id);
+	}
+
+	static ChatMessageResponse message(long id, String content) {
+		return ChatMessageResponse.builder()
+				.id(id)
+				.senderId(1L)
+				.receiverId(2L)
+				.content(content)
+				.status(MessageStatus.READ)
+				.sentAt(EPOCH.plusSeconds(id))
+				.build();
+	}
+}
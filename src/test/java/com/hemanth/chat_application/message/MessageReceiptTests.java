@@ -0,0 +1,67 @@
+package com.hemanth.chat_application.message;
+
+import com.hemanth.chat_application.support.EmbeddedPostgresTests;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MessageReceiptTests extends EmbeddedPostgresTests {
+
+	@Autowired
+	private MessageService messageService;
+
+	@Autowired
+	private ConversationRepository conversationRepository;
+
+	private long alice;
+	private long bob;
+	private long mallory;
+
+	@BeforeEach
+	void setUp() {
+		alice = createUser();
+		bob = createUser();
+		mallory = createUser();
+	}
+
+	@Test
+	void singleReceiptsReturnTheStoredSender() {
+		ChatMessageResponse message = send(alice, bob);
+
+		assertThat(messageService.markAsDelivered(bob, message.getId())).contains(alice);
+		assertThat(messageService.markAsRead(bob, message.getId())).contains(alice);
+
+		assertThat(status(message)).isEqualTo("READ");
+		assertThat(unread(bob, alice)).isZero();
+	}
+
+	@Test
+	void onlyTheReceiverCanMarkAMessage() {
+		ChatMessageResponse message = send(alice, bob);
+
+		assertThat(messageService.markAsDelivered(mallory, message.getId())).isEmpty();
+		assertThat(messageService.markAsRead(mallory, message.getId())).isEmpty();
+		assertThat(messageService.markAsRead(alice, message.getId())).isEmpty();
+
+		assertThat(status(message)).isEqualTo("SENT");
+		assertThat(unread(bob, alice)).isEqualTo(1L);
+	}
+
+	private ChatMessageResponse send(long senderId, long receiverId) {
+		return messageService.saveMessage(ChatMessageRequest.builder()
+				.senderId(senderId)
+				.receiverId(receiverId)
+				.content("hello")
+				.build());
+	}
+
+	private String status(ChatMessageResponse message) {
+		return jdbcTemplate.queryForObject("SELECT status FROM messages WHERE id = ?", String.class, message.getId());
+	}
+
+	private long unread(long userId, long partnerId) {
+		return conversationRepository.findById(new ConversationId(userId, partnerId)).orElseThrow().getUnreadCount();
+	}
+}
@@ -0,0 +1,101 @@
+package com.hemanth.chat_application.message;
+
+import com.hemanth.chat_application.support.EmbeddedPostgresTests;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Slice;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MessageSearchServiceTests extends EmbeddedPostgresTests {
+
+	@Autowired
+	private MessageSearchService messageSearchService;
+
+	@Autowired
+	private MessageService messageService;
+
+	private long alice;
+	private long bob;
+	private long carol;
+
+	@BeforeEach
+	void setUp() {
+		alice = createUser();
+		bob = createUser();
+		carol = createUser();
+	}
+
+	@Test
+	void onlyTheCallersOwnMessagesMatch() {
+		ChatMessageResponse toBob = send(alice, bob, "lunch at noon?");
+		ChatMessageResponse fromCarol = send(carol, alice, "lunch tomorrow");
+		send(bob, carol, "lunch without alice");
+
+		assertThat(ids(messageSearchService.search(alice, "lunch", null, null, 10)))
+				.containsExactly(fromCarol.getId(), toBob.getId());
+		assertThat(ids(messageSearchService.search(bob, "lunch", null, null, 10)))
+				.hasSize(2)
+				.doesNotContain(fromCarol.getId());
+	}
+
+	@Test
+	void partnerIdNarrowsToOneConversation() {
+		ChatMessageResponse withBob = send(bob, alice, "the report is ready");
+		send(alice, carol, "the report is late");
+
+		assertThat(ids(messageSearchService.search(alice, "report", bob, null, 10)))
+				.containsExactly(withBob.getId());
+	}
+
+	@Test
+	void cursorPagesWalkEveryHitOnceNewestFirst() {
+		List<Long> sent = new ArrayList<>();
+		for (int i = 0; i < 5; i++) {
+			sent.add(0, send(alice, bob, "standup note " + i).getId());
+		}
+
+		List<Long> seen = new ArrayList<>();
+		MessageCursor before = null;
+		Slice<MessageSearchResult> page;
+		do {
+			page = messageSearchService.search(alice, "standup", null, before, 2);
+			assertThat(page.getContent()).hasSizeLessThanOrEqualTo(2);
+			seen.addAll(ids(page));
+			before = MessageCursor.of(page.getContent().get(page.getContent().size() - 1).getMessage());
+		} while (page.hasNext());
+
+		assertThat(seen).containsExactlyElementsOf(sent);
+	}
+
+	@Test
+	void highlightEscapesUserMarkupAndKeepsOnlyServerMarks() {
+		String headline = "<script>alert(1)</script> see \u0002lunch\u0003 <mark>fake</mark>";
+
+		assertThat(MessageSearchService.toHighlightHtml(headline)).isEqualTo(
+				"&lt;script&gt;alert(1)&lt;/script&gt; see <mark>lunch</mark> &lt;mark&gt;fake&lt;/mark&gt;");
+	}
+
+	@Test
+	void missingHighlightStaysNull() {
+		assertThat(MessageSearchService.toHighlightHtml(null)).isNull();
+	}
+
+	private ChatMessageResponse send(long senderId, long receiverId, String content) {
+		return messageService.saveMessage(ChatMessageRequest.builder()
+				.senderId(senderId)
+				.receiverId(receiverId)
+				.content(content)
+				.build());
+	}
+
+	private static List<Long> ids(Slice<MessageSearchResult> results) {
+		return results.getContent().stream()
+				.map(result -> result.getMessage().getId())
+				.toList();
+	}
+}
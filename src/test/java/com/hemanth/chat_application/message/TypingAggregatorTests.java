@@ -0,0 +1,87 @@
+package com.hemanth.chat_application.message;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class TypingAggregatorTests {
+
+	private SimpMessagingTemplate messagingTemplate;
+	private SimpleMeterRegistry meterRegistry;
+	private TypingAggregator aggregator;
+
+	@BeforeEach
+	void setUp() {
+		messagingTemplate = mock(SimpMessagingTemplate.class);
+		meterRegistry = new SimpleMeterRegistry();
+		aggregator = new TypingAggregator(messagingTemplate, meterRegistry, 5000, 500, 10);
+	}
+
+	@Test
+	void repeatedTypingFramesForwardOnlyTheStart() {
+		for (int i = 0; i < 5; i++) {
+			aggregator.onTyping(typing(true), "s1", 1000 + i * 100);
+		}
+
+		verify(messagingTemplate, times(1)).convertAndSendToUser(eq("2"), eq("/queue/typing"), any(Object.class));
+		assertThat(count("coalesced")).isEqualTo(4);
+	}
+
+	@Test
+	void stopFollowedByQuickRestartIsCoalesced() {
+		aggregator.onTyping(typing(true), "s1", 1000);
+		aggregator.onTyping(typing(false), "s1", 1100);
+		aggregator.onTyping(typing(true), "s1", 1200);
+		aggregator.sweep(2000);
+
+		verify(messagingTemplate, times(1)).convertAndSendToUser(eq("2"), eq("/queue/typing"), any(Object.class));
+	}
+
+	@Test
+	void stopIsSentOnceDebounceElapses() {
+		aggregator.onTyping(typing(true), "s1", 1000);
+		aggregator.onTyping(typing(false), "s1", 1100);
+		aggregator.sweep(1200);
+		aggregator.sweep(1700);
+
+		verify(messagingTemplate).convertAndSendToUser(eq("2"), eq("/queue/typing"),
+				argThat(payload -> Boolean.FALSE.equals(((TypingNotification) payload).getIsTyping())));
+	}
+
+	@Test
+	void idlePairsAreExpired() {
+		aggregator.onTyping(typing(true), "s1", 1000);
+		aggregator.sweep(7000);
+
+		verify(messagingTemplate, times(2)).convertAndSendToUser(eq("2"), eq("/queue/typing"), any(Object.class));
+		assertThat(count("expired")).isEqualTo(1);
+	}
+
+	@Test
+	void framesAboveTheSessionCapAreDropped() {
+		for (int i = 0; i < 15; i++) {
+			aggregator.onTyping(typing(true), "s1", 1000);
+		}
+
+		assertThat(count("dropped")).isEqualTo(5);
+		verify(messagingTemplate, never()).convertAndSendToUser(eq("1"), any(), any(Object.class));
+	}
+
+	private TypingNotification typing(boolean isTyping) {
+		return TypingNotification.builder().senderId(1L).receiverId(2L).isTyping(isTyping).build();
+	}
+
+	private double count(String outcome) {
+		return meterRegistry.counter("chat.typing.frames", "outcome", outcome).count();
+	}
+}
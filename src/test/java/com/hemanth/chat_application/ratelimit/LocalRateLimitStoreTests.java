@@ -0,0 +1,78 @@
+package com.hemanth.chat_application.ratelimit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LocalRateLimitStoreTests {
+
+	// Window-aligned, so the sliding window starts empty
+	private static final long T0 = 3_600_000L * 500_000;
+
+	private final RateLimit limit = new RateLimit("otp.email", 2, 60_000, 5, 3_600_000);
+	private LocalRateLimitStore store;
+
+	@BeforeEach
+	void setUp() {
+		store = new LocalRateLimitStore(1000);
+	}
+
+	@Test
+	void burstUpToCapacityThenWaitForRefill() {
+		assertThat(store.tryAcquire(limit, "a@example.com", T0)).isZero();
+		assertThat(store.tryAcquire(limit, "a@example.com", T0)).isZero();
+
+		assertThat(store.tryAcquire(limit, "a@example.com", T0)).isEqualTo(60_000);
+		assertThat(store.tryAcquire(limit, "a@example.com", T0 + 60_000)).isZero();
+	}
+
+	@Test
+	void windowCapsRequestsEvenWithTokensLeft() {
+		for (int i = 0; i < 5; i++) {
+			assertThat(store.tryAcquire(limit, "a@example.com", T0 + i * 60_000L)).isZero();
+		}
+
+		// The bucket has refilled, but 5 requests already fall inside the hour
+		long now = T0 + 10 * 60_000L;
+		assertThat(store.tryAcquire(limit, "a@example.com", now)).isEqualTo(3_600_000 - 10 * 60_000L);
+	}
+
+	@Test
+	void previousWindowCountsTowardsTheSlidingWindow() {
+		for (int i = 0; i < 5; i++) {
+			store.tryAcquire(limit, "a@example.com", T0 + 3_000_000 + i * 60_000L);
+		}
+
+		// Just into the next window almost all of the previous one still overlaps
+		assertThat(store.tryAcquire(limit, "a@example.com", T0 + 3_600_000 + 1_000)).isPositive();
+		// Once less than 4/5 of it overlaps, one more request fits
+		assertThat(store.tryAcquire(limit, "a@example.com", T0 + 3_600_000 + 730_000)).isZero();
+	}
+
+	@Test
+	void keysAndLimitsAreIndependent() {
+		store.tryAcquire(limit, "a@example.com", T0);
+		store.tryAcquire(limit, "a@example.com", T0);
+
+		assertThat(store.tryAcquire(limit, "b@example.com", T0)).isZero();
+		assertThat(store.tryAcquire(new RateLimit("otp.ip", 2, 60_000, 5, 3_600_000), "a@example.com", T0)).isZero();
+	}
+
+	@Test
+	void concurrentRequestsNeverExceedCapacity() {
+		RateLimit burst = new RateLimit("burst", 100, 3_600_000, 1000, 3_600_000);
+		AtomicInteger allowed = new AtomicInteger();
+
+		IntStream.range(0, 1000).parallel().forEach(i -> {
+			if (store.tryAcquire(burst, "10.0.0.1", T0) == 0) {
+				allowed.incrementAndGet();
+			}
+		});
+
+		assertThat(allowed.get()).isEqualTo(100);
+	}
+}
@@ -0,0 +1,124 @@
+package com.hemanth.chat_application.room;
+
+import com.hemanth.chat_application.support.EmbeddedPostgresTests;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+
+class RoomServiceTests extends EmbeddedPostgresTests {
+
+	@Autowired
+	private RoomService roomService;
+
+	@Autowired
+	private RoomMembershipCache membershipCache;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	private long owner;
+	private long member;
+	private long outsider;
+	private Long roomId;
+
+	@BeforeEach
+	void setUp() {
+		owner = createUser();
+		member = createUser();
+		outsider = createUser();
+		roomId = roomService.createRoom(CreateRoomRequest.builder()
+				.name(" team ")
+				.createdBy(owner)
+				.memberIds(List.of(member, owner))
+				.build()).getId();
+	}
+
+	@Test
+	void creatorIsOwnerAndListedOnce() {
+		assertThat(roomService.getMembers(roomId, member))
+				.extracting(RoomMemberResponse::getUserId, RoomMemberResponse::getRole)
+				.containsExactlyInAnyOrder(
+						tuple(owner, RoomRole.OWNER),
+						tuple(member, RoomRole.MEMBER));
+		assertThat(roomService.getRooms(owner)).singleElement()
+				.satisfies(summary -> assertThat(summary.getName()).isEqualTo("team"));
+	}
+
+	@Test
+	void unreadCountFollowsTheReadCursor() {
+		roomService.sendMessage(roomId, owner, "one");
+		RoomMessageResponse last = roomService.sendMessage(roomId, owner, "two");
+
+		assertThat(unread(member)).isEqualTo(2);
+		assertThat(unread(owner)).isZero();
+
+		assertThat(roomService.markRead(roomId, member, last.getId())).isTrue();
+		assertThat(unread(member)).isZero();
+	}
+
+	@Test
+	void onlyMembersCanSendOrReadHistory() {
+		assertThatThrownBy(() -> roomService.sendMessage(roomId, outsider, "hi"))
+				.isInstanceOf(IllegalStateException.class);
+		assertThatThrownBy(() -> roomService.getHistory(roomId, outsider, null, 20))
+				.isInstanceOf(IllegalStateException.class);
+	}
+
+	@Test
+	void onlyTheOwnerCanRemoveSomeoneElse() {
+		assertThatThrownBy(() -> roomService.removeMember(roomId, member, owner))
+				.isInstanceOf(IllegalStateException.class);
+
+		assertThat(roomService.removeMember(roomId, owner, member)).isTrue();
+		assertThatThrownBy(() -> roomService.sendMessage(roomId, member, "still here?"))
+				.isInstanceOf(IllegalStateException.class);
+	}
+
+	@Test
+	void addingMembersCountsOnlyNewOnes() {
+		assertThat(roomService.addMembers(roomId, member, List.of(member, outsider))).isEqualTo(1);
+
+		assertThat(roomService.sendMessage(roomId, outsider, "joined").getSenderId()).isEqualTo(outsider);
+	}
+
+	@Test
+	void membershipCacheIsEvictedOnlyAfterCommit() {
+		assertThat(membershipCache.members(roomId)).doesNotContain(outsider);
+
+		transactionTemplate.executeWithoutResult(status -> {
+			roomService.addMembers(roomId, owner, List.of(outsider));
+			// Not committed yet: other threads must keep seeing (and caching) the old member set
+			assertThat(membershipCache.members(roomId)).doesNotContain(outsider);
+		});
+
+		assertThat(membershipCache.members(roomId)).contains(outsider);
+	}
+
+	@Test
+	void rolledBackChangesLeaveTheCacheAlone() {
+		assertThat(membershipCache.members(roomId)).contains(member);
+
+		transactionTemplate.executeWithoutResult(status -> {
+			roomService.removeMember(roomId, member, member);
+			status.setRollbackOnly();
+		});
+
+		assertThat(membershipCache.members(roomId)).contains(member);
+		assertThat(roomService.getMembers(roomId, member)).hasSize(2);
+	}
+
+	private int unread(long userId) {
+		return roomService.getRooms(userId).stream()
+				.filter(summary -> summary.getRoomId().equals(roomId))
+				.findFirst()
+				.orElseThrow()
+				.getUnreadCount();
+	}
+}
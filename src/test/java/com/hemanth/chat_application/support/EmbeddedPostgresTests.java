@@ -0,0 +1,59 @@
+package com.hemanth.chat_application.support;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.UUID;
+
+// Base class for tests that need the real schema: one embedded Postgres per test JVM, migrated by
+// Flyway when the (cached, shared) application context starts. Tests create their own users so
+// they never depend on each other's rows.
+@SpringBootTest(properties = {
+		"spring.main.banner-mode=off",
+		"spring.jpa.show-sql=false"
+})
+public abstract class EmbeddedPostgresTests {
+
+	private static final EmbeddedPostgres POSTGRES = start();
+
+	@Autowired
+	protected JdbcTemplate jdbcTemplate;
+
+	@DynamicPropertySource
+	static void datasource(DynamicPropertyRegistry registry) {
+		registry.add("spring.datasource.url", EmbeddedPostgresTests::jdbcUrl);
+		registry.add("spring.datasource.username", () -> "postgres");
+		registry.add("spring.datasource.password", () -> "");
+	}
+
+	public static String jdbcUrl() {
+		return POSTGRES.getJdbcUrl("postgres", "postgres") + "&currentSchema=chat_app&reWriteBatchedInserts=true";
+	}
+
+	protected long createUser() {
+		String name = "user-" + UUID.randomUUID();
+		return jdbcTemplate.queryForObject("INSERT INTO users (email, username, status, is_active, created_at) " +
+				"VALUES (?, ?, 'OFFLINE', true, now()) RETURNING id", Long.class, name + "@test.local", name);
+	}
+
+	private static EmbeddedPostgres start() {
+		try {
+			EmbeddedPostgres postgres = EmbeddedPostgres.builder().start();
+			Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+				try {
+					postgres.close();
+				} catch (IOException ignored) {
+				}
+			}));
+			return postgres;
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+}
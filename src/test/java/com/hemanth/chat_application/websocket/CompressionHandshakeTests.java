@@ -0,0 +1,61 @@
+package com.hemanth.chat_application.websocket;
+
+import com.hemanth.chat_application.support.EmbeddedPostgresTests;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Locale;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// A raw upgrade request, so the test sees exactly the headers Tomcat answers with
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+		properties = "chat.websocket.compression.enabled=false")
+class CompressionHandshakeTests extends EmbeddedPostgresTests {
+
+	@LocalServerPort
+	private int port;
+
+	@Test
+	void deflateOfferIsDeclinedWhenCompressionIsDisabled() throws IOException {
+		List<String> response = handshake("/ws-native?userId=" + createUser());
+
+		assertThat(response.get(0)).contains("101");
+		assertThat(response).noneMatch(header -> header.toLowerCase(Locale.ROOT).startsWith("sec-websocket-extensions:"));
+	}
+
+	private List<String> handshake(String path) throws IOException {
+		try (Socket socket = new Socket("localhost", port)) {
+			socket.setSoTimeout(10_000);
+			String key = Base64.getEncoder().encodeToString("0123456789abcdef".getBytes(StandardCharsets.US_ASCII));
+			OutputStream out = socket.getOutputStream();
+			out.write(("GET " + path + " HTTP/1.1\r\n" +
+					"Host: localhost:" + port + "\r\n" +
+					"Upgrade: websocket\r\n" +
+					"Connection: Upgrade\r\n" +
+					"Sec-WebSocket-Key: " + key + "\r\n" +
+					"Sec-WebSocket-Version: 13\r\n" +
+					"Sec-WebSocket-Protocol: v12.stomp\r\n" +
+					"Sec-WebSocket-Extensions: permessage-deflate; client_max_window_bits\r\n" +
+					"\r\n").getBytes(StandardCharsets.US_ASCII));
+			out.flush();
+
+			BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+			List<String> lines = new ArrayList<>();
+			for (String line = in.readLine(); line != null && !line.isEmpty(); line = in.readLine()) {
+				lines.add(line);
+			}
+			return lines;
+		}
+	}
+}
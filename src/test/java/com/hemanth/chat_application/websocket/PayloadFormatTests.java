@@ -0,0 +1,109 @@
+package com.hemanth.chat_application.websocket;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.hemanth.chat_application.support.EmbeddedPostgresTests;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.messaging.simp.stomp.StompFrameHandler;
+import org.springframework.messaging.simp.stomp.StompHeaders;
+import org.springframework.messaging.simp.stomp.StompSession;
+import org.springframework.messaging.simp.stomp.StompSessionHandlerAdapter;
+import org.springframework.web.socket.WebSocketHttpHeaders;
+import org.springframework.web.socket.client.WebSocketClient;
+import org.springframework.web.socket.client.standard.StandardWebSocketClient;
+import org.springframework.web.socket.messaging.WebSocketStompClient;
+import org.springframework.web.socket.sockjs.client.SockJsClient;
+import org.springframework.web.socket.sockjs.client.WebSocketTransport;
+
+import java.lang.reflect.Type;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class PayloadFormatTests extends EmbeddedPostgresTests {
+
+	private final ObjectMapper cborMapper = new ObjectMapper(new CBORFactory());
+	private final ObjectMapper jsonMapper = new ObjectMapper();
+
+	@LocalServerPort
+	private int port;
+
+	@Autowired
+	private PreEncodedMessagingTemplate preEncodedTemplate;
+
+	@Test
+	void nativeSessionReceivesBinaryCborFrames() throws Exception {
+		String userId = String.valueOf(createUser());
+		BlockingQueue<Frame> frames = new LinkedBlockingQueue<>();
+		StompSession session = connect(new StandardWebSocketClient(),
+				"ws://localhost:" + port + "/ws-native?userId=" + userId, frames);
+
+		Frame frame = awaitFrame(userId, frames);
+
+		assertThat(frame.headers.getFirst(PayloadFormat.HEADER)).isEqualTo("cbor");
+		assertThat(frame.headers.getContentType()).isEqualTo(PayloadFormat.CBOR.getContentType());
+		JsonNode decoded = cborMapper.readTree(frame.body);
+		assertThat(decoded.get("content").asText()).isEqualTo("héllo \u0000 binary");
+		session.disconnect();
+	}
+
+	@Test
+	void sockJsSessionAskingForCborStaysOnJson() throws Exception {
+		String userId = String.valueOf(createUser());
+		BlockingQueue<Frame> frames = new LinkedBlockingQueue<>();
+		StompSession session = connect(new SockJsClient(List.of(new WebSocketTransport(new StandardWebSocketClient()))),
+				"http://localhost:" + port + "/ws?userId=" + userId, frames);
+
+		Frame frame = awaitFrame(userId, frames);
+
+		assertThat(frame.headers.containsKey(PayloadFormat.HEADER)).isFalse();
+		assertThat(frame.headers.getContentType()).isEqualTo(PayloadFormat.JSON.getContentType());
+		assertThat(jsonMapper.readTree(frame.body).get("content").asText()).isEqualTo("héllo \u0000 binary");
+		session.disconnect();
+	}
+
+	private StompSession connect(WebSocketClient transport, String url, BlockingQueue<Frame> frames) throws Exception {
+		WebSocketStompClient client = new WebSocketStompClient(transport);
+		StompHeaders connectHeaders = new StompHeaders();
+		connectHeaders.add(PayloadFormat.HEADER, "cbor");
+
+		StompSession session = client.connectAsync(url, new WebSocketHttpHeaders(), connectHeaders, new StompSessionHandlerAdapter() {
+		}).get(10, TimeUnit.SECONDS);
+		session.subscribe("/user/queue/messages", new StompFrameHandler() {
+			@Override
+			public Type getPayloadType(StompHeaders headers) {
+				return byte[].class;
+			}
+
+			@Override
+			public void handleFrame(StompHeaders headers, Object payload) {
+				frames.add(new Frame(headers, (byte[]) payload));
+			}
+		});
+		return session;
+	}
+
+	// The SUBSCRIBE is processed asynchronously, so keep sending until the first frame arrives
+	private Frame awaitFrame(String userId, BlockingQueue<Frame> frames) throws InterruptedException {
+		for (int attempt = 0; attempt < 20; attempt++) {
+			preEncodedTemplate.convertAndSendToUser(userId, "/queue/messages", Map.of("content", "héllo \u0000 binary"));
+			Frame frame = frames.poll(500, TimeUnit.MILLISECONDS);
+			if (frame != null) {
+				return frame;
+			}
+		}
+		throw new AssertionError("No frame received for user " + userId);
+	}
+
+	private record Frame(StompHeaders headers, byte[] body) {
+	}
+}
@@ -0,0 +1,133 @@
+package com.hemanth.chat_application.websocket;
+
+import com.hemanth.chat_application.user.Status;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.assertj.core.groups.Tuple;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.messaging.simp.user.SimpUser;
+import org.springframework.messaging.simp.user.SimpUserRegistry;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atLeast;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class PresenceRegistryTests {
+
+	private static final long GRACE_PERIOD_MS = 5_000;
+	private static final String FLUSH_SQL = "UPDATE users SET status = ?, last_seen = ? WHERE id = ?";
+
+	private ApplicationEventPublisher eventPublisher;
+	private JdbcTemplate jdbcTemplate;
+	private SimpUserRegistry userRegistry;
+	private PresenceRegistry registry;
+
+	@BeforeEach
+	void setUp() {
+		eventPublisher = mock(ApplicationEventPublisher.class);
+		jdbcTemplate = mock(JdbcTemplate.class);
+		userRegistry = mock(SimpUserRegistry.class);
+		registry = new PresenceRegistry(eventPublisher, jdbcTemplate, userRegistry,
+				new SimpleMeterRegistry(), GRACE_PERIOD_MS);
+	}
+
+	@Test
+	void reconnectWithinGracePeriodNeverGoesOffline() {
+		registry.sessionConnected(1L, "s1");
+		registry.sessionDisconnected(1L, "s1", 1_000);
+		registry.expireGracePeriods(1_000 + GRACE_PERIOD_MS - 1);
+		registry.sessionConnected(1L, "s2");
+		registry.expireGracePeriods(1_000 + 10 * GRACE_PERIOD_MS);
+
+		assertThat(registry.isUserOnline(1L)).isTrue();
+		assertThat(registry.sessionCount(1L)).isEqualTo(1);
+		assertThat(transitions()).containsExactly(tuple(1L, Status.ONLINE));
+	}
+
+	@Test
+	void goesOfflineOnlyAfterTheLastSessionClosesAndGraceExpires() {
+		registry.sessionConnected(1L, "s1");
+		registry.sessionConnected(1L, "s2");
+
+		registry.sessionDisconnected(1L, "s1", 1_000);
+		registry.expireGracePeriods(1_000 + 10 * GRACE_PERIOD_MS);
+		assertThat(registry.isUserOnline(1L)).isTrue();
+
+		registry.sessionDisconnected(1L, "s2", 100_000);
+		registry.expireGracePeriods(100_000 + GRACE_PERIOD_MS - 1);
+		assertThat(registry.isUserOnline(1L)).isTrue();
+
+		registry.expireGracePeriods(100_000 + GRACE_PERIOD_MS);
+		assertThat(registry.isUserOnline(1L)).isFalse();
+		assertThat(registry.statusOf(1L)).isEqualTo(Status.OFFLINE);
+		assertThat(transitions()).containsExactly(tuple(1L, Status.ONLINE), tuple(1L, Status.OFFLINE));
+	}
+
+	@Test
+	void staysOnlineWhileConnectedToAnotherNode() {
+		when(userRegistry.getUser("1")).thenReturn(mock(SimpUser.class));
+		registry.sessionConnected(1L, "s1");
+		registry.sessionDisconnected(1L, "s1", 1_000);
+
+		registry.expireGracePeriods(1_000 + GRACE_PERIOD_MS);
+		assertThat(registry.isUserOnline(1L)).isTrue();
+		assertThat(transitions()).containsExactly(tuple(1L, Status.ONLINE));
+
+		// Left the other node as well: offline at the next check
+		when(userRegistry.getUser("1")).thenReturn(null);
+		registry.expireGracePeriods(1_000 + 2 * GRACE_PERIOD_MS);
+		assertThat(registry.isUserOnline(1L)).isFalse();
+		assertThat(transitions()).containsExactly(tuple(1L, Status.ONLINE), tuple(1L, Status.OFFLINE));
+	}
+
+	@Test
+	void flushWritesOneRowPerUserWithItsLatestStatus() {
+		registry.sessionConnected(1L, "s1");
+		registry.sessionConnected(2L, "s2");
+		registry.sessionDisconnected(1L, "s1", 1_000);
+		registry.expireGracePeriods(1_000 + GRACE_PERIOD_MS);
+
+		registry.flush();
+		registry.flush();
+
+		List<Object[]> batch = flushedBatch();
+		assertThat(batch).extracting(row -> row[2], row -> row[0])
+				.containsExactlyInAnyOrder(tuple(1L, "OFFLINE"), tuple(2L, "ONLINE"));
+	}
+
+	@Test
+	void flushWithoutChangesSkipsTheDatabase() {
+		registry.flush();
+
+		verify(jdbcTemplate, never()).batchUpdate(anyString(), anyList());
+	}
+
+	private List<Tuple> transitions() {
+		ArgumentCaptor<Object> events = ArgumentCaptor.forClass(Object.class);
+		verify(eventPublisher, atLeast(0)).publishEvent(events.capture());
+		return events.getAllValues().stream()
+				.map(UserStatusNotification.class::cast)
+				.map(event -> tuple(event.getUserId(), event.getStatus()))
+				.toList();
+	}
+
+	@SuppressWarnings("unchecked")
+	private List<Object[]> flushedBatch() {
+		ArgumentCaptor<List<Object[]>> batch = ArgumentCaptor.forClass(List.class);
+		verify(jdbcTemplate, times(1)).batchUpdate(eq(FLUSH_SQL), batch.capture());
+		return batch.getValue();
+	}
+}